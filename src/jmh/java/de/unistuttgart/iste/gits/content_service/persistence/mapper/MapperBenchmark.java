@@ -0,0 +1,125 @@
+package de.unistuttgart.iste.gits.content_service.persistence.mapper;
+
+import de.unistuttgart.iste.gits.content_service.persistence.entity.*;
+import de.unistuttgart.iste.gits.generated.dto.*;
+import org.modelmapper.ModelMapper;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.OffsetDateTime;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the explicit entity to DTO mappings of {@link ContentMapper} and {@link UserProgressDataMapper}
+ * with the reflection based ModelMapper mappings they replaced.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MapperBenchmark {
+
+    private final ModelMapper modelMapper = new ModelMapper();
+    private final ContentMapper contentMapper = new ContentMapper();
+    private final UserProgressDataMapper userProgressDataMapper = new UserProgressDataMapper();
+
+    private MediaContentEntity mediaContentEntity;
+    private AssessmentEntity assessmentEntity;
+    private AssessmentEntity quizAssessmentEntity;
+    private UserProgressDataEntity userProgressDataEntity;
+
+    @Setup
+    public void setUp() {
+        mediaContentEntity = MediaContentEntity.builder()
+                .id(UUID.randomUUID())
+                .metadata(metadata(ContentType.MEDIA))
+                .build();
+        assessmentEntity = AssessmentEntity.builder()
+                .id(UUID.randomUUID())
+                .metadata(metadata(ContentType.FLASHCARDS))
+                .assessmentMetadata(AssessmentMetadataEmbeddable.builder()
+                        .skillPoints(10)
+                        .skillTypes(List.of(SkillType.REMEMBER, SkillType.APPLY))
+                        .initialLearningInterval(1)
+                        .build())
+                .build();
+        quizAssessmentEntity = AssessmentEntity.builder()
+                .id(UUID.randomUUID())
+                .metadata(metadata(ContentType.QUIZ))
+                .assessmentMetadata(AssessmentMetadataEmbeddable.builder()
+                        .skillPoints(10)
+                        .skillTypes(List.of(SkillType.UNDERSTAND))
+                        .initialLearningInterval(1)
+                        .build())
+                .build();
+        userProgressDataEntity = UserProgressDataEntity.builder()
+                .userId(UUID.randomUUID())
+                .contentId(UUID.randomUUID())
+                .learningInterval(2)
+                .learned(true)
+                .lastSuccessTimestamp(OffsetDateTime.now().minusDays(1))
+                .nextLearnDate(OffsetDateTime.now().plusDays(1))
+                .build();
+    }
+
+    @Benchmark
+    public Content mediaContentExplicit() {
+        return contentMapper.entityToDto(mediaContentEntity);
+    }
+
+    @Benchmark
+    public Content mediaContentModelMapper() {
+        final MediaContent result = modelMapper.map(mediaContentEntity, MediaContent.class);
+        result.getMetadata().setTagNames(new ArrayList<>(mediaContentEntity.getMetadata().getTags()));
+        return result;
+    }
+
+    @Benchmark
+    public Content assessmentExplicit() {
+        return contentMapper.entityToDto(assessmentEntity);
+    }
+
+    @Benchmark
+    public Content assessmentModelMapper() {
+        final Assessment result = modelMapper.map(assessmentEntity, FlashcardSetAssessment.class);
+        result.getMetadata().setTagNames(new ArrayList<>(assessmentEntity.getMetadata().getTags()));
+        return result;
+    }
+
+    @Benchmark
+    public Content quizAssessmentExplicit() {
+        return contentMapper.entityToDto(quizAssessmentEntity);
+    }
+
+    @Benchmark
+    public Content quizAssessmentModelMapper() {
+        final Assessment result = modelMapper.map(quizAssessmentEntity, QuizAssessment.class);
+        result.getMetadata().setTagNames(new ArrayList<>(quizAssessmentEntity.getMetadata().getTags()));
+        return result;
+    }
+
+    @Benchmark
+    public UserProgressData userProgressDataExplicit() {
+        return userProgressDataMapper.entityToDto(userProgressDataEntity);
+    }
+
+    @Benchmark
+    public UserProgressData userProgressDataModelMapper() {
+        // only the reflective part, the derived fields are computed the same way in both variants
+        return modelMapper.map(userProgressDataEntity, UserProgressData.class);
+    }
+
+    private static ContentMetadataEmbeddable metadata(final ContentType type) {
+        return ContentMetadataEmbeddable.builder()
+                .name("content")
+                .type(type)
+                .suggestedDate(OffsetDateTime.now())
+                .rewardPoints(5)
+                .chapterId(UUID.randomUUID())
+                .courseId(UUID.randomUUID())
+                .tags(new HashSet<>(Set.of("tag1", "tag2")))
+                .build();
+    }
+}
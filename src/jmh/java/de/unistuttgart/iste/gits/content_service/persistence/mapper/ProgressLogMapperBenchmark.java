@@ -0,0 +1,73 @@
+package de.unistuttgart.iste.gits.content_service.persistence.mapper;
+
+import de.unistuttgart.iste.gits.content_service.persistence.entity.ProgressLogItemEntity;
+import de.unistuttgart.iste.gits.content_service.persistence.entity.UserProgressDataEntity;
+import de.unistuttgart.iste.gits.generated.dto.ProgressLogItem;
+import de.unistuttgart.iste.gits.generated.dto.UserProgressData;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.OffsetDateTime;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures mapping the progress data of a user together with its progress log, as it is done when the progress
+ * data and its log are both requested. The summary is mapped from the columns of the entity, so only the log
+ * mapping depends on the number of log items.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ProgressLogMapperBenchmark {
+
+    @Param({"5", "1000"})
+    private int numberOfLogItems;
+
+    private final UserProgressDataMapper userProgressDataMapper = new UserProgressDataMapper();
+
+    private UserProgressDataEntity userProgressDataEntity;
+    private List<ProgressLogItemEntity> logItems;
+
+    @Setup
+    public void setUp() {
+        final Random random = new Random(42);
+        final UUID userId = UUID.randomUUID();
+        final UUID contentId = UUID.randomUUID();
+
+        userProgressDataEntity = UserProgressDataEntity.builder()
+                .userId(userId)
+                .contentId(contentId)
+                .learningInterval(2)
+                .learned(true)
+                .lastSuccessTimestamp(OffsetDateTime.now().minusDays(1))
+                .nextLearnDate(OffsetDateTime.now().plusDays(1))
+                .build();
+
+        logItems = new ArrayList<>(numberOfLogItems);
+        for (int i = 0; i < numberOfLogItems; i++) {
+            logItems.add(ProgressLogItemEntity.builder()
+                    .id(UUID.randomUUID())
+                    .userId(userId)
+                    .contentId(contentId)
+                    .timestamp(OffsetDateTime.now().minusHours(numberOfLogItems - (long) i))
+                    .success(random.nextBoolean())
+                    .correctness(random.nextDouble())
+                    .hintsUsed(random.nextInt(5))
+                    .timeToComplete(random.nextInt(600))
+                    .build());
+        }
+    }
+
+    @Benchmark
+    public UserProgressData progressData() {
+        return userProgressDataMapper.entityToDto(userProgressDataEntity);
+    }
+
+    @Benchmark
+    public List<ProgressLogItem> progressLog() {
+        return userProgressDataMapper.logItemsToDto(logItems);
+    }
+}
@@ -0,0 +1,62 @@
+package de.unistuttgart.iste.gits.content_service.service;
+
+import de.unistuttgart.iste.gits.common.util.GitsCollectionUtils;
+import de.unistuttgart.iste.gits.generated.dto.*;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.OffsetDateTime;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures {@link GitsCollectionUtils#groupIntoSubLists} as used by {@link ContentService} to group the contents
+ * loaded for several chapters by their chapter id.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class GroupIntoSubListsBenchmark {
+
+    @Param({"10", "100", "1000"})
+    private int numberOfChapters;
+
+    @Param({"20"})
+    private int contentsPerChapter;
+
+    private List<UUID> chapterIds;
+    private List<Content> contents;
+
+    @Setup
+    public void setUp() {
+        chapterIds = new ArrayList<>(numberOfChapters);
+        contents = new ArrayList<>(numberOfChapters * contentsPerChapter);
+
+        for (int chapter = 0; chapter < numberOfChapters; chapter++) {
+            final UUID chapterId = UUID.randomUUID();
+            chapterIds.add(chapterId);
+            for (int i = 0; i < contentsPerChapter; i++) {
+                contents.add(MediaContent.builder()
+                        .setId(UUID.randomUUID())
+                        .setMetadata(ContentMetadata.builder()
+                                .setName("content" + i)
+                                .setType(ContentType.MEDIA)
+                                .setSuggestedDate(OffsetDateTime.now())
+                                .setChapterId(chapterId)
+                                .build())
+                        .build());
+            }
+        }
+
+        // the database does not return the contents ordered by chapter
+        Collections.shuffle(contents, new Random(42));
+    }
+
+    @Benchmark
+    public List<List<Content>> groupByChapterId() {
+        return GitsCollectionUtils.groupIntoSubLists(contents, chapterIds,
+                content -> content.getMetadata().getChapterId());
+    }
+}
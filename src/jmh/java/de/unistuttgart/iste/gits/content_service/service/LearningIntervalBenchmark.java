@@ -0,0 +1,69 @@
+package de.unistuttgart.iste.gits.content_service.service;
+
+import de.unistuttgart.iste.gits.common.event.ContentProgressedEvent;
+import de.unistuttgart.iste.gits.content_service.persistence.entity.UserProgressDataEntity;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures {@link UserProgressDataService#calculateNewLearningInterval(ContentProgressedEvent, UserProgressDataEntity)}
+ * for a successful and a failed attempt, which is done for every progress event that is ingested.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class LearningIntervalBenchmark {
+
+    // the calculation does not use any of the dependencies of the service
+    private final UserProgressDataService userProgressDataService =
+            new UserProgressDataService(null, null, null, null, null, null);
+
+    private UserProgressDataEntity userProgressDataEntity;
+    private ContentProgressedEvent successfulEvent;
+    private ContentProgressedEvent failedEvent;
+
+    @Setup
+    public void setUp() {
+        final UUID userId = UUID.randomUUID();
+        final UUID contentId = UUID.randomUUID();
+
+        userProgressDataEntity = UserProgressDataEntity.builder()
+                .userId(userId)
+                .contentId(contentId)
+                .learningInterval(8)
+                .learned(true)
+                .build();
+        successfulEvent = createEvent(userId, contentId, true, 0.9, 2);
+        failedEvent = createEvent(userId, contentId, false, 0.3, 0);
+    }
+
+    @Benchmark
+    public Integer successfulAttempt() {
+        return userProgressDataService.calculateNewLearningInterval(successfulEvent, userProgressDataEntity);
+    }
+
+    @Benchmark
+    public Integer failedAttempt() {
+        return userProgressDataService.calculateNewLearningInterval(failedEvent, userProgressDataEntity);
+    }
+
+    private static ContentProgressedEvent createEvent(final UUID userId,
+                                                      final UUID contentId,
+                                                      final boolean success,
+                                                      final double correctness,
+                                                      final int hintsUsed) {
+        return ContentProgressedEvent.builder()
+                .userId(userId)
+                .contentId(contentId)
+                .success(success)
+                .correctness(correctness)
+                .hintsUsed(hintsUsed)
+                .timeToComplete(100)
+                .build();
+    }
+}
@@ -0,0 +1,99 @@
+package de.unistuttgart.iste.gits.content_service.service;
+
+import de.unistuttgart.iste.gits.generated.dto.*;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+import static java.time.OffsetDateTime.now;
+import static java.util.Comparator.comparing;
+import static java.util.Comparator.reverseOrder;
+
+/**
+ * Compares ranking the candidates of a suggestion request with a comparator chain that evaluates the clock and the
+ * progress data on every comparison against ranking them by precomputed {@link SuggestionRank}s.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SuggestionRankingBenchmark {
+
+    @Param({"50", "500", "5000"})
+    private int numberOfContents;
+
+    @Param({"10"})
+    private int amount;
+
+    private List<Content> contents;
+    private Map<UUID, UserProgressData> progressByContentId;
+
+    @Setup
+    public void setUp() {
+        final Random random = new Random(42);
+        contents = new ArrayList<>(numberOfContents);
+        progressByContentId = new HashMap<>(numberOfContents);
+
+        for (int i = 0; i < numberOfContents; i++) {
+            final Content content = MediaContent.builder()
+                    .setId(UUID.randomUUID())
+                    .setMetadata(ContentMetadata.builder()
+                            .setName("content" + i)
+                            .setSuggestedDate(now().plusDays(random.nextInt(60) - 30L))
+                            .setRewardPoints(random.nextInt(20))
+                            .build())
+                    .build();
+            final boolean learned = random.nextBoolean();
+            final UserProgressData progress = UserProgressData.builder()
+                    .setIsLearned(learned)
+                    .setIsDueForReview(learned)
+                    .setNextLearnDate(learned ? now().plusDays(random.nextInt(60) - 30L) : null)
+                    .build();
+
+            contents.add(content);
+            progressByContentId.put(content.getId(), progress);
+        }
+    }
+
+    @Benchmark
+    public List<Content> comparatorChain() {
+        return contents.stream()
+                .sorted(comparing((Content content) -> Duration.between(now(), relevantLearnDate(content)).toDays())
+                        .thenComparing(newContentFirst())
+                        .thenComparing(byRewardPoints(), reverseOrder()))
+                .limit(amount)
+                .toList();
+    }
+
+    @Benchmark
+    public List<Content> precomputedRank() {
+        final OffsetDateTime referenceTime = now();
+        final SuggestionService.TopContents topContents = new SuggestionService.TopContents(amount);
+
+        for (final Content content : contents) {
+            topContents.offer(content,
+                    SuggestionRank.of(content, progressByContentId.get(content.getId()), referenceTime));
+        }
+
+        return topContents.toSortedList();
+    }
+
+    private OffsetDateTime relevantLearnDate(final Content content) {
+        final UserProgressData progress = progressByContentId.get(content.getId());
+        return progress.getIsLearned() ? progress.getNextLearnDate() : content.getMetadata().getSuggestedDate();
+    }
+
+    private Function<Content, Boolean> newContentFirst() {
+        return content -> progressByContentId.get(content.getId()).getIsLearned();
+    }
+
+    private static Function<Content, Integer> byRewardPoints() {
+        return content -> content.getMetadata().getRewardPoints();
+    }
+}
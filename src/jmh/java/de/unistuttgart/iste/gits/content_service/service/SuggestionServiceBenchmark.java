@@ -0,0 +1,145 @@
+package de.unistuttgart.iste.gits.content_service.service;
+
+import de.unistuttgart.iste.gits.generated.dto.*;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+import static java.time.OffsetDateTime.now;
+
+/**
+ * Measures {@link SuggestionService#createSuggestions(List, UUID, int, List)} over synthetic chapters, with and
+ * without a skill type filter. The progress data of the user is served from memory, so that only the work of the
+ * service itself is measured.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SuggestionServiceBenchmark {
+
+    private static final int SECTIONS_PER_CHAPTER = 3;
+    private static final int STAGES_PER_SECTION = 3;
+    private static final int CONTENTS_PER_STAGE = 4;
+
+    @Param({"1", "10", "50"})
+    private int numberOfChapters;
+
+    @Param({"10"})
+    private int amount;
+
+    private final UUID userId = UUID.randomUUID();
+
+    private SuggestionService suggestionService;
+    private List<Section> sections;
+
+    @Setup
+    public void setUp() {
+        final Random random = new Random(42);
+        final Map<UUID, UserProgressData> progressByContentId = new HashMap<>();
+        sections = new ArrayList<>(numberOfChapters * SECTIONS_PER_CHAPTER);
+
+        for (int chapter = 0; chapter < numberOfChapters; chapter++) {
+            final UUID chapterId = UUID.randomUUID();
+            for (int section = 0; section < SECTIONS_PER_CHAPTER; section++) {
+                final List<Stage> stages = new ArrayList<>(STAGES_PER_SECTION);
+                for (int stage = 0; stage < STAGES_PER_SECTION; stage++) {
+                    stages.add(Stage.builder()
+                            .setId(UUID.randomUUID())
+                            .setPosition(stage)
+                            .setRequiredContents(createContents(random, chapterId, progressByContentId))
+                            .setOptionalContents(createContents(random, chapterId, progressByContentId))
+                            .build());
+                }
+                sections.add(Section.builder()
+                        .setId(UUID.randomUUID())
+                        .setChapterId(chapterId)
+                        .setName("section" + section)
+                        .setStages(stages)
+                        .build());
+            }
+        }
+
+        suggestionService = new SuggestionService(new InMemoryUserProgressDataService(progressByContentId));
+    }
+
+    @Benchmark
+    public List<Suggestion> allSkillTypes() {
+        return suggestionService.createSuggestions(sections, userId, amount, List.of());
+    }
+
+    @Benchmark
+    public List<Suggestion> filteredBySkillType() {
+        return suggestionService.createSuggestions(sections, userId, amount, List.of(SkillType.APPLY));
+    }
+
+    private static List<Content> createContents(final Random random,
+                                                final UUID chapterId,
+                                                final Map<UUID, UserProgressData> progressByContentId) {
+        final List<Content> contents = new ArrayList<>(CONTENTS_PER_STAGE);
+        for (int i = 0; i < CONTENTS_PER_STAGE; i++) {
+            final ContentMetadata metadata = ContentMetadata.builder()
+                    .setName("content" + i)
+                    .setChapterId(chapterId)
+                    .setSuggestedDate(now().plusDays(random.nextInt(60) - 30L))
+                    .setRewardPoints(random.nextInt(20))
+                    .setTagNames(List.of())
+                    .build();
+            final Content content;
+            if (random.nextBoolean()) {
+                metadata.setType(ContentType.MEDIA);
+                content = MediaContent.builder()
+                        .setId(UUID.randomUUID())
+                        .setMetadata(metadata)
+                        .build();
+            } else {
+                metadata.setType(ContentType.FLASHCARDS);
+                content = FlashcardSetAssessment.builder()
+                        .setId(UUID.randomUUID())
+                        .setMetadata(metadata)
+                        .setAssessmentMetadata(AssessmentMetadata.builder()
+                                .setSkillPoints(10)
+                                .setSkillTypes(List.of(SkillType.values()[random.nextInt(SkillType.values().length)]))
+                                .setInitialLearningInterval(1)
+                                .build())
+                        .build();
+            }
+
+            final boolean learned = random.nextBoolean();
+            progressByContentId.put(content.getId(), UserProgressData.builder()
+                    .setContentId(content.getId())
+                    .setIsLearned(learned)
+                    .setIsDueForReview(learned && random.nextBoolean())
+                    .setNextLearnDate(learned ? now().plusDays(random.nextInt(60) - 30L) : null)
+                    .build());
+            contents.add(content);
+        }
+        return contents;
+    }
+
+    /**
+     * Serves the progress data of the user from a map instead of the database.
+     */
+    private static class InMemoryUserProgressDataService extends UserProgressDataService {
+
+        private final Map<UUID, UserProgressData> progressByContentId;
+
+        InMemoryUserProgressDataService(final Map<UUID, UserProgressData> progressByContentId) {
+            super(null, null, null, null, null, null);
+            this.progressByContentId = progressByContentId;
+        }
+
+        @Override
+        public Map<UUID, UserProgressData> getUserProgressDataOfContents(final UUID userId,
+                                                                         final Collection<UUID> contentIds) {
+            final Map<UUID, UserProgressData> result = new HashMap<>(contentIds.size());
+            for (final UUID contentId : contentIds) {
+                result.put(contentId, progressByContentId.get(contentId));
+            }
+            return result;
+        }
+    }
+}
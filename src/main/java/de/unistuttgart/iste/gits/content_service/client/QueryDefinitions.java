@@ -31,13 +31,6 @@ public class QueryDefinitions {
                     lastLearnDate
                     isLearned
                     isDueForReview
-                    log {
-                        timestamp
-                        success
-                        correctness
-                        hintsUsed
-                        timeToComplete
-                    }
                 }
             }
                
@@ -0,0 +1,31 @@
+package de.unistuttgart.iste.gits.content_service.config;
+
+import de.unistuttgart.iste.gits.content_service.service.ContentCache;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+/**
+ * Provides the {@link ContentCache}. The cache can be disabled by setting
+ * {@code content-service.cache.contents.enabled} to false, in which case all reads go to the database.
+ */
+@Configuration
+public class ContentCacheConfiguration {
+
+    @Bean
+    public ContentCache contentCache(@Value("${content-service.cache.contents.enabled:true}") final boolean enabled,
+                                     @Value("${content-service.cache.contents.maximum-size:10000}") final long maximumSize,
+                                     @Value("${content-service.cache.contents.expire-after-write:PT10M}") final Duration expireAfterWrite,
+                                     final ObjectProvider<MeterRegistry> meterRegistry) {
+        if (!enabled) {
+            return ContentCache.disabled();
+        }
+        final ContentCache contentCache = new ContentCache(maximumSize, expireAfterWrite);
+        meterRegistry.ifAvailable(contentCache::registerMetrics);
+        return contentCache;
+    }
+}
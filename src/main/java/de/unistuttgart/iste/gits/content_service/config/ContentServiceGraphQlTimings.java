@@ -0,0 +1,52 @@
+package de.unistuttgart.iste.gits.content_service.config;
+
+import graphql.execution.ExecutionStepInfo;
+import graphql.execution.instrumentation.InstrumentationContext;
+import graphql.execution.instrumentation.InstrumentationState;
+import graphql.execution.instrumentation.SimpleInstrumentationContext;
+import graphql.execution.instrumentation.SimplePerformantInstrumentation;
+import graphql.execution.instrumentation.parameters.InstrumentationFieldFetchParameters;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Component;
+
+/**
+ * Records the fields that are resolved by a controller method or a data loader as the timer
+ * {@code content_service.graphql.field}, tagged with the field, e.g. {@code Stage.requiredContentsProgress},
+ * and the outcome. Fields that are simply read from their parent object are not recorded.
+ * <p>
+ * The duration of whole operations is already recorded by Spring's {@code graphql.request} observation.
+ */
+@Component
+public class ContentServiceGraphQlTimings extends SimplePerformantInstrumentation {
+
+    public static final String FIELD_TIMER = "content_service.graphql.field";
+
+    private final MeterRegistry meterRegistry;
+
+    public ContentServiceGraphQlTimings(final ObjectProvider<MeterRegistry> meterRegistryProvider) {
+        this.meterRegistry = meterRegistryProvider.getIfAvailable(() -> Metrics.globalRegistry);
+    }
+
+    @Override
+    public InstrumentationContext<Object> beginFieldFetch(final InstrumentationFieldFetchParameters parameters,
+                                                          final InstrumentationState state) {
+        if (parameters.isTrivialDataFetcher()) {
+            return SimpleInstrumentationContext.noOp();
+        }
+
+        final ExecutionStepInfo stepInfo = parameters.getExecutionStepInfo();
+        final String field = stepInfo.getObjectType().getName() + "." + stepInfo.getFieldDefinition().getName();
+        final Timer.Sample sample = Timer.start(meterRegistry);
+
+        // completed once the value of the field is available, also if it is loaded asynchronously by a data loader
+        return SimpleInstrumentationContext.whenCompleted((result, exception) ->
+                sample.stop(Timer.builder(FIELD_TIMER)
+                        .description("Duration of resolving GraphQL fields")
+                        .tag("field", field)
+                        .tag("outcome", exception == null ? "SUCCESS" : "ERROR")
+                        .register(meterRegistry)));
+    }
+}
@@ -0,0 +1,37 @@
+package de.unistuttgart.iste.gits.content_service.config;
+
+import de.unistuttgart.iste.gits.content_service.service.ProgressLogKey;
+import de.unistuttgart.iste.gits.content_service.service.UserProgressDataKey;
+import de.unistuttgart.iste.gits.content_service.service.UserProgressDataService;
+import de.unistuttgart.iste.gits.generated.dto.ProgressLogItem;
+import de.unistuttgart.iste.gits.generated.dto.UserProgressData;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.graphql.execution.BatchLoaderRegistry;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+
+/**
+ * Registers the data loaders used to batch the resolution of GraphQL fields.
+ * <p>
+ * The progress data and the progress logs of all contents in a response are loaded with one database query
+ * per user instead of one query per content.
+ */
+@Configuration
+public class DataLoaderConfiguration {
+
+    /**
+     * Name of the data loader for the progress logs, registered by name as its values are lists.
+     */
+    public static final String PROGRESS_LOG_LOADER = "progressLog";
+
+    public DataLoaderConfiguration(final BatchLoaderRegistry batchLoaderRegistry,
+                                   final UserProgressDataService userProgressDataService) {
+        batchLoaderRegistry.forTypePair(UserProgressDataKey.class, UserProgressData.class)
+                .registerMappedBatchLoader((keys, environment) ->
+                        Mono.fromSupplier(() -> userProgressDataService.getUserProgressData(keys)));
+        batchLoaderRegistry.<ProgressLogKey, List<ProgressLogItem>>forName(PROGRESS_LOG_LOADER)
+                .registerMappedBatchLoader((keys, environment) ->
+                        Mono.fromSupplier(() -> userProgressDataService.getProgressLogs(keys)));
+    }
+}
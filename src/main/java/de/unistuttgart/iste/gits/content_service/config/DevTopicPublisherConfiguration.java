@@ -2,6 +2,8 @@ package de.unistuttgart.iste.gits.content_service.config;
 
 import de.unistuttgart.iste.gits.common.dapr.MockTopicPublisher;
 import de.unistuttgart.iste.gits.common.dapr.TopicPublisher;
+import de.unistuttgart.iste.gits.content_service.dapr.CacheInvalidationPublisher;
+import de.unistuttgart.iste.gits.content_service.dapr.InMemoryCacheInvalidationPublisher;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.context.annotation.*;
 
@@ -16,4 +18,10 @@ public class DevTopicPublisherConfiguration {
         return new MockTopicPublisher();
     }
 
+    @Bean
+    public CacheInvalidationPublisher getCacheInvalidationPublisher() {
+        log.warn("CacheInvalidationPublisher only publishes in memory. This is intended for development use only.");
+        return new InMemoryCacheInvalidationPublisher();
+    }
+
 }
@@ -5,7 +5,9 @@ import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
 /**
- * Provides a bean for the ModelMapper. The model mapper is used to map entities to DTOs and vice versa.
+ * Provides a bean for the ModelMapper.
+ * Contents and progress data are mapped explicitly by their mappers, the model mapper is kept as a fallback
+ * for mappings that have no explicit implementation.
  */
 @Configuration
 public class ModelMapperConfiguration {
@@ -0,0 +1,12 @@
+package de.unistuttgart.iste.gits.content_service.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * Enables scheduled tasks, e.g. flushing the buffered content-progressed events.
+ */
+@Configuration
+@EnableScheduling
+public class SchedulingConfiguration {
+}
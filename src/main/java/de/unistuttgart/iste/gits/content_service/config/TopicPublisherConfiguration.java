@@ -1,6 +1,8 @@
 package de.unistuttgart.iste.gits.content_service.config;
 
 import de.unistuttgart.iste.gits.common.dapr.TopicPublisher;
+import de.unistuttgart.iste.gits.content_service.dapr.CacheInvalidationPublisher;
+import de.unistuttgart.iste.gits.content_service.dapr.DaprCacheInvalidationPublisher;
 import io.dapr.client.DaprClientBuilder;
 import org.springframework.context.annotation.*;
 
@@ -14,4 +16,9 @@ public class TopicPublisherConfiguration {
         return new TopicPublisher(new DaprClientBuilder().build());
     }
 
+    @Bean
+    public CacheInvalidationPublisher getCacheInvalidationPublisher() {
+        return new DaprCacheInvalidationPublisher(new DaprClientBuilder().build());
+    }
+
 }
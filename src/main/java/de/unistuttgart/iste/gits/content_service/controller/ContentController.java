@@ -3,15 +3,20 @@ package de.unistuttgart.iste.gits.content_service.controller;
 import de.unistuttgart.iste.gits.common.exception.NoAccessToCourseException;
 import de.unistuttgart.iste.gits.common.user_handling.LoggedInUser;
 import de.unistuttgart.iste.gits.common.user_handling.LoggedInUser.UserRoleInCourse;
+import de.unistuttgart.iste.gits.content_service.config.DataLoaderConfiguration;
 import de.unistuttgart.iste.gits.content_service.service.*;
 import de.unistuttgart.iste.gits.generated.dto.*;
+import graphql.schema.DataFetchingEnvironment;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.dataloader.DataLoader;
 import org.springframework.graphql.data.method.annotation.*;
 import org.springframework.stereotype.Controller;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
 import java.util.stream.Stream;
 
 import static de.unistuttgart.iste.gits.common.user_handling.UserCourseAccessValidator.validateUserHasAccessToCourse;
@@ -29,6 +34,7 @@ public class ContentController {
     private final ContentService contentService;
     private final UserProgressDataService userProgressDataService;
     private final SuggestionService suggestionService;
+    private final SectionService sectionService;
 
     @QueryMapping
     public List<Content> contentsByIds(@Argument final List<UUID> ids,
@@ -76,22 +82,16 @@ public class ContentController {
                                                     @Argument final int amount,
                                                     @Argument final List<SkillType> skillTypes,
                                                     @ContextValue final LoggedInUser currentUser) {
-        final List<Content> requiredContents = suggestionService.getAvailableRequiredContentsOfChaptersForUser(
-                chapterIds,
-                currentUser.getId()
-        );
+        final List<Section> sections = sectionService.getSectionsByChapterIds(chapterIds)
+                .stream()
+                .flatMap(Collection::stream)
+                .toList();
 
-        final List<Content> optionalContents = suggestionService.getAvailableOptionalContentsOfChaptersForUser(
-                chapterIds,
-                currentUser.getId()
-        );
-
-        validateReadAccessToContents(currentUser, requiredContents);
-        validateReadAccessToContents(currentUser, optionalContents);
+        validateUserHasAccessToCourses(currentUser, UserRoleInCourse.STUDENT,
+                sections.stream().map(Section::getCourseId));
 
         return suggestionService.createSuggestions(
-                requiredContents,
-                optionalContents,
+                sections,
                 currentUser.getId(),
                 amount,
                 skillTypes);
@@ -148,6 +148,32 @@ public class ContentController {
         return contentService.createAssessment(input, courseId);
     }
 
+    @MutationMapping(name = INTERNAL_PREFIX + "createMediaContents")
+    public List<MediaContent> internalCreateMediaContents(@Argument final List<CreateMediaContentInput> inputs,
+                                                          @Argument final UUID courseId,
+                                                          @ContextValue final LoggedInUser currentUser) {
+        validateUserHasAccessToCourse(currentUser, UserRoleInCourse.ADMINISTRATOR, courseId);
+
+        return contentService.createMediaContents(inputs, courseId);
+    }
+
+    @MutationMapping(name = INTERNAL_PREFIX + "createAssessments")
+    public List<Assessment> internalCreateAssessments(@Argument final List<CreateAssessmentInput> inputs,
+                                                      @Argument final UUID courseId,
+                                                      @ContextValue final LoggedInUser currentUser) {
+        validateUserHasAccessToCourse(currentUser, UserRoleInCourse.ADMINISTRATOR, courseId);
+
+        return contentService.createAssessments(inputs, courseId);
+    }
+
+    @MutationMapping(name = INTERNAL_PREFIX + "rebuildChapterProgress")
+    public int internalRebuildChapterProgress(@Argument final UUID courseId,
+                                              @ContextValue final LoggedInUser currentUser) {
+        validateUserHasAccessToCourse(currentUser, UserRoleInCourse.ADMINISTRATOR, courseId);
+
+        return userProgressDataService.rebuildChapterProgress(courseId);
+    }
+
     @SchemaMapping(typeName = CONTENT_MUTATION)
     public MediaContent updateMediaContent(@Argument final UpdateMediaContentInput input, final ContentMutation contentMutation) {
         return contentService.updateMediaContent(contentMutation.getContentId(), input);
@@ -180,23 +206,52 @@ public class ContentController {
     }
 
 
+    @QueryMapping
+    public DueReviewsPayload dueReviewsForUser(@Argument final List<UUID> courseIds,
+                                               @Argument final int first,
+                                               @Argument final String after,
+                                               @ContextValue final LoggedInUser currentUser) {
+        validateUserHasAccessToCourses(currentUser, UserRoleInCourse.STUDENT, courseIds);
+
+        return userProgressDataService.getDueReviews(currentUser.getId(), courseIds, first, after);
+    }
+
     @QueryMapping(name = INTERNAL_NOAUTH_PREFIX + "contentWithNoSectionByChapterIds")
     public List<List<Content>> contentWithNoSectionByChapterIds(@Argument final List<UUID> chapterIds) {
         return contentService.getContentWithNoSection(chapterIds);
     }
 
+    /**
+     * Resolves the progress log separately from the progress data, so that only the requested entries are loaded.
+     * The logs of all progress data in a response are loaded together.
+     */
+    @SchemaMapping(typeName = "UserProgressData", field = "log")
+    public CompletableFuture<List<ProgressLogItem>> progressLog(final UserProgressData userProgressData,
+                                                                @Argument final Integer first,
+                                                                @Argument final String after,
+                                                                final DataFetchingEnvironment environment) {
+        final DataLoader<ProgressLogKey, List<ProgressLogItem>> loader =
+                environment.getDataLoader(DataLoaderConfiguration.PROGRESS_LOG_LOADER);
+        return loader.load(new ProgressLogKey(userProgressData.getUserId(), userProgressData.getContentId(),
+                first, after == null ? null : KeysetCursor.decode(after)));
+    }
+
     /**
      * Abstract Resolver for all Content Types to avoid code duplication
      */
     public abstract class ContentResolver<T extends Content> {
         @SchemaMapping(field = "userProgressData")
-        public UserProgressData userProgressData(final T content, @ContextValue final LoggedInUser currentUser) {
-            return userProgressDataService.getUserProgressData(currentUser.getId(), content.getId());
+        public CompletableFuture<UserProgressData> userProgressData(final T content,
+                                                                    @ContextValue final LoggedInUser currentUser,
+                                                                    final DataLoader<UserProgressDataKey, UserProgressData> loader) {
+            return loader.load(new UserProgressDataKey(currentUser.getId(), content.getId()));
         }
 
         @SchemaMapping(field = "progressDataForUser")
-        public UserProgressData progressDataForUser(final T content, @Argument final UUID userId) {
-            return userProgressDataService.getUserProgressData(userId, content.getId());
+        public CompletableFuture<UserProgressData> progressDataForUser(final T content,
+                                                                       @Argument final UUID userId,
+                                                                       final DataLoader<UserProgressDataKey, UserProgressData> loader) {
+            return loader.load(new UserProgressDataKey(userId, content.getId()));
         }
     }
 
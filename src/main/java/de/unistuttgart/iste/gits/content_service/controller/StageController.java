@@ -9,11 +9,10 @@ import de.unistuttgart.iste.gits.generated.dto.Stage;
 import de.unistuttgart.iste.gits.generated.dto.UpdateStageInput;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.graphql.data.method.annotation.Argument;
-import org.springframework.graphql.data.method.annotation.ContextValue;
-import org.springframework.graphql.data.method.annotation.SchemaMapping;
+import org.springframework.graphql.data.method.annotation.*;
 import org.springframework.stereotype.Controller;
 
+import java.util.List;
 import java.util.UUID;
 
 @Slf4j
@@ -39,14 +38,20 @@ public class StageController {
         return stageService.deleteStage(id);
     }
 
-    @SchemaMapping(field = "requiredContentsProgress")
-    public double requiredContentsProgress(final Stage stage, @ContextValue final LoggedInUser currentUser) {
-        return userProgressDataService.getStageProgressForUser(stage, currentUser.getId(), true);
+    /**
+     * Resolves the progress of all stages of the response at once, so that the progress data of the current user
+     * is fetched with one query instead of one query per stage.
+     */
+    @BatchMapping(typeName = "Stage", field = "requiredContentsProgress")
+    public List<Double> requiredContentsProgress(final List<Stage> stages,
+                                                 @ContextValue final LoggedInUser currentUser) {
+        return userProgressDataService.getStagesProgressForUser(stages, currentUser.getId(), true);
     }
 
-    @SchemaMapping(field = "optionalContentsProgress")
-    public double optionalContentsProgress(final Stage stage, @ContextValue final LoggedInUser currentUser) {
-        return userProgressDataService.getStageProgressForUser(stage, currentUser.getId(), false);
+    @BatchMapping(typeName = "Stage", field = "optionalContentsProgress")
+    public List<Double> optionalContentsProgress(final List<Stage> stages,
+                                                 @ContextValue final LoggedInUser currentUser) {
+        return userProgressDataService.getStagesProgressForUser(stages, currentUser.getId(), false);
     }
 
 }
@@ -3,14 +3,22 @@ package de.unistuttgart.iste.gits.content_service.controller;
 
 import de.unistuttgart.iste.gits.common.event.ChapterChangeEvent;
 import de.unistuttgart.iste.gits.common.event.ContentProgressedEvent;
+import de.unistuttgart.iste.gits.common.exception.IncompleteEventMessageException;
+import de.unistuttgart.iste.gits.content_service.dapr.CacheInvalidationEvent;
+import de.unistuttgart.iste.gits.content_service.dapr.CacheInvalidationPublisher;
 import de.unistuttgart.iste.gits.content_service.service.*;
 import io.dapr.Topic;
 import io.dapr.client.domain.CloudEvent;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
 import reactor.core.publisher.Mono;
 
+import java.util.Objects;
+import java.util.UUID;
+
 /**
  * REST Controller Class listening to a dapr Topic.
  */
@@ -19,45 +27,67 @@ import reactor.core.publisher.Mono;
 @RequiredArgsConstructor
 public class SubscriptionController {
 
-    private final ContentService contentService;
-    private final SectionService sectionService;
-    private final UserProgressDataService userProgressDataService;
+    private final CascadeTaskQueue cascadeTaskQueue;
+    private final ContentProgressedEventIngestion contentProgressedEventIngestion;
+    private final ContentCache contentCache;
+    private final CacheInvalidationPublisher cacheInvalidationPublisher;
 
     /**
-     * Listens to the content-progressed topic and logs the user progress.
+     * Listens to the content-progressed topic and logs the user progress, see {@link ContentProgressedEventIngestion}.
+     * If the event is not accepted, an error status is returned so that dapr redelivers the event.
      */
     @Topic(name = "content-progressed", pubsubName = "gits")
     @PostMapping(path = "/content-progressed-pubsub")
     public Mono<Void> logUserProgress(@RequestBody final CloudEvent<ContentProgressedEvent> cloudEvent) {
         return Mono.fromRunnable(() -> {
-            try {
-                log.info("Received content-progressed event: {}", cloudEvent.getData());
-                userProgressDataService.logUserProgress(cloudEvent.getData());
-            } catch (final Exception e) {
-                log.error("Error while processing logUserProgress event. {}", e.getMessage());
+            log.info("Received content-progressed event: {}", cloudEvent.getData());
+            if (!contentProgressedEventIngestion.submit(cloudEvent.getData())) {
+                throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE,
+                        "content-progressed event was not logged, retry later");
             }
         });
     }
 
+    /**
+     * Listens to the chapter-changed topic. For each deleted chapter, a task is stored that deletes the sections and
+     * contents of the chapter in the background, see {@link CascadeTaskWorker}. The event is acknowledged as soon
+     * as the tasks are stored. If they cannot be stored, an error is returned so that the event is redelivered.
+     */
     @Topic(name = "chapter-changed", pubsubName = "gits")
     @PostMapping(path = "/content-service/chapter-changed-pubsub")
     public Mono<Void> cascadeCourseDeletion(@RequestBody final CloudEvent<ChapterChangeEvent> cloudEvent) {
         return Mono.fromRunnable(() -> {
+            // events without id cannot be recognized when they are redelivered
+            final String eventId = Objects.requireNonNullElseGet(cloudEvent.getId(), () -> UUID.randomUUID().toString());
             try {
-                // Delete content associated with the chapter
-                sectionService.cascadeSectionDeletion(cloudEvent.getData());
-            } catch (final Exception e) {
+                final int createdTasks = cascadeTaskQueue.enqueue(eventId, cloudEvent.getData());
+                log.info("Received chapter-changed event {}, created {} cascade tasks", eventId, createdTasks);
+            } catch (final IncompleteEventMessageException e) {
+                // redelivering the event would not help
                 log.error("Error while processing chapter-changes event. {}", e.getMessage());
             }
+        });
+    }
+
+    /**
+     * Listens to the cache invalidations broadcast by the replicas of this service
+     * and invalidates the affected entries of the local cache.
+     */
+    @Topic(name = CacheInvalidationPublisher.TOPIC, pubsubName = CacheInvalidationPublisher.PUBSUB_NAME)
+    @PostMapping(path = "/content-service/cache-invalidated-pubsub")
+    public Mono<Void> invalidateCaches(@RequestBody final CloudEvent<CacheInvalidationEvent> cloudEvent) {
+        return Mono.fromRunnable(() -> {
             try {
-                // Delete section
-                contentService.cascadeContentDeletion(cloudEvent.getData());
+                final CacheInvalidationEvent event = cloudEvent.getData();
+                if (cacheInvalidationPublisher.getInstanceId().equals(event.getOriginId())) {
+                    // this replica already invalidated its cache when the change was made
+                    return;
+                }
+                contentCache.invalidate(event);
             } catch (final Exception e) {
-                log.error("Error while processing chapter-changes event. {}", e.getMessage());
+                log.error("Error while processing cache-invalidated event. {}", e.getMessage());
             }
-
         });
-
     }
 
 
@@ -71,4 +101,5 @@ public class SubscriptionController {
 
 
 
+
 }
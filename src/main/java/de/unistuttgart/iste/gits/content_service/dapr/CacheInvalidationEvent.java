@@ -0,0 +1,48 @@
+package de.unistuttgart.iste.gits.content_service.dapr;
+
+import lombok.*;
+
+import java.util.HashSet;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Message broadcast to all replicas of the content service when entities changed,
+ * so that they can invalidate their caches.
+ * All changes of one transaction are combined into a single message.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CacheInvalidationEvent {
+
+    /**
+     * Id of the replica that sent the message. Replicas ignore their own messages,
+     * because they already invalidated their caches locally.
+     */
+    private UUID originId;
+
+    @Builder.Default
+    private Set<UUID> contentIds = new HashSet<>();
+
+    @Builder.Default
+    private Set<UUID> sectionIds = new HashSet<>();
+
+    @Builder.Default
+    private Set<UUID> stageIds = new HashSet<>();
+
+    @Builder.Default
+    private Set<UUID> chapterIds = new HashSet<>();
+
+    @Builder.Default
+    private Set<UUID> courseIds = new HashSet<>();
+
+    /**
+     * @return whether the message contains no changed entities
+     */
+    public boolean isEmpty() {
+        return contentIds.isEmpty() && sectionIds.isEmpty() && stageIds.isEmpty()
+               && chapterIds.isEmpty() && courseIds.isEmpty();
+    }
+}
@@ -0,0 +1,129 @@
+package de.unistuttgart.iste.gits.content_service.dapr;
+
+import lombok.Getter;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.UUID;
+import java.util.function.Consumer;
+
+/**
+ * Broadcasts changes of contents, sections and stages to the other replicas of the content service,
+ * so that they can invalidate their caches.
+ * <p>
+ * If a transaction is active, all changes of the transaction are collected and sent as a single
+ * {@link CacheInvalidationEvent} after the transaction was committed. Otherwise, the change is sent immediately.
+ * <p>
+ * Messages are sent over the pubsub component {@value #PUBSUB_NAME}, in which every replica has its own consumer
+ * group (see components/pubsub-cache-invalidation.yaml). On the shared "gits" component, all replicas are in the
+ * same consumer group and each message would only reach one of them.
+ */
+public abstract class CacheInvalidationPublisher {
+
+    public static final String PUBSUB_NAME = "content-cache-broadcast";
+    public static final String TOPIC = "content-cache-invalidated";
+
+    /**
+     * Id of this replica, used to recognize own messages.
+     */
+    @Getter
+    private final UUID instanceId = UUID.randomUUID();
+
+    /**
+     * Sends the given message to all replicas.
+     *
+     * @param event the message to send
+     */
+    protected abstract void publish(CacheInvalidationEvent event);
+
+    /**
+     * Notifies the other replicas that a content changed.
+     *
+     * @param contentId the id of the content
+     * @param chapterId the id of the chapter of the content, may be null
+     * @param courseId  the id of the course of the content, may be null
+     */
+    public void notifyContentChanged(final UUID contentId, final UUID chapterId, final UUID courseId) {
+        addToEvent(event -> {
+            event.getContentIds().add(contentId);
+            addIfNotNull(event, chapterId, courseId);
+        });
+    }
+
+    /**
+     * Notifies the other replicas that a section changed.
+     *
+     * @param sectionId the id of the section
+     * @param chapterId the id of the chapter of the section, may be null
+     * @param courseId  the id of the course of the section, may be null
+     */
+    public void notifySectionChanged(final UUID sectionId, final UUID chapterId, final UUID courseId) {
+        addToEvent(event -> {
+            event.getSectionIds().add(sectionId);
+            addIfNotNull(event, chapterId, courseId);
+        });
+    }
+
+    /**
+     * Notifies the other replicas that a stage changed.
+     *
+     * @param stageId   the id of the stage
+     * @param sectionId the id of the section of the stage
+     */
+    public void notifyStageChanged(final UUID stageId, final UUID sectionId) {
+        addToEvent(event -> {
+            event.getStageIds().add(stageId);
+            event.getSectionIds().add(sectionId);
+        });
+    }
+
+    private static void addIfNotNull(final CacheInvalidationEvent event, final UUID chapterId, final UUID courseId) {
+        if (chapterId != null) {
+            event.getChapterIds().add(chapterId);
+        }
+        if (courseId != null) {
+            event.getCourseIds().add(courseId);
+        }
+    }
+
+    private void addToEvent(final Consumer<CacheInvalidationEvent> change) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            final CacheInvalidationEvent event = newEvent();
+            change.accept(event);
+            publish(event);
+            return;
+        }
+
+        CacheInvalidationEvent event = (CacheInvalidationEvent) TransactionSynchronizationManager.getResource(this);
+        if (event == null) {
+            event = newEvent();
+            TransactionSynchronizationManager.bindResource(this, event);
+            TransactionSynchronizationManager.registerSynchronization(new PublishAfterCommit(event));
+        }
+        change.accept(event);
+    }
+
+    private CacheInvalidationEvent newEvent() {
+        return CacheInvalidationEvent.builder().originId(instanceId).build();
+    }
+
+    /**
+     * Publishes the collected changes of a transaction once it is committed.
+     */
+    private class PublishAfterCommit implements TransactionSynchronization {
+
+        private final CacheInvalidationEvent event;
+
+        PublishAfterCommit(final CacheInvalidationEvent event) {
+            this.event = event;
+        }
+
+        @Override
+        public void afterCompletion(final int status) {
+            TransactionSynchronizationManager.unbindResourceIfPossible(CacheInvalidationPublisher.this);
+            if (status == STATUS_COMMITTED && !event.isEmpty()) {
+                publish(event);
+            }
+        }
+    }
+}
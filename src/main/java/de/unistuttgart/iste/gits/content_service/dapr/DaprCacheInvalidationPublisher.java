@@ -0,0 +1,24 @@
+package de.unistuttgart.iste.gits.content_service.dapr;
+
+import io.dapr.client.DaprClient;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Broadcasts cache invalidations over the dapr pubsub {@value CacheInvalidationPublisher#PUBSUB_NAME}.
+ */
+@Slf4j
+@RequiredArgsConstructor
+public class DaprCacheInvalidationPublisher extends CacheInvalidationPublisher {
+
+    private final DaprClient client;
+
+    @Override
+    protected void publish(final CacheInvalidationEvent event) {
+        log.debug("Publishing cache invalidation {}", event);
+        client.publishEvent(PUBSUB_NAME, TOPIC, event)
+                .doOnError(e -> log.error("Could not publish cache invalidation {}", event, e))
+                .onErrorComplete()
+                .subscribe();
+    }
+}
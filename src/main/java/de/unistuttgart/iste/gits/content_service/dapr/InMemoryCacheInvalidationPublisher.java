@@ -0,0 +1,38 @@
+package de.unistuttgart.iste.gits.content_service.dapr;
+
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+/**
+ * Stand-in for the {@link DaprCacheInvalidationPublisher} that delivers messages in memory, for development
+ * and tests. Published messages are recorded and passed to all registered subscribers, which allows simulating
+ * other replicas.
+ */
+@Slf4j
+public class InMemoryCacheInvalidationPublisher extends CacheInvalidationPublisher {
+
+    @Getter
+    private final List<CacheInvalidationEvent> publishedEvents = new CopyOnWriteArrayList<>();
+
+    private final List<Consumer<CacheInvalidationEvent>> subscribers = new CopyOnWriteArrayList<>();
+
+    /**
+     * Registers a subscriber that receives all messages published from now on.
+     *
+     * @param subscriber the subscriber to register
+     */
+    public void subscribe(final Consumer<CacheInvalidationEvent> subscriber) {
+        subscribers.add(subscriber);
+    }
+
+    @Override
+    protected void publish(final CacheInvalidationEvent event) {
+        log.debug("Publishing cache invalidation in memory {}", event);
+        publishedEvents.add(event);
+        subscribers.forEach(subscriber -> subscriber.accept(event));
+    }
+}
@@ -0,0 +1,90 @@
+package de.unistuttgart.iste.gits.content_service.persistence.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.OffsetDateTime;
+import java.util.UUID;
+
+/**
+ * A pending or processed deletion of the sections and contents of a deleted chapter.
+ * <p>
+ * Tasks are created when a chapter-changed event is received and processed in the background,
+ * so that the event can be acknowledged right away. The event id and chapter id are unique,
+ * so a redelivered event does not create the task again.
+ */
+@Entity(name = "CascadeTask")
+@Table(
+        uniqueConstraints = {
+                @UniqueConstraint(name = "uk_cascade_task_event_chapter", columnNames = {"event_id", "chapter_id"})
+        },
+        indexes = {
+                @Index(name = "idx_cascade_task_status_available_at", columnList = "status, available_at"),
+                @Index(name = "idx_cascade_task_status_completed_at", columnList = "status, completed_at")
+        })
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CascadeTaskEntity {
+
+    @Id
+    @GeneratedValue
+    private UUID id;
+
+    @Column(name = "event_id", nullable = false)
+    private String eventId;
+
+    @Column(name = "chapter_id", nullable = false)
+    private UUID chapterId;
+
+    @Column(nullable = false, length = 16)
+    @Enumerated(EnumType.STRING)
+    private Status status;
+
+    @Column(nullable = false)
+    private int attempts;
+
+    @Column(nullable = false)
+    private OffsetDateTime createdAt;
+
+    /**
+     * The task is not claimed before this time, either because it is claimed by a worker
+     * or because it failed and is retried later.
+     */
+    @Column(name = "available_at", nullable = false)
+    private OffsetDateTime availableAt;
+
+    /**
+     * Identifies the claim of the worker that currently processes the task, null if the task is not claimed.
+     * Only this worker can complete the task or record its failure, and only until {@link #availableAt}.
+     */
+    @Column(name = "lease_owner", nullable = true)
+    private UUID leaseOwner;
+
+    @Column(name = "completed_at", nullable = true)
+    private OffsetDateTime completedAt;
+
+    @Column(nullable = true, length = 1000)
+    private String lastError;
+
+    public enum Status {
+        /**
+         * The task waits to be processed, possibly after a failed attempt.
+         */
+        PENDING,
+        /**
+         * A worker claimed the task. If the worker does not complete it before its lease expires,
+         * the task is claimed again.
+         */
+        RUNNING,
+        /**
+         * The task was processed. Done tasks are purged after the configured retention.
+         */
+        DONE,
+        /**
+         * The task failed in all attempts and is not retried anymore.
+         */
+        FAILED
+    }
+}
@@ -0,0 +1,47 @@
+package de.unistuttgart.iste.gits.content_service.persistence.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.OffsetDateTime;
+import java.util.UUID;
+
+/**
+ * An entry of the progress log of a user for a content.
+ * The log is append-only, so recording an attempt is a single insert.
+ */
+@Entity(name = "ProgressLogItem")
+@Table(indexes = {
+        @Index(name = "idx_progress_log_item_user_content_timestamp", columnList = "user_id, content_id, timestamp")
+})
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProgressLogItemEntity {
+
+    @Id
+    @GeneratedValue
+    private UUID id;
+
+    @Column(name = "user_id", nullable = false)
+    private UUID userId;
+
+    @Column(name = "content_id", nullable = false)
+    private UUID contentId;
+
+    @Column(nullable = false)
+    private OffsetDateTime timestamp;
+
+    @Column(nullable = false)
+    private boolean success;
+
+    @Column(nullable = false)
+    private double correctness;
+
+    @Column(nullable = false)
+    private int hintsUsed;
+
+    @Column(nullable = true)
+    private Integer timeToComplete;
+}
@@ -0,0 +1,40 @@
+package de.unistuttgart.iste.gits.content_service.persistence.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.io.Serializable;
+import java.util.UUID;
+
+/**
+ * Number of contents of a chapter a user has learned, i.e. the number of {@link UserProgressDataEntity}s of the
+ * user for contents of the chapter that are learned.
+ * <p>
+ * It is maintained whenever a content becomes learned, is deleted or is moved to another chapter, so that the
+ * progress of a chapter can be read without loading the progress data of all its contents.
+ */
+@Entity(name = "UserChapterProgress")
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@IdClass(UserChapterProgressEntity.UserChapterProgressPk.class)
+public class UserChapterProgressEntity {
+
+    @Column(name = "user_id", nullable = false)
+    @Id
+    private UUID userId;
+
+    @Column(name = "chapter_id", nullable = false)
+    @Id
+    private UUID chapterId;
+
+    @Column(name = "learned_contents", nullable = false)
+    private int learnedContents;
+
+    @EqualsAndHashCode
+    public static final class UserChapterProgressPk implements Serializable {
+        private UUID userId;
+        private UUID chapterId;
+    }
+}
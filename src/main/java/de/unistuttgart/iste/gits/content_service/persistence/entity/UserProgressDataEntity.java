@@ -2,18 +2,22 @@ package de.unistuttgart.iste.gits.content_service.persistence.entity;
 
 import jakarta.persistence.*;
 import lombok.*;
-import org.hibernate.annotations.OrderBy;
+import org.springframework.data.domain.Persistable;
 
 import java.io.Serializable;
-import java.util.*;
+import java.time.OffsetDateTime;
+import java.util.UUID;
 
 @Entity(name = "UserProgressData")
+@Table(indexes = {
+        @Index(name = "idx_user_progress_data_user_id_next_learn_date", columnList = "user_id, next_learn_date")
+})
 @Data
 @Builder
 @NoArgsConstructor
 @AllArgsConstructor
 @IdClass(UserProgressDataEntity.UserProgressPk.class)
-public class UserProgressDataEntity {
+public class UserProgressDataEntity implements Persistable<UserProgressDataEntity.UserProgressPk> {
 
     @Column(name = "user_id", nullable = false)
     @Id
@@ -23,14 +27,103 @@ public class UserProgressDataEntity {
     @Id
     private UUID contentId;
 
-    @ElementCollection
-    @OrderBy(clause = "timestamp DESC")
-    @Builder.Default
-    private List<ProgressLogItemEmbeddable> progressLog = new ArrayList<>();
-
     @Column(nullable = true)
     private Integer learningInterval;
 
+    /**
+     * Summary of the progress log, which is stored in {@link ProgressLogItemEntity}s.
+     * It is maintained whenever a log item is added, so that the progress can be evaluated without loading the log.
+     * Null if the summary has not been calculated yet, e.g. for rows that were created before the summary columns
+     * were introduced.
+     */
+    @Column(nullable = true)
+    private Boolean learned;
+
+    /**
+     * Timestamp of the latest successful log item, null if there is none.
+     */
+    @Column(nullable = true)
+    private OffsetDateTime lastSuccessTimestamp;
+
+    /**
+     * Date of the next repetition, i.e. the last successful learn date plus the learning interval.
+     * Null if the content was never learned successfully or is not scheduled for repetition.
+     */
+    @Column(name = "next_learn_date", nullable = true)
+    private OffsetDateTime nextLearnDate;
+
+    /**
+     * Whether the entity was loaded from or written to the database. The id is assigned and there is no version
+     * column, so without this flag Spring Data could not tell new entities apart and would merge them,
+     * which selects every new row before inserting it and prevents batching the inserts.
+     */
+    @Transient
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    @EqualsAndHashCode.Exclude
+    @ToString.Exclude
+    private boolean persisted;
+
+    @Override
+    public UserProgressPk getId() {
+        return new UserProgressPk(userId, contentId);
+    }
+
+    @Override
+    public boolean isNew() {
+        return !persisted;
+    }
+
+    @PostLoad
+    @PostPersist
+    void markPersisted() {
+        persisted = true;
+    }
+
+    /**
+     * @return whether the progress summary columns have been calculated
+     */
+    public boolean hasProgressSummary() {
+        return learned != null;
+    }
+
+    /**
+     * Updates the progress summary incrementally with a new item of the progress log.
+     * The summary must already be calculated and the learning interval must already be updated,
+     * as the next learn date is derived from it.
+     *
+     * @param logItem the added log item
+     */
+    public void recordProgress(final ProgressLogItemEntity logItem) {
+        if (logItem.isSuccess()) {
+            learned = true;
+            if (lastSuccessTimestamp == null || logItem.getTimestamp().isAfter(lastSuccessTimestamp)) {
+                lastSuccessTimestamp = logItem.getTimestamp();
+            }
+        }
+        updateNextLearnDate();
+    }
+
+    /**
+     * Calculates the progress summary. Only needed for rows without a summary.
+     *
+     * @param lastSuccessTimestamp the timestamp of the latest successful log item, null if there is none
+     */
+    public void initializeProgressSummary(final OffsetDateTime lastSuccessTimestamp) {
+        this.lastSuccessTimestamp = lastSuccessTimestamp;
+        this.learned = lastSuccessTimestamp != null;
+        updateNextLearnDate();
+    }
+
+    private void updateNextLearnDate() {
+        nextLearnDate = learningInterval == null || lastSuccessTimestamp == null
+                ? null
+                : lastSuccessTimestamp.plusDays(learningInterval);
+    }
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
     public static final class UserProgressPk implements Serializable {
         private UUID userId;
         private UUID contentId;
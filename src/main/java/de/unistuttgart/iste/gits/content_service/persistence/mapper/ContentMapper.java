@@ -2,20 +2,21 @@ package de.unistuttgart.iste.gits.content_service.persistence.mapper;
 
 import de.unistuttgart.iste.gits.content_service.persistence.entity.*;
 import de.unistuttgart.iste.gits.generated.dto.*;
-import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.modelmapper.ModelMapper;
 import org.springframework.stereotype.Component;
 
 import java.util.*;
 
+/**
+ * Maps contents between entities and DTOs.
+ * <p>
+ * The mapping is written out explicitly instead of using the reflection based ModelMapper,
+ * because contents are mapped for every content of every stage, which makes this a hot path.
+ */
 @Component
-@RequiredArgsConstructor
 @Slf4j
 public class ContentMapper {
 
-    private final ModelMapper modelMapper;
-
     public Content entityToDto(final ContentEntity contentEntity) {
         if (contentEntity == null) {
             return null;
@@ -31,54 +32,122 @@ public class ContentMapper {
     }
 
     public MediaContentEntity mediaContentDtoToEntity(final CreateMediaContentInput input) {
-        final var result = modelMapper.map(input, MediaContentEntity.class);
-        result.getMetadata().setTags(new HashSet<>(input.getMetadata().getTagNames()));
-        return result;
+        return MediaContentEntity.builder()
+                .metadata(metadataInputToEmbeddable(input.getMetadata()))
+                .build();
     }
 
     public MediaContentEntity mediaContentDtoToEntity(final UUID contentId, final UpdateMediaContentInput input, final ContentType contentType) {
-        final var result = modelMapper.map(input, MediaContentEntity.class);
-        result.getMetadata().setType(contentType);
-        result.getMetadata().setTags(new HashSet<>(input.getMetadata().getTagNames()));
-        result.setId(contentId);
-        return result;
+        return MediaContentEntity.builder()
+                .id(contentId)
+                .metadata(metadataInputToEmbeddable(input.getMetadata(), contentType))
+                .build();
     }
 
     public MediaContent mediaContentEntityToDto(final ContentEntity contentEntity) {
-        final MediaContent result = modelMapper.map(contentEntity, MediaContent.class);
-        result.getMetadata().setTagNames(new ArrayList<>(contentEntity.getMetadata().getTags()));
-        return result;
+        return MediaContent.builder()
+                .setId(contentEntity.getId())
+                .setMetadata(metadataEmbeddableToDto(contentEntity.getMetadata()))
+                .build();
     }
 
     public AssessmentEntity assessmentDtoToEntity(final CreateAssessmentInput input) {
-        final var result = modelMapper.map(input, AssessmentEntity.class);
-        result.getMetadata().setTags(new HashSet<>(input.getMetadata().getTagNames()));
-        return result;
+        return AssessmentEntity.builder()
+                .metadata(metadataInputToEmbeddable(input.getMetadata()))
+                .assessmentMetadata(assessmentMetadataInputToEmbeddable(input.getAssessmentMetadata()))
+                .build();
     }
 
     public AssessmentEntity assessmentDtoToEntity(final UUID contentId,
                                                   final UpdateAssessmentInput input,
                                                   final ContentType contentType) {
-        final var result = modelMapper.map(input, AssessmentEntity.class);
-        result.getMetadata().setType(contentType);
-        result.getMetadata().setTags(new HashSet<>(input.getMetadata().getTagNames()));
-        result.setId(contentId);
-        return result;
+        return AssessmentEntity.builder()
+                .id(contentId)
+                .metadata(metadataInputToEmbeddable(input.getMetadata(), contentType))
+                .assessmentMetadata(assessmentMetadataInputToEmbeddable(input.getAssessmentMetadata()))
+                .build();
     }
 
     public Assessment assessmentEntityToDto(final ContentEntity contentEntity) {
-        final Assessment result;
+        final ContentMetadata metadata = metadataEmbeddableToDto(contentEntity.getMetadata());
+        final AssessmentMetadata assessmentMetadata = contentEntity instanceof final AssessmentEntity assessmentEntity
+                ? assessmentMetadataEmbeddableToDto(assessmentEntity.getAssessmentMetadata())
+                : null;
+
         if (contentEntity.getMetadata().getType() == ContentType.FLASHCARDS) {
-            result = modelMapper.map(contentEntity, FlashcardSetAssessment.class);
+            return FlashcardSetAssessment.builder()
+                    .setId(contentEntity.getId())
+                    .setMetadata(metadata)
+                    .setAssessmentMetadata(assessmentMetadata)
+                    .build();
         } else if (contentEntity.getMetadata().getType() == ContentType.QUIZ) {
-            result = modelMapper.map(contentEntity, QuizAssessment.class);
+            return QuizAssessment.builder()
+                    .setId(contentEntity.getId())
+                    .setMetadata(metadata)
+                    .setAssessmentMetadata(assessmentMetadata)
+                    .build();
         } else {
             // put other assessment types here
             throw new IllegalStateException("Unsupported content type for assessment: " + contentEntity.getMetadata().getType());
         }
+    }
 
-        result.getMetadata().setTagNames(new ArrayList<>(contentEntity.getMetadata().getTags()));
-        return result;
+    private static ContentMetadata metadataEmbeddableToDto(final ContentMetadataEmbeddable metadata) {
+        return ContentMetadata.builder()
+                .setName(metadata.getName())
+                .setType(metadata.getType())
+                .setSuggestedDate(metadata.getSuggestedDate())
+                .setRewardPoints(metadata.getRewardPoints())
+                .setChapterId(metadata.getChapterId())
+                .setCourseId(metadata.getCourseId())
+                .setTagNames(new ArrayList<>(metadata.getTags()))
+                .build();
+    }
+
+    private static AssessmentMetadata assessmentMetadataEmbeddableToDto(final AssessmentMetadataEmbeddable assessmentMetadata) {
+        if (assessmentMetadata == null) {
+            return null;
+        }
+        return AssessmentMetadata.builder()
+                .setSkillPoints(assessmentMetadata.getSkillPoints())
+                .setSkillTypes(copyOrNull(assessmentMetadata.getSkillTypes()))
+                .setInitialLearningInterval(assessmentMetadata.getInitialLearningInterval())
+                .build();
+    }
+
+    private static ContentMetadataEmbeddable metadataInputToEmbeddable(final CreateContentMetadataInput input) {
+        return ContentMetadataEmbeddable.builder()
+                .name(input.getName())
+                .type(input.getType())
+                .suggestedDate(input.getSuggestedDate())
+                .rewardPoints(input.getRewardPoints())
+                .chapterId(input.getChapterId())
+                .tags(new HashSet<>(input.getTagNames()))
+                .build();
+    }
+
+    private static ContentMetadataEmbeddable metadataInputToEmbeddable(final UpdateContentMetadataInput input,
+                                                                       final ContentType contentType) {
+        return ContentMetadataEmbeddable.builder()
+                .name(input.getName())
+                .type(contentType)
+                .suggestedDate(input.getSuggestedDate())
+                .rewardPoints(input.getRewardPoints())
+                .chapterId(input.getChapterId())
+                .tags(new HashSet<>(input.getTagNames()))
+                .build();
+    }
+
+    private static AssessmentMetadataEmbeddable assessmentMetadataInputToEmbeddable(final AssessmentMetadataInput input) {
+        return AssessmentMetadataEmbeddable.builder()
+                .skillPoints(input.getSkillPoints())
+                .skillTypes(copyOrNull(input.getSkillTypes()))
+                .initialLearningInterval(input.getInitialLearningInterval())
+                .build();
+    }
+
+    private static <T> List<T> copyOrNull(final List<T> list) {
+        return list == null ? null : new ArrayList<>(list);
     }
 
 }
@@ -1,62 +1,66 @@
 package de.unistuttgart.iste.gits.content_service.persistence.mapper;
 
 import de.unistuttgart.iste.gits.common.event.ContentProgressedEvent;
-import de.unistuttgart.iste.gits.content_service.persistence.entity.ProgressLogItemEmbeddable;
+import de.unistuttgart.iste.gits.content_service.persistence.entity.ProgressLogItemEntity;
 import de.unistuttgart.iste.gits.content_service.persistence.entity.UserProgressDataEntity;
+import de.unistuttgart.iste.gits.generated.dto.ProgressLogItem;
 import de.unistuttgart.iste.gits.generated.dto.UserProgressData;
-import lombok.RequiredArgsConstructor;
-import org.modelmapper.ModelMapper;
 import org.springframework.stereotype.Component;
 
 import java.time.OffsetDateTime;
-import java.util.Optional;
+import java.util.List;
 
+/**
+ * Maps user progress data between entities, events and DTOs.
+ * The mapping is written out explicitly, as progress data is mapped for every content that is resolved.
+ */
 @Component
-@RequiredArgsConstructor
 public class UserProgressDataMapper {
 
-    private final ModelMapper modelMapper;
-
+    /**
+     * Maps the entity to a DTO. The progress summary is taken from the summary columns of the entity.
+     * The progress log is not part of the DTO, it is resolved separately when it is requested.
+     */
     public UserProgressData entityToDto(final UserProgressDataEntity userProgressDataEntity) {
-        final UserProgressData result = modelMapper.map(userProgressDataEntity, UserProgressData.class);
-
-        final Optional<OffsetDateTime> optionalLastLearnDate = getLastLearnDate(userProgressDataEntity);
-        final Optional<OffsetDateTime> optionalNextLearnDate = getNextLearnDate(userProgressDataEntity, optionalLastLearnDate);
-
-        result.setLastLearnDate(optionalLastLearnDate.orElse(null));
-        result.setNextLearnDate(optionalNextLearnDate.orElse(null));
-
-        result.setIsLearned(isLearned(userProgressDataEntity));
-        result.setIsDueForReview(isDueForReview(optionalNextLearnDate));
-
-        return result;
-    }
-
-    public ProgressLogItemEmbeddable eventToEmbeddable(final ContentProgressedEvent contentProgressedEvent) {
-        return modelMapper.map(contentProgressedEvent, ProgressLogItemEmbeddable.class);
+        return UserProgressData.builder()
+                .setUserId(userProgressDataEntity.getUserId())
+                .setContentId(userProgressDataEntity.getContentId())
+                .setLearningInterval(userProgressDataEntity.getLearningInterval())
+                .setLastLearnDate(userProgressDataEntity.getLastSuccessTimestamp())
+                .setNextLearnDate(userProgressDataEntity.getNextLearnDate())
+                .setIsLearned(Boolean.TRUE.equals(userProgressDataEntity.getLearned()))
+                .setIsDueForReview(isDueForReview(userProgressDataEntity.getNextLearnDate()))
+                .build();
     }
 
-    private static Boolean isDueForReview(final Optional<OffsetDateTime> optionalNextLearnDate) {
-        return optionalNextLearnDate
-                .map(nextReviewDate -> nextReviewDate.isBefore(OffsetDateTime.now()))
-                .orElse(false);
+    public List<ProgressLogItem> logItemsToDto(final List<ProgressLogItemEntity> logItems) {
+        return logItems.stream()
+                .map(UserProgressDataMapper::logItemToDto)
+                .toList();
     }
 
-    private static boolean isLearned(final UserProgressDataEntity userProgressDataEntity) {
-        return userProgressDataEntity.getProgressLog().stream()
-                .anyMatch(ProgressLogItemEmbeddable::isSuccess);
+    public ProgressLogItemEntity eventToEntity(final ContentProgressedEvent contentProgressedEvent) {
+        return ProgressLogItemEntity.builder()
+                .userId(contentProgressedEvent.getUserId())
+                .contentId(contentProgressedEvent.getContentId())
+                .success(contentProgressedEvent.isSuccess())
+                .correctness(contentProgressedEvent.getCorrectness())
+                .hintsUsed(contentProgressedEvent.getHintsUsed())
+                .timeToComplete(contentProgressedEvent.getTimeToComplete())
+                .build();
     }
 
-    private static Optional<OffsetDateTime> getNextLearnDate(final UserProgressDataEntity userProgressDataEntity, final Optional<OffsetDateTime> optionalLastLearnDate) {
-        return userProgressDataEntity.getLearningInterval() == null
-                ? Optional.empty()
-                : optionalLastLearnDate.map(lastLearnDate -> lastLearnDate.plusDays(userProgressDataEntity.getLearningInterval()));
+    private static ProgressLogItem logItemToDto(final ProgressLogItemEntity logItem) {
+        return ProgressLogItem.builder()
+                .setTimestamp(logItem.getTimestamp())
+                .setSuccess(logItem.isSuccess())
+                .setCorrectness(logItem.getCorrectness())
+                .setHintsUsed(logItem.getHintsUsed())
+                .setTimeToComplete(logItem.getTimeToComplete())
+                .build();
     }
 
-    private static Optional<OffsetDateTime> getLastLearnDate(final UserProgressDataEntity userProgressDataEntity) {
-        return userProgressDataEntity.getProgressLog().stream()
-                .filter(ProgressLogItemEmbeddable::isSuccess)
-                .map(ProgressLogItemEmbeddable::getTimestamp)
-                .max(OffsetDateTime::compareTo);
+    private static boolean isDueForReview(final OffsetDateTime nextLearnDate) {
+        return nextLearnDate != null && nextLearnDate.isBefore(OffsetDateTime.now());
     }
 }
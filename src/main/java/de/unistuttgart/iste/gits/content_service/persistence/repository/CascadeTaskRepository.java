@@ -0,0 +1,94 @@
+package de.unistuttgart.iste.gits.content_service.persistence.repository;
+
+import de.unistuttgart.iste.gits.content_service.persistence.entity.CascadeTaskEntity;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.OffsetDateTime;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Repository for {@link CascadeTaskEntity}
+ */
+@Repository
+public interface CascadeTaskRepository extends JpaRepository<CascadeTaskEntity, UUID> {
+
+    /**
+     * Creates a pending task, unless a task for the same event and chapter already exists.
+     *
+     * @param eventId   the id of the event the task was created for
+     * @param chapterId the id of the deleted chapter
+     * @return 1 if the task was created, 0 if it already existed
+     */
+    @Modifying
+    @Query(value = """
+            insert into cascade_task (id, event_id, chapter_id, status, attempts, created_at, available_at)
+            values (gen_random_uuid(), :eventId, :chapterId, 'PENDING', 0, now(), now())
+            on conflict (event_id, chapter_id) do nothing
+            """, nativeQuery = true)
+    int insertIfAbsent(@Param("eventId") String eventId, @Param("chapterId") UUID chapterId);
+
+    /**
+     * Fetches and locks tasks that can be processed, oldest first. Tasks locked by another transaction are skipped,
+     * so that multiple replicas can claim tasks concurrently without claiming the same task.
+     *
+     * @param now   the current time
+     * @param limit the maximum number of tasks to fetch
+     * @return the tasks that can be processed
+     */
+    @Query(value = """
+            select * from cascade_task
+            where status in ('PENDING', 'RUNNING') and available_at <= :now
+            order by created_at
+            limit :limit
+            for update skip locked
+            """, nativeQuery = true)
+    List<CascadeTaskEntity> findAvailableForUpdate(@Param("now") OffsetDateTime now, @Param("limit") int limit);
+
+    /**
+     * Marks the given task as done, if it is still leased by the given owner and the lease has not expired.
+     *
+     * @param id          the id of the task
+     * @param leaseOwner  the owner of the lease
+     * @param completedAt the current time
+     * @return 1 if the task was marked as done, 0 if the lease was lost
+     */
+    @Modifying
+    @Query("""
+            update CascadeTask task
+            set task.status = de.unistuttgart.iste.gits.content_service.persistence.entity.CascadeTaskEntity.Status.DONE,
+                task.completedAt = :completedAt, task.lastError = null, task.leaseOwner = null
+            where task.id = :id and task.leaseOwner = :leaseOwner and task.availableAt > :completedAt""")
+    int completeIfLeased(@Param("id") UUID id,
+                         @Param("leaseOwner") UUID leaseOwner,
+                         @Param("completedAt") OffsetDateTime completedAt);
+
+    /**
+     * Deletes the tasks that were done before the given time.
+     *
+     * @param completedBefore tasks completed before this time are deleted
+     * @return the number of deleted tasks
+     */
+    @Modifying
+    @Query("""
+            delete from CascadeTask task
+            where task.status = de.unistuttgart.iste.gits.content_service.persistence.entity.CascadeTaskEntity.Status.DONE
+                and task.completedAt < :completedBefore""")
+    int deleteDoneBefore(@Param("completedBefore") OffsetDateTime completedBefore);
+
+    /**
+     * @return the number of tasks per status. Statuses without tasks are not contained.
+     */
+    @Query("select task.status as status, count(task) as count from CascadeTask task group by task.status")
+    List<StatusCount> countByStatus();
+
+    interface StatusCount {
+        CascadeTaskEntity.Status getStatus();
+
+        long getCount();
+    }
+}
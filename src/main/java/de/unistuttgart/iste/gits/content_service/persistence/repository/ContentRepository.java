@@ -3,10 +3,12 @@ package de.unistuttgart.iste.gits.content_service.persistence.repository;
 import de.unistuttgart.iste.gits.common.persistence.GitsRepository;
 import de.unistuttgart.iste.gits.content_service.persistence.entity.ContentEntity;
 import de.unistuttgart.iste.gits.generated.dto.SkillType;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.UUID;
 
@@ -16,18 +18,74 @@ import java.util.UUID;
 @Repository
 public interface ContentRepository extends GitsRepository<ContentEntity, UUID> {
 
-    @Query("select content from Content content where content.metadata.chapterId in (:chapterIds)")
+    // the tags are fetched with the contents, because the contents are always mapped to DTOs including their tags
+    @Query("select distinct content from Content content left join fetch content.metadata.tags " +
+           "where content.metadata.chapterId in (:chapterIds)")
     List<ContentEntity> findByChapterIdIn(@Param("chapterIds") List<UUID> chapterIds);
 
-    @Query("select content from Content content where content.metadata.courseId in (:courseIds)")
+    @Query("select distinct content from Content content left join fetch content.metadata.tags " +
+           "where content.metadata.courseId in (:courseIds)")
     List<ContentEntity> findByCourseIdIn(@Param("courseIds") List<UUID> courseIds);
 
     /**
-     * Fetches all skill types for content in a chapter.
+     * Fetches the contents with the given ids together with their tags.
+     * If the contents are already loaded in the current persistence context, their tags are initialized.
      *
-     * @param chapterId the chapter id
-     * @return a list of skill types
+     * @param contentIds the ids of the contents
+     * @return the contents with the given ids
      */
-    @Query("select assessment.assessmentMetadata.skillTypes from Assessment assessment where assessment.metadata.chapterId = :chapterId")
-    List<List<SkillType>> findSkillTypesByChapterId(@Param("chapterId") UUID chapterId);
+    @Query("select distinct content from Content content left join fetch content.metadata.tags " +
+           "where content.id in (:contentIds)")
+    List<ContentEntity> findWithTagsByIdIn(@Param("contentIds") Collection<UUID> contentIds);
+
+    /**
+     * Fetches the skill types of all assessments in the given chapters with a single query.
+     *
+     * @param chapterIds the ids of the chapters
+     * @return the chapter id and skill types of each assessment in the chapters
+     */
+    @Query("select assessment.metadata.chapterId as chapterId, assessment.assessmentMetadata.skillTypes as skillTypes " +
+           "from Assessment assessment where assessment.metadata.chapterId in (:chapterIds)")
+    List<ChapterSkillTypes> findSkillTypesByChapterIdIn(@Param("chapterIds") Collection<UUID> chapterIds);
+
+    /**
+     * Counts the contents of the given chapters with a single query.
+     *
+     * @param chapterIds the ids of the chapters
+     * @return the number of contents of each chapter that contains contents
+     */
+    @Query("select content.metadata.chapterId as chapterId, count(content) as count " +
+           "from Content content where content.metadata.chapterId in (:chapterIds) " +
+           "group by content.metadata.chapterId")
+    List<ChapterContentCount> countByChapterIdIn(@Param("chapterIds") Collection<UUID> chapterIds);
+
+    /**
+     * Deletes the tags of the given contents with a single statement.
+     *
+     * @param contentIds the ids of the contents
+     */
+    @Modifying
+    @Query(value = "delete from content_tags where content_id in (:contentIds)", nativeQuery = true)
+    void deleteTagsByContentIdIn(@Param("contentIds") Collection<UUID> contentIds);
+
+    /**
+     * Deletes the given contents with a single statement. Dependencies of the contents have to be deleted before.
+     *
+     * @param contentIds the ids of the contents
+     */
+    @Modifying
+    @Query("delete from Content content where content.id in (:contentIds)")
+    void deleteByIdIn(@Param("contentIds") Collection<UUID> contentIds);
+
+    interface ChapterSkillTypes {
+        UUID getChapterId();
+
+        List<SkillType> getSkillTypes();
+    }
+
+    interface ChapterContentCount {
+        UUID getChapterId();
+
+        long getCount();
+    }
 }
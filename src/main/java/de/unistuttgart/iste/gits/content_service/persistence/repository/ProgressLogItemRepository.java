@@ -0,0 +1,124 @@
+package de.unistuttgart.iste.gits.content_service.persistence.repository;
+
+import de.unistuttgart.iste.gits.content_service.persistence.entity.ProgressLogItemEntity;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.OffsetDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+@Repository
+public interface ProgressLogItemRepository extends JpaRepository<ProgressLogItemEntity, UUID> {
+
+    /**
+     * Fetches the latest entries of the progress logs of a user for multiple contents at once.
+     * The entries are ordered by content and then newest first, entries with equal timestamps by id.
+     *
+     * @param userId     the id of the user
+     * @param contentIds the ids of the contents
+     * @param limit      the maximum number of entries to fetch per content
+     * @return the latest entries of the progress log of each content
+     */
+    @Query(value = """
+            select ranked.id, ranked.user_id, ranked.content_id, ranked.timestamp, ranked.success,
+                ranked.correctness, ranked.hints_used, ranked.time_to_complete
+            from (
+                select log.*, row_number() over (
+                    partition by log.content_id order by log.timestamp desc, log.id desc) as position
+                from progress_log_item log
+                where log.user_id = :userId and log.content_id in (:contentIds)
+            ) ranked
+            where ranked.position <= :limit
+            order by ranked.content_id, ranked.position
+            """, nativeQuery = true)
+    List<ProgressLogItemEntity> findLatestOfContents(@Param("userId") UUID userId,
+                                                     @Param("contentIds") Collection<UUID> contentIds,
+                                                     @Param("limit") int limit);
+
+    /**
+     * Like {@link #findLatestOfContents(UUID, Collection, int)}, but only entries that come after the given
+     * position in this order, i.e. that are older or equally old with a smaller id, are fetched.
+     *
+     * @param userId          the id of the user
+     * @param contentIds      the ids of the contents
+     * @param beforeTimestamp the timestamp of the last entry of the previous page
+     * @param beforeId        the id of the last entry of the previous page
+     * @param limit           the maximum number of entries to fetch per content
+     * @return the requested entries of the progress log of each content
+     */
+    @Query(value = """
+            select ranked.id, ranked.user_id, ranked.content_id, ranked.timestamp, ranked.success,
+                ranked.correctness, ranked.hints_used, ranked.time_to_complete
+            from (
+                select log.*, row_number() over (
+                    partition by log.content_id order by log.timestamp desc, log.id desc) as position
+                from progress_log_item log
+                where log.user_id = :userId and log.content_id in (:contentIds)
+                    and (log.timestamp, log.id) < (:beforeTimestamp, :beforeId)
+            ) ranked
+            where ranked.position <= :limit
+            order by ranked.content_id, ranked.position
+            """, nativeQuery = true)
+    List<ProgressLogItemEntity> findLatestOfContentsBefore(@Param("userId") UUID userId,
+                                                           @Param("contentIds") Collection<UUID> contentIds,
+                                                           @Param("beforeTimestamp") OffsetDateTime beforeTimestamp,
+                                                           @Param("beforeId") UUID beforeId,
+                                                           @Param("limit") int limit);
+
+    /**
+     * @param userId    the id of the user
+     * @param contentId the id of the content
+     * @return the timestamp of the latest successful entry of the progress log, null if there is none
+     */
+    @Query("select max(log.timestamp) from ProgressLogItem log " +
+           "where log.userId = :userId and log.contentId = :contentId and log.success = true")
+    OffsetDateTime findLastSuccessTimestamp(@Param("userId") UUID userId, @Param("contentId") UUID contentId);
+
+    /**
+     * Fetches the ids of progress log entries of a range of (user, content) pairs that can be compacted.
+     * An entry can be compacted if it is older than the given timestamp or if there are at least
+     * {@code keepLatest} newer entries of the same user and content.
+     * Entries of progress data without progress summary are never returned, because the summary is calculated
+     * from the progress log.
+     * Only the entries of the given range are read, using the index on user, content and timestamp.
+     *
+     * @param olderThan     entries older than this timestamp can be compacted
+     * @param keepLatest    the number of latest entries per user and content that are kept regardless of their age
+     * @param fromUserId    the user id of the first pair of the range
+     * @param fromContentId the content id of the first pair of the range
+     * @param toUserId      the user id of the last pair of the range
+     * @param toContentId   the content id of the last pair of the range
+     * @return the ids of entries that can be compacted
+     */
+    @Query(value = """
+            select ranked.id from (
+                select log.id, log.timestamp,
+                    row_number() over (partition by log.user_id, log.content_id order by log.timestamp desc) as position
+                from progress_log_item log
+                where (log.user_id, log.content_id) >= (:fromUserId, :fromContentId)
+                    and (log.user_id, log.content_id) <= (:toUserId, :toContentId)
+                    and not exists (select 1 from user_progress_data data
+                        where data.user_id = log.user_id and data.content_id = log.content_id and data.learned is null)
+            ) ranked
+            where ranked.position > :keepLatest or ranked.timestamp < :olderThan
+            """, nativeQuery = true)
+    List<UUID> findCompactableIds(@Param("olderThan") OffsetDateTime olderThan,
+                                  @Param("keepLatest") int keepLatest,
+                                  @Param("fromUserId") UUID fromUserId,
+                                  @Param("fromContentId") UUID fromContentId,
+                                  @Param("toUserId") UUID toUserId,
+                                  @Param("toContentId") UUID toContentId);
+
+    @Modifying
+    @Query("delete from ProgressLogItem log where log.contentId = :contentId")
+    void deleteByContentId(@Param("contentId") UUID contentId);
+
+    @Modifying
+    @Query("delete from ProgressLogItem log where log.contentId in (:contentIds)")
+    void deleteByContentIdIn(@Param("contentIds") Collection<UUID> contentIds);
+}
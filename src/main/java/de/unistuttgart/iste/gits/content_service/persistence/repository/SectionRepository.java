@@ -15,6 +15,17 @@ import java.util.*;
 public interface SectionRepository extends JpaRepository<SectionEntity, UUID> {
     List<SectionEntity> findByChapterIdInOrderByPosition(List<UUID> ids);
 
+    /**
+     * Like {@link #findByChapterIdInOrderByPosition(List)}, but the stages of the sections are fetched
+     * with the same query.
+     *
+     * @param chapterIds the ids of the chapters
+     * @return the sections of the chapters, ordered by position
+     */
+    @Query("select distinct section from Section section left join fetch section.stages " +
+           "where section.chapterId in (:chapterIds) order by section.position")
+    List<SectionEntity> findWithStagesByChapterIdInOrderByPosition(@Param("chapterIds") List<UUID> chapterIds);
+
     @Query("SELECT MAX(s.position) FROM Section s WHERE s.chapterId = :chapterId")
     Optional<Integer> findHighestPositionByChapterId(@Param("chapterId") UUID chapterId);
 }
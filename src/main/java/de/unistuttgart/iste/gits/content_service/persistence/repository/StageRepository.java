@@ -3,8 +3,12 @@ package de.unistuttgart.iste.gits.content_service.persistence.repository;
 import de.unistuttgart.iste.gits.content_service.persistence.entity.ContentEntity;
 import de.unistuttgart.iste.gits.content_service.persistence.entity.StageEntity;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.UUID;
 
@@ -16,4 +20,45 @@ public interface StageRepository extends JpaRepository<StageEntity, UUID> {
 
 
     List<StageEntity> findAllByRequiredContentsContainingOrOptionalContentsContaining(ContentEntity requiredContentEntity, ContentEntity optionalContentEntity);
+
+    /**
+     * Fetches all stages that contain at least one of the given contents as required or optional content.
+     *
+     * @param contentIds the ids of the contents
+     * @return the stages containing the contents
+     */
+    @Query("select distinct stage from Stage stage " +
+           "left join stage.requiredContents requiredContent " +
+           "left join stage.optionalContents optionalContent " +
+           "where requiredContent.id in (:contentIds) or optionalContent.id in (:contentIds)")
+    List<StageEntity> findAllContainingAnyContentOf(@Param("contentIds") Collection<UUID> contentIds);
+
+    /**
+     * Fetches the stages of the given sections together with their required contents.
+     * If the stages are already loaded in the current persistence context, their required contents are initialized.
+     *
+     * @param sectionIds the ids of the sections
+     * @return the stages of the sections
+     */
+    @Query("select distinct stage from Stage stage left join fetch stage.requiredContents " +
+           "where stage.sectionId in (:sectionIds)")
+    List<StageEntity> findWithRequiredContentsBySectionIdIn(@Param("sectionIds") Collection<UUID> sectionIds);
+
+    /**
+     * Like {@link #findWithRequiredContentsBySectionIdIn(Collection)}, but for the optional contents.
+     *
+     * @param sectionIds the ids of the sections
+     * @return the stages of the sections
+     */
+    @Query("select distinct stage from Stage stage left join fetch stage.optionalContents " +
+           "where stage.sectionId in (:sectionIds)")
+    List<StageEntity> findWithOptionalContentsBySectionIdIn(@Param("sectionIds") Collection<UUID> sectionIds);
+
+    @Modifying
+    @Query(value = "delete from stage_required_contents where required_contents_id in (:contentIds)", nativeQuery = true)
+    void deleteRequiredContentLinks(@Param("contentIds") Collection<UUID> contentIds);
+
+    @Modifying
+    @Query(value = "delete from stage_optional_contents where optional_contents_id in (:contentIds)", nativeQuery = true)
+    void deleteOptionalContentLinks(@Param("contentIds") Collection<UUID> contentIds);
 }
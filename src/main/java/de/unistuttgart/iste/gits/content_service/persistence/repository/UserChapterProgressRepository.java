@@ -0,0 +1,136 @@
+package de.unistuttgart.iste.gits.content_service.persistence.repository;
+
+import de.unistuttgart.iste.gits.content_service.persistence.entity.UserChapterProgressEntity;
+import de.unistuttgart.iste.gits.content_service.persistence.entity.UserChapterProgressEntity.UserChapterProgressPk;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+@Repository
+public interface UserChapterProgressRepository extends JpaRepository<UserChapterProgressEntity, UserChapterProgressPk> {
+
+    /**
+     * Fetches the chapter progress of a user for multiple chapters at once.
+     * Chapters in which the user has not learned any content may not be contained in the result.
+     *
+     * @param userId     the id of the user
+     * @param chapterIds the ids of the chapters
+     * @return the chapter progress entities of the user for the given chapters
+     */
+    List<UserChapterProgressEntity> findByUserIdAndChapterIdIn(UUID userId, Collection<UUID> chapterIds);
+
+    /**
+     * Adds the given number to the learned contents of a user in a chapter, creating the entity if necessary.
+     * Concurrent calls for the same user and chapter do not lose updates.
+     *
+     * @param userId    the id of the user
+     * @param chapterId the id of the chapter
+     * @param delta     the number of contents that became learned, negative if learned contents were removed
+     */
+    @Modifying
+    @Query(value = """
+            insert into user_chapter_progress (user_id, chapter_id, learned_contents)
+            values (:userId, :chapterId, :delta)
+            on conflict (user_id, chapter_id)
+            do update set learned_contents = user_chapter_progress.learned_contents + excluded.learned_contents""",
+            nativeQuery = true)
+    void addLearnedContents(@Param("userId") UUID userId,
+                            @Param("chapterId") UUID chapterId,
+                            @Param("delta") int delta);
+
+    /**
+     * Like {@link #addLearnedContents(UUID, UUID, int)}, but for all users that have learned any of the given
+     * contents at once. Used when learned contents are added to or removed from a chapter.
+     *
+     * @param contentIds the ids of the contents
+     * @param chapterId  the id of the chapter the contents are added to or removed from
+     * @param sign       1 if the contents are added to the chapter, -1 if they are removed
+     */
+    @Modifying
+    @Query(value = """
+            insert into user_chapter_progress (user_id, chapter_id, learned_contents)
+            select progress.user_id, :chapterId, :sign * count(*)
+            from user_progress_data progress
+            where progress.content_id in (:contentIds) and progress.learned
+            group by progress.user_id
+            on conflict (user_id, chapter_id)
+            do update set learned_contents = user_chapter_progress.learned_contents + excluded.learned_contents""",
+            nativeQuery = true)
+    void addLearnedContentsOfContents(@Param("contentIds") Collection<UUID> contentIds,
+                                      @Param("chapterId") UUID chapterId,
+                                      @Param("sign") int sign);
+
+    /**
+     * Deletes the chapter progress of all users for the given chapters with a single statement.
+     *
+     * @param chapterIds the ids of the chapters
+     */
+    @Modifying
+    @Query("delete from UserChapterProgress progress where progress.chapterId in (:chapterIds)")
+    void deleteByChapterIdIn(@Param("chapterIds") Collection<UUID> chapterIds);
+
+    /**
+     * Calculates the chapter progress of all users for the chapters of the contents of a course from their
+     * progress data and overwrites the existing chapter progress with it. Unlike a delete followed by an insert,
+     * this does not fail with a duplicate key if chapter progress is created concurrently, e.g. by a progress
+     * event or another rebuild.
+     *
+     * @param courseId the id of the course
+     * @return the number of created or updated chapter progress entities
+     */
+    @Modifying
+    @Query(value = """
+            insert into user_chapter_progress (user_id, chapter_id, learned_contents)
+            select progress.user_id, content.chapter_id, count(*)
+            from user_progress_data progress
+            join content on content.id = progress.content_id
+            where content.course_id = :courseId and progress.learned
+            group by progress.user_id, content.chapter_id
+            on conflict (user_id, chapter_id)
+            do update set learned_contents = excluded.learned_contents""",
+            nativeQuery = true)
+    int upsertCalculatedByCourseId(@Param("courseId") UUID courseId);
+
+    /**
+     * Deletes the chapter progress of all users for the chapters of the contents of a course
+     * in which the user has not learned any content, i.e. which are not recalculated by
+     * {@link #upsertCalculatedByCourseId(UUID)}.
+     *
+     * @param courseId the id of the course
+     */
+    @Modifying
+    @Query(value = """
+            delete from user_chapter_progress chapter_progress
+            where chapter_progress.chapter_id in (select content.chapter_id from content where content.course_id = :courseId)
+            and not exists (select 1
+                            from user_progress_data progress
+                            join content on content.id = progress.content_id
+                            where progress.user_id = chapter_progress.user_id
+                            and content.chapter_id = chapter_progress.chapter_id
+                            and progress.learned)""",
+            nativeQuery = true)
+    void deleteWithoutLearnedContentsByCourseId(@Param("courseId") UUID courseId);
+
+    /**
+     * Calculates the chapter progress of all users for all chapters from their progress data.
+     * The chapter progress must not exist yet.
+     *
+     * @return the number of created chapter progress entities
+     */
+    @Modifying
+    @Query(value = """
+            insert into user_chapter_progress (user_id, chapter_id, learned_contents)
+            select progress.user_id, content.chapter_id, count(*)
+            from user_progress_data progress
+            join content on content.id = progress.content_id
+            where progress.learned
+            group by progress.user_id, content.chapter_id""",
+            nativeQuery = true)
+    int insertCalculatedForAllChapters();
+}
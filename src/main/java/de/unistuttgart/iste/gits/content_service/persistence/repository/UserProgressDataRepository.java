@@ -1,16 +1,129 @@
 package de.unistuttgart.iste.gits.content_service.persistence.repository;
 
 import de.unistuttgart.iste.gits.content_service.persistence.entity.UserProgressDataEntity;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
-import java.util.Optional;
-import java.util.UUID;
+import java.time.OffsetDateTime;
+import java.util.*;
 
 @Repository
 public interface UserProgressDataRepository extends JpaRepository<UserProgressDataEntity, UUID> {
 
     Optional<UserProgressDataEntity> findByUserIdAndContentId(UUID userId, UUID contentId);
 
+    /**
+     * Fetches the progress data of a user for multiple contents at once.
+     * Contents for which the user has no progress data are not contained in the result.
+     *
+     * @param userId     the id of the user
+     * @param contentIds the ids of the contents
+     * @return the progress data entities of the user for the given contents
+     */
+    List<UserProgressDataEntity> findByUserIdAndContentIdIn(UUID userId, Collection<UUID> contentIds);
+
+    /**
+     * Fetches progress data whose progress summary columns have not been calculated yet.
+     *
+     * @param pageable the maximum number of entities to fetch
+     * @return progress data without progress summary
+     */
+    @Query("select progress from UserProgressData progress where progress.learned is null")
+    List<UserProgressDataEntity> findWithoutProgressSummary(Pageable pageable);
+
+    /**
+     * Fetches the progress data of a user for contents of the given courses that are due for review,
+     * ordered by next learn date and content id. Answered by the index over user id and next learn date.
+     *
+     * @param userId    the id of the user
+     * @param courseIds the ids of the courses of the contents
+     * @param now       progress data with a next learn date before this timestamp is due
+     * @param pageable  the maximum number of entities to fetch
+     * @return the due progress data, most overdue first
+     */
+    @Query("""
+            select progress from UserProgressData progress, Content content
+            where content.id = progress.contentId
+                and progress.userId = :userId
+                and progress.nextLearnDate < :now
+                and content.metadata.courseId in (:courseIds)
+            order by progress.nextLearnDate, progress.contentId""")
+    List<UserProgressDataEntity> findDueForReview(@Param("userId") UUID userId,
+                                                  @Param("courseIds") Collection<UUID> courseIds,
+                                                  @Param("now") OffsetDateTime now,
+                                                  Pageable pageable);
+
+    /**
+     * Like {@link #findDueForReview(UUID, Collection, OffsetDateTime, Pageable)}, but only fetches progress data
+     * that comes after the given position in the order.
+     *
+     * @param afterNextLearnDate the next learn date of the last progress data of the previous page
+     * @param afterContentId     the content id of the last progress data of the previous page
+     */
+    @Query("""
+            select progress from UserProgressData progress, Content content
+            where content.id = progress.contentId
+                and progress.userId = :userId
+                and progress.nextLearnDate < :now
+                and content.metadata.courseId in (:courseIds)
+                and (progress.nextLearnDate > :afterNextLearnDate
+                    or (progress.nextLearnDate = :afterNextLearnDate and progress.contentId > :afterContentId))
+            order by progress.nextLearnDate, progress.contentId""")
+    List<UserProgressDataEntity> findDueForReviewAfter(@Param("userId") UUID userId,
+                                                       @Param("courseIds") Collection<UUID> courseIds,
+                                                       @Param("now") OffsetDateTime now,
+                                                       @Param("afterNextLearnDate") OffsetDateTime afterNextLearnDate,
+                                                       @Param("afterContentId") UUID afterContentId,
+                                                       Pageable pageable);
+
+    /**
+     * Fetches the (user, content) pairs of progress data with progress summary, ordered by user id and
+     * content id. Used to walk the progress log in ranges of pairs.
+     *
+     * @param pageable the maximum number of pairs to fetch
+     * @return the first pairs in the order
+     */
+    @Query("""
+            select progress.userId as userId, progress.contentId as contentId from UserProgressData progress
+            where progress.learned is not null
+            order by progress.userId, progress.contentId""")
+    List<ProgressDataKey> findKeysWithProgressSummary(Pageable pageable);
+
+    /**
+     * Like {@link #findKeysWithProgressSummary(Pageable)}, but only fetches the pairs that come after the given
+     * pair in the order.
+     *
+     * @param afterUserId    the user id of the last pair of the previous range
+     * @param afterContentId the content id of the last pair of the previous range
+     */
+    @Query("""
+            select progress.userId as userId, progress.contentId as contentId from UserProgressData progress
+            where progress.learned is not null
+                and (progress.userId > :afterUserId
+                    or (progress.userId = :afterUserId and progress.contentId > :afterContentId))
+            order by progress.userId, progress.contentId""")
+    List<ProgressDataKey> findKeysWithProgressSummaryAfter(@Param("afterUserId") UUID afterUserId,
+                                                           @Param("afterContentId") UUID afterContentId,
+                                                           Pageable pageable);
+
     void deleteByContentId(UUID id);
+
+    /**
+     * Deletes the progress data of all users for the given contents with a single statement.
+     *
+     * @param contentIds the ids of the contents
+     */
+    @Modifying
+    @Query("delete from UserProgressData progress where progress.contentId in (:contentIds)")
+    void deleteByContentIdIn(@Param("contentIds") Collection<UUID> contentIds);
+
+    interface ProgressDataKey {
+        UUID getUserId();
+
+        UUID getContentId();
+    }
 }
@@ -0,0 +1,220 @@
+package de.unistuttgart.iste.gits.content_service.service;
+
+import de.unistuttgart.iste.gits.common.event.ChapterChangeEvent;
+import de.unistuttgart.iste.gits.common.event.CrudOperation;
+import de.unistuttgart.iste.gits.common.exception.IncompleteEventMessageException;
+import de.unistuttgart.iste.gits.content_service.persistence.entity.CascadeTaskEntity;
+import de.unistuttgart.iste.gits.content_service.persistence.entity.CascadeTaskEntity.Status;
+import de.unistuttgart.iste.gits.content_service.persistence.repository.CascadeTaskRepository;
+import jakarta.persistence.EntityNotFoundException;
+import jakarta.transaction.Transactional;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.util.*;
+
+/**
+ * Durable queue of the deletions cascaded from deleted chapters, stored in the cascade task table.
+ * <p>
+ * Each deleted chapter is a task of its own. A task is processed in a single transaction together with
+ * marking it as done, and deleting the sections and contents of a chapter is idempotent,
+ * so a task that is processed again after a failure or an expired lease has the same result.
+ * A claimed task is leased to the claiming worker. Only the worker holding an unexpired lease can mark the
+ * task as done, so a task that was claimed again after its lease expired is not completed twice.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class CascadeTaskQueue {
+
+    private static final int MAX_ERROR_LENGTH = 1000;
+    private static final int MAX_BACKOFF_DOUBLINGS = 10;
+
+    private final CascadeTaskRepository cascadeTaskRepository;
+    private final SectionService sectionService;
+    private final ContentService contentService;
+
+    @Value("${content-service.cascade.max-attempts:5}")
+    private int maxAttempts;
+
+    @Value("${content-service.cascade.lease:PT10M}")
+    private Duration lease;
+
+    @Value("${content-service.cascade.retry-backoff:PT30S}")
+    private Duration retryBackoff;
+
+    @Value("${content-service.cascade.done-retention:P7D}")
+    private Duration doneRetention;
+
+    /**
+     * Creates a task for each chapter deleted by the given event. Events that do not delete chapters are ignored.
+     * If the event was already received before, no new tasks are created.
+     *
+     * @param eventId the id of the cloud event, used to recognize redelivered events
+     * @param event   the received event
+     * @return the number of created tasks
+     * @throws IncompleteEventMessageException if the event does not contain chapter ids or an operation
+     */
+    @Transactional
+    public int enqueue(final String eventId, final ChapterChangeEvent event) throws IncompleteEventMessageException {
+        // make sure message is complete
+        if (event.getChapterIds() == null || event.getChapterIds().isEmpty() || event.getOperation() == null) {
+            throw new IncompleteEventMessageException(IncompleteEventMessageException.ERROR_INCOMPLETE_MESSAGE);
+        }
+
+        // ignore any messages that are not deletion messages
+        if (event.getOperation() != CrudOperation.DELETE) {
+            return 0;
+        }
+
+        int created = 0;
+        for (final UUID chapterId : new LinkedHashSet<>(event.getChapterIds())) {
+            created += cascadeTaskRepository.insertIfAbsent(eventId, chapterId);
+        }
+        return created;
+    }
+
+    /**
+     * Claims up to {@code limit} tasks for processing. Claimed tasks are not claimed again until their lease
+     * expires, which only happens if the claiming worker neither completes nor fails them, e.g. because the
+     * replica was killed.
+     * <p>
+     * A task whose lease expired in its last allowed attempt is marked as failed instead of being claimed again,
+     * so that a task that repeatedly kills its worker is not retried forever.
+     *
+     * @param limit the maximum number of tasks to claim
+     * @return the claimed tasks, with the lease needed to complete them or record their failure
+     */
+    @Transactional
+    public List<ClaimedTask> claim(final int limit) {
+        final OffsetDateTime now = OffsetDateTime.now();
+        final List<CascadeTaskEntity> tasks = cascadeTaskRepository.findAvailableForUpdate(now, limit);
+
+        final List<ClaimedTask> claimedTasks = new ArrayList<>(tasks.size());
+        for (final CascadeTaskEntity task : tasks) {
+            if (task.getAttempts() >= maxAttempts) {
+                task.setStatus(Status.FAILED);
+                task.setLeaseOwner(null);
+                task.setLastError("Lease expired in the last attempt");
+                log.error("Lease of cascade task {} for chapter {} expired in all {} attempts, it is not retried",
+                        task.getId(), task.getChapterId(), task.getAttempts());
+                continue;
+            }
+
+            task.setStatus(Status.RUNNING);
+            task.setAttempts(task.getAttempts() + 1);
+            task.setAvailableAt(now.plus(lease));
+            task.setLeaseOwner(UUID.randomUUID());
+            claimedTasks.add(new ClaimedTask(task.getId(), task.getLeaseOwner()));
+        }
+        cascadeTaskRepository.saveAll(tasks);
+
+        return claimedTasks;
+    }
+
+    /**
+     * Deletes the sections and contents of the chapter of the given task and marks the task as done.
+     * If the lease of the task was lost in the meantime, nothing is deleted, as the task is processed by the
+     * worker that claimed it again.
+     * If an exception is thrown, nothing is deleted and the task has to be marked as failed with
+     * {@link #fail(ClaimedTask, Exception)}.
+     *
+     * @param claimedTask a claimed task
+     */
+    @Transactional(rollbackOn = Exception.class)
+    public void process(final ClaimedTask claimedTask) throws IncompleteEventMessageException {
+        final CascadeTaskEntity task = requireTaskExisting(claimedTask.taskId());
+        if (!claimedTask.leaseOwner().equals(task.getLeaseOwner())) {
+            log.warn("Lease of cascade task {} was lost before it was processed", task.getId());
+            return;
+        }
+
+        final ChapterChangeEvent event = ChapterChangeEvent.builder()
+                .chapterIds(List.of(task.getChapterId()))
+                .operation(CrudOperation.DELETE)
+                .build();
+        sectionService.cascadeSectionDeletion(event);
+        contentService.cascadeContentDeletion(event);
+
+        // checked again when completing, as the lease could have expired while the chapter was deleted
+        if (cascadeTaskRepository.completeIfLeased(task.getId(), claimedTask.leaseOwner(), OffsetDateTime.now()) == 0) {
+            throw new IllegalStateException("Lease of cascade task " + task.getId() + " expired while it was processed");
+        }
+    }
+
+    /**
+     * Records a failed attempt of the given task. The task is retried with exponential backoff
+     * until the maximum number of attempts is reached.
+     * If the lease of the task was lost, nothing is recorded, as the task is processed by another worker.
+     *
+     * @param claimedTask a claimed task
+     * @param error       the reason of the failure
+     */
+    @Transactional
+    public void fail(final ClaimedTask claimedTask, final Exception error) {
+        final CascadeTaskEntity task = requireTaskExisting(claimedTask.taskId());
+        if (!claimedTask.leaseOwner().equals(task.getLeaseOwner())) {
+            log.warn("Lease of cascade task {} was lost, the failure is not recorded", task.getId());
+            return;
+        }
+
+        task.setLeaseOwner(null);
+        task.setLastError(truncate(String.valueOf(error.getMessage())));
+        if (task.getAttempts() >= maxAttempts) {
+            task.setStatus(Status.FAILED);
+            log.error("Cascade task {} for chapter {} failed {} times and is not retried",
+                    task.getId(), task.getChapterId(), task.getAttempts());
+        } else {
+            task.setStatus(Status.PENDING);
+            final int doublings = Math.min(Math.max(task.getAttempts() - 1, 0), MAX_BACKOFF_DOUBLINGS);
+            task.setAvailableAt(OffsetDateTime.now().plus(retryBackoff.multipliedBy(1L << doublings)));
+        }
+        cascadeTaskRepository.save(task);
+    }
+
+    /**
+     * Deletes the tasks that were done longer ago than the configured retention, so that the table only grows
+     * with the pending and failed tasks.
+     *
+     * @return the number of deleted tasks
+     */
+    @Transactional
+    public int purgeDoneTasks() {
+        return cascadeTaskRepository.deleteDoneBefore(OffsetDateTime.now().minus(doneRetention));
+    }
+
+    /**
+     * @return the number of tasks per status, including statuses without tasks
+     */
+    public Map<Status, Long> countByStatus() {
+        final Map<Status, Long> result = new EnumMap<>(Status.class);
+        for (final Status status : Status.values()) {
+            result.put(status, 0L);
+        }
+        cascadeTaskRepository.countByStatus()
+                .forEach(statusCount -> result.put(statusCount.getStatus(), statusCount.getCount()));
+        return result;
+    }
+
+    private CascadeTaskEntity requireTaskExisting(final UUID taskId) {
+        return cascadeTaskRepository.findById(taskId)
+                .orElseThrow(() -> new EntityNotFoundException("Cascade task with id " + taskId + " not found"));
+    }
+
+    private static String truncate(final String message) {
+        return message.length() <= MAX_ERROR_LENGTH ? message : message.substring(0, MAX_ERROR_LENGTH);
+    }
+
+    /**
+     * A task claimed by a worker.
+     *
+     * @param taskId     the id of the task
+     * @param leaseOwner identifies the claim, needed to complete the task or record its failure
+     */
+    public record ClaimedTask(UUID taskId, UUID leaseOwner) {
+    }
+}
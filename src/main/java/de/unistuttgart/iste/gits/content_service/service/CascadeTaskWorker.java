@@ -0,0 +1,140 @@
+package de.unistuttgart.iste.gits.content_service.service;
+
+import de.unistuttgart.iste.gits.content_service.persistence.entity.CascadeTaskEntity.Status;
+import de.unistuttgart.iste.gits.content_service.service.CascadeTaskQueue.ClaimedTask;
+import io.micrometer.core.instrument.*;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Processes the tasks of the {@link CascadeTaskQueue} in the background with a bounded number of worker threads.
+ * <p>
+ * The queue is polled periodically and only as many tasks are claimed as there are idle workers, so tasks that
+ * cannot be processed right away stay available for other replicas.
+ * The number of tasks per status is exposed as the gauge {@code content_service.cascade.tasks}, which is
+ * refreshed less often than the queue is polled. Done tasks are purged periodically.
+ */
+@Component
+@Slf4j
+public class CascadeTaskWorker {
+
+    private final CascadeTaskQueue cascadeTaskQueue;
+    private final ExecutorService executor;
+    private final Semaphore idleWorkers;
+
+    private final Map<Status, AtomicLong> tasksByStatus = new EnumMap<>(Status.class);
+    private final Counter processedTasks;
+    private final Counter failedAttempts;
+
+    public CascadeTaskWorker(final CascadeTaskQueue cascadeTaskQueue,
+                             @Value("${content-service.cascade.concurrency:2}") final int concurrency,
+                             final ObjectProvider<MeterRegistry> meterRegistryProvider) {
+        this.cascadeTaskQueue = cascadeTaskQueue;
+        this.executor = Executors.newFixedThreadPool(concurrency);
+        this.idleWorkers = new Semaphore(concurrency);
+
+        final MeterRegistry meterRegistry = meterRegistryProvider.getIfAvailable(() -> Metrics.globalRegistry);
+        for (final Status status : Status.values()) {
+            final AtomicLong count = new AtomicLong();
+            tasksByStatus.put(status, count);
+            Gauge.builder("content_service.cascade.tasks", count, AtomicLong::get)
+                    .description("Number of cascade tasks")
+                    .tag("status", status.name())
+                    .register(meterRegistry);
+        }
+        this.processedTasks = Counter.builder("content_service.cascade.processed")
+                .description("Number of processed cascade tasks")
+                .register(meterRegistry);
+        this.failedAttempts = Counter.builder("content_service.cascade.failed.attempts")
+                .description("Number of failed attempts to process a cascade task")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Claims as many tasks as there are idle workers and hands them over to the workers.
+     * Does not wait for the tasks to be processed.
+     *
+     * @return the number of claimed tasks
+     */
+    @Scheduled(fixedDelayString = "${content-service.cascade.poll-interval:PT1S}")
+    public int poll() {
+        try {
+            final int idle = idleWorkers.availablePermits();
+            if (idle == 0) {
+                return 0;
+            }
+
+            final List<ClaimedTask> tasks = cascadeTaskQueue.claim(idle);
+            for (final ClaimedTask task : tasks) {
+                idleWorkers.acquireUninterruptibly();
+                executor.execute(() -> {
+                    try {
+                        processTask(task);
+                    } finally {
+                        idleWorkers.release();
+                    }
+                });
+            }
+            return tasks.size();
+        } catch (final Exception e) {
+            log.error("Error while polling the cascade task queue", e);
+            return 0;
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        // tasks that are interrupted are claimed again once their lease expires
+        executor.shutdownNow();
+    }
+
+    /**
+     * Refreshes the number of tasks per status.
+     */
+    @Scheduled(fixedDelayString = "${content-service.cascade.count-interval:PT1M}")
+    public void refreshTaskCounts() {
+        try {
+            cascadeTaskQueue.countByStatus()
+                    .forEach((status, count) -> tasksByStatus.get(status).set(count));
+        } catch (final Exception e) {
+            log.error("Error while counting the cascade tasks", e);
+        }
+    }
+
+    /**
+     * Deletes the tasks that were done longer ago than the configured retention.
+     */
+    @Scheduled(fixedDelayString = "${content-service.cascade.purge-interval:PT1H}")
+    public void purgeDoneTasks() {
+        try {
+            final int purged = cascadeTaskQueue.purgeDoneTasks();
+            log.info("Purged {} done cascade tasks", purged);
+        } catch (final Exception e) {
+            log.error("Error while purging done cascade tasks", e);
+        }
+    }
+
+    private void processTask(final ClaimedTask task) {
+        try {
+            cascadeTaskQueue.process(task);
+            processedTasks.increment();
+        } catch (final Exception e) {
+            failedAttempts.increment();
+            log.error("Error while processing cascade task {}. {}", task.taskId(), e.getMessage());
+            try {
+                cascadeTaskQueue.fail(task, e);
+            } catch (final Exception failException) {
+                // the task is claimed again once its lease expires
+                log.error("Error while recording the failure of cascade task {}", task.taskId(), failException);
+            }
+        }
+    }
+}
@@ -0,0 +1,240 @@
+package de.unistuttgart.iste.gits.content_service.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import de.unistuttgart.iste.gits.content_service.dapr.CacheInvalidationEvent;
+import de.unistuttgart.iste.gits.generated.dto.Content;
+import de.unistuttgart.iste.gits.generated.dto.SkillType;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.*;
+import java.util.function.Function;
+
+/**
+ * In-process cache of mapped {@link Content} DTOs, keyed by content id, by chapter id and by course id,
+ * and of the skill types achievable in a chapter.
+ * <p>
+ * Each of the caches is bounded by the configured maximum size, where the contents of a chapter or course
+ * count as a single entry. The cached DTOs are shared between requests and must not be modified.
+ * <p>
+ * Whenever a content is created, updated or deleted, the entries of the content and of its chapter and course
+ * have to be invalidated. If a transaction is active, the entries are invalidated again after the commit, so that
+ * a concurrent read cannot put the state from before the commit back into the cache.
+ * <p>
+ * A cache created with {@link #disabled()} stores nothing and passes all reads through to the given loaders.
+ */
+public class ContentCache {
+
+    private final Cache<UUID, Content> contentsById;
+    private final Cache<UUID, List<Content>> contentsByChapterId;
+    private final Cache<UUID, List<Content>> contentsByCourseId;
+    private final Cache<UUID, List<SkillType>> skillTypesByChapterId;
+
+    private final boolean enabled;
+
+    /**
+     * @param maximumSize      the maximum number of entries of each cache
+     * @param expireAfterWrite the duration after which an entry is removed even if it was not invalidated
+     */
+    public ContentCache(final long maximumSize, final Duration expireAfterWrite) {
+        this.contentsById = buildCache(maximumSize, expireAfterWrite);
+        this.contentsByChapterId = buildCache(maximumSize, expireAfterWrite);
+        this.contentsByCourseId = buildCache(maximumSize, expireAfterWrite);
+        this.skillTypesByChapterId = buildCache(maximumSize, expireAfterWrite);
+        this.enabled = true;
+    }
+
+    private ContentCache() {
+        this.contentsById = null;
+        this.contentsByChapterId = null;
+        this.contentsByCourseId = null;
+        this.skillTypesByChapterId = null;
+        this.enabled = false;
+    }
+
+    /**
+     * @return a cache that stores nothing. Reads are passed through to the loaders and invalidations do nothing.
+     */
+    public static ContentCache disabled() {
+        return new ContentCache();
+    }
+
+    /**
+     * @return whether this cache stores entries. If not, there is nothing to invalidate on any replica.
+     */
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    private static <V> Cache<UUID, V> buildCache(final long maximumSize, final Duration expireAfterWrite) {
+        return Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(expireAfterWrite)
+                .recordStats()
+                .build();
+    }
+
+    /**
+     * Registers hit, miss, eviction and size metrics of the caches.
+     *
+     * @param meterRegistry the registry to register the metrics at
+     */
+    public void registerMetrics(final MeterRegistry meterRegistry) {
+        if (!enabled) {
+            return;
+        }
+        CaffeineCacheMetrics.monitor(meterRegistry, contentsById, "contents-by-id");
+        CaffeineCacheMetrics.monitor(meterRegistry, contentsByChapterId, "contents-by-chapter-id");
+        CaffeineCacheMetrics.monitor(meterRegistry, contentsByCourseId, "contents-by-course-id");
+        CaffeineCacheMetrics.monitor(meterRegistry, skillTypesByChapterId, "skill-types-by-chapter-id");
+    }
+
+    /**
+     * Returns the contents with the given ids. Contents that are not cached are loaded with a single call of the
+     * given loader.
+     *
+     * @param ids    the ids of the contents
+     * @param loader loads the contents with the given ids. Ids of contents that do not exist may be omitted.
+     * @return a map from id to content, which contains no entry for contents that do not exist
+     */
+    public Map<UUID, Content> getContentsById(final Collection<UUID> ids,
+                                              final Function<Set<UUID>, Map<UUID, Content>> loader) {
+        if (!enabled) {
+            return loader.apply(Set.copyOf(ids));
+        }
+        return contentsById.getAll(ids, missingIds -> loader.apply(Set.copyOf(missingIds)));
+    }
+
+    /**
+     * Returns the contents of the given chapters. Chapters that are not cached are loaded with a single call of the
+     * given loader.
+     *
+     * @param chapterIds the ids of the chapters
+     * @param loader     loads the contents of the given chapters. Must return an entry for every given chapter.
+     * @return a map from chapter id to the contents of the chapter
+     */
+    public Map<UUID, List<Content>> getContentsByChapterIds(final Collection<UUID> chapterIds,
+                                                            final Function<Set<UUID>, Map<UUID, List<Content>>> loader) {
+        if (!enabled) {
+            return loader.apply(Set.copyOf(chapterIds));
+        }
+        return contentsByChapterId.getAll(chapterIds, missingIds -> loader.apply(Set.copyOf(missingIds)));
+    }
+
+    /**
+     * Returns the contents of the given courses. Courses that are not cached are loaded with a single call of the
+     * given loader.
+     *
+     * @param courseIds the ids of the courses
+     * @param loader    loads the contents of the given courses. Must return an entry for every given course.
+     * @return a map from course id to the contents of the course
+     */
+    public Map<UUID, List<Content>> getContentsByCourseIds(final Collection<UUID> courseIds,
+                                                           final Function<Set<UUID>, Map<UUID, List<Content>>> loader) {
+        if (!enabled) {
+            return loader.apply(Set.copyOf(courseIds));
+        }
+        return contentsByCourseId.getAll(courseIds, missingIds -> loader.apply(Set.copyOf(missingIds)));
+    }
+
+    /**
+     * Returns the skill types achievable in the given chapters. Chapters that are not cached are loaded with a single
+     * call of the given loader.
+     *
+     * @param chapterIds the ids of the chapters
+     * @param loader     loads the skill types of the given chapters. Must return an entry for every given chapter.
+     * @return a map from chapter id to the skill types of the chapter
+     */
+    public Map<UUID, List<SkillType>> getSkillTypesByChapterIds(final Collection<UUID> chapterIds,
+                                                                final Function<Set<UUID>, Map<UUID, List<SkillType>>> loader) {
+        if (!enabled) {
+            return loader.apply(Set.copyOf(chapterIds));
+        }
+        return skillTypesByChapterId.getAll(chapterIds, missingIds -> loader.apply(Set.copyOf(missingIds)));
+    }
+
+    /**
+     * Invalidates the cached entries of a content and of the chapter and course it belongs to.
+     *
+     * @param contentId the id of the content
+     * @param chapterId the id of the chapter of the content, may be null
+     * @param courseId  the id of the course of the content, may be null
+     */
+    public void invalidateContent(final UUID contentId, final UUID chapterId, final UUID courseId) {
+        if (!enabled) {
+            return;
+        }
+        runNowAndAfterCommit(() -> {
+            contentsById.invalidate(contentId);
+            if (chapterId != null) {
+                contentsByChapterId.invalidate(chapterId);
+                skillTypesByChapterId.invalidate(chapterId);
+            }
+            if (courseId != null) {
+                contentsByCourseId.invalidate(courseId);
+            }
+        });
+    }
+
+    /**
+     * Invalidates the cached contents of the given chapters.
+     *
+     * @param chapterIds the ids of the chapters
+     */
+    public void invalidateChapters(final Collection<UUID> chapterIds) {
+        if (!enabled) {
+            return;
+        }
+        final List<UUID> chapterIdsCopy = List.copyOf(chapterIds);
+        runNowAndAfterCommit(() -> {
+            contentsByChapterId.invalidateAll(chapterIdsCopy);
+            skillTypesByChapterId.invalidateAll(chapterIdsCopy);
+        });
+    }
+
+    /**
+     * Applies a cache invalidation received from another replica.
+     * Sections and stages are not part of the cached contents, so only contents, chapters and courses are invalidated.
+     *
+     * @param event the received invalidation
+     */
+    public void invalidate(final CacheInvalidationEvent event) {
+        if (!enabled) {
+            return;
+        }
+        contentsById.invalidateAll(event.getContentIds());
+        contentsByChapterId.invalidateAll(event.getChapterIds());
+        contentsByCourseId.invalidateAll(event.getCourseIds());
+        skillTypesByChapterId.invalidateAll(event.getChapterIds());
+    }
+
+    /**
+     * Invalidates all cached entries.
+     */
+    public void invalidateAll() {
+        if (!enabled) {
+            return;
+        }
+        contentsById.invalidateAll();
+        contentsByChapterId.invalidateAll();
+        contentsByCourseId.invalidateAll();
+        skillTypesByChapterId.invalidateAll();
+    }
+
+    private static void runNowAndAfterCommit(final Runnable invalidation) {
+        invalidation.run();
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(final int status) {
+                    invalidation.run();
+                }
+            });
+        }
+    }
+}
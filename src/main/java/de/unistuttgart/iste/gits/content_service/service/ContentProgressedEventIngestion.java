@@ -0,0 +1,165 @@
+package de.unistuttgart.iste.gits.content_service.service;
+
+import de.unistuttgart.iste.gits.common.event.ContentProgressedEvent;
+import io.micrometer.core.instrument.*;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Logs incoming content-progressed events.
+ * <p>
+ * By default, each event is logged immediately and is only accepted once it is persisted, so that dapr redelivers
+ * events that could not be logged. If buffering is enabled, events are buffered and logged in batches, so that a
+ * burst of events, e.g. after an exam deadline, is written with a few transactions instead of one per event.
+ * The buffer is flushed periodically and as soon as it contains a full batch. Buffered events are already accepted,
+ * so they are lost if the service is killed or if they cannot be logged. The buffer is bounded, events that do
+ * not fit into it are rejected so that dapr redelivers them later.
+ */
+@Component
+@Slf4j
+public class ContentProgressedEventIngestion {
+
+    private final UserProgressDataService userProgressDataService;
+    private final boolean bufferingEnabled;
+    private final int batchSize;
+
+    private final BlockingQueue<ContentProgressedEvent> buffer;
+    private final AtomicInteger queueDepth = new AtomicInteger();
+    private final ReentrantLock flushLock = new ReentrantLock();
+
+    private final Counter ingestedEvents;
+    private final Counter failedEvents;
+    private final Counter rejectedEvents;
+    private final Timer batchTimer;
+
+    public ContentProgressedEventIngestion(final UserProgressDataService userProgressDataService,
+                                           @Value("${content-service.progress.ingestion.buffering-enabled:false}") final boolean bufferingEnabled,
+                                           @Value("${content-service.progress.ingestion.batch-size:500}") final int batchSize,
+                                           @Value("${content-service.progress.ingestion.capacity:10000}") final int capacity,
+                                           final ObjectProvider<MeterRegistry> meterRegistryProvider) {
+        this.userProgressDataService = userProgressDataService;
+        this.bufferingEnabled = bufferingEnabled;
+        this.batchSize = batchSize;
+        this.buffer = new LinkedBlockingQueue<>(capacity);
+
+        final MeterRegistry meterRegistry = meterRegistryProvider.getIfAvailable(() -> Metrics.globalRegistry);
+        Gauge.builder("content_service.progress.ingestion.queue.depth", queueDepth, AtomicInteger::get)
+                .description("Number of buffered content-progressed events")
+                .register(meterRegistry);
+        this.ingestedEvents = Counter.builder("content_service.progress.ingestion.events")
+                .description("Number of logged content-progressed events")
+                .register(meterRegistry);
+        this.failedEvents = Counter.builder("content_service.progress.ingestion.failed.events")
+                .description("Number of content-progressed events that could not be logged")
+                .register(meterRegistry);
+        this.rejectedEvents = Counter.builder("content_service.progress.ingestion.rejected.events")
+                .description("Number of content-progressed events that were rejected because the buffer was full")
+                .register(meterRegistry);
+        this.batchTimer = Timer.builder("content_service.progress.ingestion.batch")
+                .description("Duration of logging a batch of content-progressed events")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Logs the event, or adds it to the buffer if buffering is enabled. If the buffer contains a full batch
+     * afterward, the calling thread logs one batch, unless another thread is already flushing. The remaining events
+     * are left to the periodic flush, so that the calling thread returns after at most one batch.
+     *
+     * @param event the event to log
+     * @return whether the event was accepted, i.e. logged or buffered. If not, the event has to be redelivered.
+     */
+    public boolean submit(final ContentProgressedEvent event) {
+        if (!bufferingEnabled) {
+            return logBatch(List.of(event));
+        }
+
+        if (!buffer.offer(event)) {
+            rejectedEvents.increment();
+            return false;
+        }
+        if (queueDepth.incrementAndGet() >= batchSize && flushLock.tryLock()) {
+            try {
+                logBatch(drainBatch());
+            } finally {
+                flushLock.unlock();
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Logs all buffered events in batches.
+     */
+    @Scheduled(fixedDelayString = "${content-service.progress.ingestion.flush-interval:PT1S}")
+    public void flush() {
+        flushLock.lock();
+        try {
+            List<ContentProgressedEvent> batch = drainBatch();
+            while (!batch.isEmpty()) {
+                logBatch(batch);
+                batch = drainBatch();
+            }
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    @PreDestroy
+    public void flushOnShutdown() {
+        flush();
+    }
+
+    private List<ContentProgressedEvent> drainBatch() {
+        final List<ContentProgressedEvent> batch = new ArrayList<>(Math.min(batchSize, buffer.size()));
+        ContentProgressedEvent event;
+        while (batch.size() < batchSize && (event = buffer.poll()) != null) {
+            batch.add(event);
+            queueDepth.decrementAndGet();
+        }
+        return batch;
+    }
+
+    /**
+     * Logs the events in one transaction. If that fails, the events are logged one by one, so that a single
+     * event that cannot be logged does not discard the progress of the other users in the batch.
+     *
+     * @return whether all events were logged
+     */
+    private boolean logBatch(final List<ContentProgressedEvent> batch) {
+        if (batch.isEmpty()) {
+            return true;
+        }
+
+        try {
+            batchTimer.record(() -> userProgressDataService.logUserProgress(batch));
+            ingestedEvents.increment(batch.size());
+            return true;
+        } catch (final Exception e) {
+            if (batch.size() == 1) {
+                failedEvents.increment();
+                log.error("Error while logging content-progressed event for user {} and content {}. {}",
+                        batch.get(0).getUserId(), batch.get(0).getContentId(), e.getMessage());
+                return false;
+            }
+
+            log.warn("Error while logging {} content-progressed events, logging them one by one. {}",
+                    batch.size(), e.getMessage());
+            boolean allLogged = true;
+            for (final ContentProgressedEvent event : batch) {
+                allLogged &= logBatch(List.of(event));
+            }
+            return allLogged;
+        }
+    }
+}
@@ -5,6 +5,7 @@ import de.unistuttgart.iste.gits.common.dapr.TopicPublisher;
 import de.unistuttgart.iste.gits.common.event.ChapterChangeEvent;
 import de.unistuttgart.iste.gits.common.event.CrudOperation;
 import de.unistuttgart.iste.gits.common.exception.IncompleteEventMessageException;
+import de.unistuttgart.iste.gits.content_service.dapr.CacheInvalidationPublisher;
 import de.unistuttgart.iste.gits.content_service.persistence.entity.*;
 import de.unistuttgart.iste.gits.content_service.persistence.mapper.ContentMapper;
 import de.unistuttgart.iste.gits.content_service.persistence.repository.*;
@@ -13,7 +14,6 @@ import de.unistuttgart.iste.gits.generated.dto.*;
 import jakarta.persistence.EntityNotFoundException;
 import jakarta.transaction.Transactional;
 import lombok.RequiredArgsConstructor;
-import org.jetbrains.annotations.NotNull;
 import org.springframework.stereotype.Service;
 
 import java.util.*;
@@ -31,10 +31,14 @@ public class ContentService {
     private final ContentRepository contentRepository;
     private final SectionRepository sectionRepository;
     private final UserProgressDataRepository userProgressDataRepository;
+    private final ProgressLogItemRepository progressLogItemRepository;
+    private final UserChapterProgressRepository userChapterProgressRepository;
     private final StageService stageService;
     private final ContentMapper contentMapper;
     private final ContentValidator contentValidator;
     private final TopicPublisher topicPublisher;
+    private final ContentCache contentCache;
+    private final CacheInvalidationPublisher cacheInvalidationPublisher;
 
     /**
      * Deletes Content by ID
@@ -51,6 +55,22 @@ public class ContentService {
         return uuid;
     }
 
+    /**
+     * Counts the contents of each of the given chapters with a single query.
+     *
+     * @param chapterIds the ids of the chapters
+     * @return a map from each given chapter id to the number of contents in the chapter
+     */
+    public Map<UUID, Integer> countContentsByChapterIds(final Collection<UUID> chapterIds) {
+        final Map<UUID, Integer> result = new HashMap<>(chapterIds.size());
+        chapterIds.forEach(chapterId -> result.put(chapterId, 0));
+        if (!chapterIds.isEmpty()) {
+            contentRepository.countByChapterIdIn(chapterIds)
+                    .forEach(count -> result.put(count.getChapterId(), (int) count.getCount()));
+        }
+        return result;
+    }
+
     /**
      * Checks if a Content with the given id exists. If not, an EntityNotFoundException is thrown.
      *
@@ -73,10 +93,19 @@ public class ContentService {
      * @throws EntityNotFoundException If a content with a given id does not exist.
      */
     public List<Content> getContentsById(final List<UUID> ids) {
-        return contentRepository.getAllByIdPreservingOrder(ids)
-                .stream()
-                .map(contentMapper::entityToDto)
+        final Map<UUID, Content> contentsById = contentCache.getContentsById(ids, this::loadContentsById);
+
+        final List<UUID> missingIds = ids.stream()
+                .filter(id -> !contentsById.containsKey(id))
+                .distinct()
                 .toList();
+        if (!missingIds.isEmpty()) {
+            throw new EntityNotFoundException("Entities with id(s) "
+                                              + missingIds.stream().map(UUID::toString).collect(Collectors.joining(", "))
+                                              + " not found");
+        }
+
+        return ids.stream().map(contentsById::get).toList();
     }
 
     /**
@@ -90,10 +119,12 @@ public class ContentService {
      * The order of the contents will match the order of the given ids.
      */
     public List<Content> findContentsById(final List<UUID> ids) {
-        return contentRepository.findAllByIdPreservingOrder(ids)
-                .stream()
-                .map(contentMapper::entityToDto)
-                .toList();
+        final Map<UUID, Content> contentsById = contentCache.getContentsById(ids, this::loadContentsById);
+
+        // ArrayList instead of Stream#toList because the list may contain null values
+        final List<Content> result = new ArrayList<>(ids.size());
+        ids.forEach(id -> result.add(contentsById.get(id)));
+        return result;
     }
 
     /**
@@ -104,10 +135,19 @@ public class ContentService {
      * @return a list of lists of contents. The order of the lists will match the order of the given course ids.
      */
     public List<List<Content>> getContentsByCourseIds(final List<UUID> courseIds) {
-        final List<ContentEntity> matchingContents = contentRepository.findByCourseIdIn(courseIds);
-        final List<Content> contentDtos = matchingContents.stream().map(contentMapper::entityToDto).toList();
-
-        return groupIntoSubLists(contentDtos, courseIds, content -> content.getMetadata().getCourseId());
+        final Map<UUID, List<Content>> contentsByCourseId = contentCache.getContentsByCourseIds(courseIds,
+                missingCourseIds -> {
+                    final List<UUID> missingCourseIdList = List.copyOf(missingCourseIds);
+                    final List<Content> contentDtos = contentRepository.findByCourseIdIn(missingCourseIdList)
+                            .stream()
+                            .map(contentMapper::entityToDto)
+                            .toList();
+
+                    return toMapOfSubLists(missingCourseIdList,
+                            groupIntoSubLists(contentDtos, missingCourseIdList, content -> content.getMetadata().getCourseId()));
+                });
+
+        return courseIds.stream().map(contentsByCourseId::get).toList();
     }
 
     /**
@@ -118,12 +158,42 @@ public class ContentService {
      * @return a list of lists of contents. The order of the lists will match the order of the given chapter ids.
      */
     public List<List<Content>> getContentsByChapterIds(final List<UUID> chapterIds) {
-        final List<Content> allMatchingContents = contentRepository.findByChapterIdIn(chapterIds)
+        final Map<UUID, List<Content>> contentsByChapterId = contentCache.getContentsByChapterIds(chapterIds,
+                missingChapterIds -> {
+                    final List<UUID> missingChapterIdList = List.copyOf(missingChapterIds);
+                    final List<Content> allMatchingContents = contentRepository.findByChapterIdIn(missingChapterIdList)
+                            .stream()
+                            .map(contentMapper::entityToDto)
+                            .toList();
+
+                    return toMapOfSubLists(missingChapterIdList,
+                            groupIntoSubLists(allMatchingContents, missingChapterIdList, content -> content.getMetadata().getChapterId()));
+                });
+
+        return chapterIds.stream().map(contentsByChapterId::get).toList();
+    }
+
+    /**
+     * Loads the contents with the given ids from the database. Used to fill the {@link ContentCache}.
+     *
+     * @param ids the ids of the contents to load
+     * @return a map from id to content, without entries for contents that do not exist
+     */
+    private Map<UUID, Content> loadContentsById(final Set<UUID> ids) {
+        return contentRepository.findWithTagsByIdIn(ids)
                 .stream()
-                .map(contentMapper::entityToDto)
-                .toList();
+                .collect(Collectors.toMap(ContentEntity::getId, contentMapper::entityToDto));
+    }
 
-        return groupIntoSubLists(allMatchingContents, chapterIds, content -> content.getMetadata().getChapterId());
+    /**
+     * @return a map from each of the given ids to the sub list at the same position
+     */
+    private static Map<UUID, List<Content>> toMapOfSubLists(final List<UUID> ids, final List<List<Content>> subLists) {
+        final Map<UUID, List<Content>> result = new HashMap<>(ids.size());
+        for (int i = 0; i < ids.size(); i++) {
+            result.put(ids.get(i), List.copyOf(subLists.get(i)));
+        }
+        return result;
     }
 
     /**
@@ -140,6 +210,7 @@ public class ContentService {
         newTags.add(tagName);
         content.getMetadata().setTags(newTags);
         content = contentRepository.save(content);
+        invalidateCachedContent(content);
         return contentMapper.entityToDto(content);
     }
 
@@ -157,6 +228,7 @@ public class ContentService {
         newTags.remove(tagName);
         content.getMetadata().setTags(newTags);
         content = contentRepository.save(content);
+        invalidateCachedContent(content);
 
         return contentMapper.entityToDto(content);
     }
@@ -177,6 +249,27 @@ public class ContentService {
         return contentMapper.mediaContentEntityToDto(createdContentEntity);
     }
 
+    /**
+     * Creates multiple Media Entities with the given inputs in one transaction.
+     * All inputs are validated before anything is saved, so either all or none of the contents are created.
+     *
+     * @param inputs   to be used as basis of creation
+     * @param courseId ID of the course the contents belong to
+     * @return DTOs with the created Media Entities, in the order of the inputs
+     */
+    @Transactional
+    public List<MediaContent> createMediaContents(final List<CreateMediaContentInput> inputs, final UUID courseId) {
+        inputs.forEach(contentValidator::validateCreateMediaContentInput);
+
+        final List<MediaContentEntity> contentEntities = inputs.stream()
+                .map(contentMapper::mediaContentDtoToEntity)
+                .toList();
+
+        return createContents(contentEntities, courseId).stream()
+                .map(contentMapper::mediaContentEntityToDto)
+                .toList();
+    }
+
     /**
      * Updates a Media Entity with given input
      *
@@ -209,6 +302,27 @@ public class ContentService {
         return contentMapper.assessmentEntityToDto(contentEntity);
     }
 
+    /**
+     * Creates multiple Assessment Entities with the given inputs in one transaction.
+     * All inputs are validated before anything is saved, so either all or none of the assessments are created.
+     *
+     * @param inputs   to be used as basis of creation
+     * @param courseId ID of the course the assessments belong to
+     * @return DTOs with the created Assessment Entities, in the order of the inputs
+     */
+    @Transactional
+    public List<Assessment> createAssessments(final List<CreateAssessmentInput> inputs, final UUID courseId) {
+        inputs.forEach(contentValidator::validateCreateAssessmentContentInput);
+
+        final List<AssessmentEntity> contentEntities = inputs.stream()
+                .map(contentMapper::assessmentDtoToEntity)
+                .toList();
+
+        return createContents(contentEntities, courseId).stream()
+                .map(contentMapper::assessmentEntityToDto)
+                .toList();
+    }
+
     /**
      * Updates an Assessment Entity with given input
      *
@@ -236,10 +350,27 @@ public class ContentService {
     private <T extends ContentEntity> T createContent(T contentEntity, final UUID courseId) {
         contentEntity.getMetadata().setCourseId(courseId);
         contentEntity = contentRepository.save(contentEntity);
+        invalidateCachedContent(contentEntity);
 
         return contentEntity;
     }
 
+    /**
+     * Like {@link #createContent(ContentEntity, UUID)}, but saves all entities with one batched flush.
+     *
+     * @param <T>             all Entities that inherit from content Entity
+     * @param contentEntities entities to be saved to database
+     * @return the saved entities, in the given order
+     */
+    private <T extends ContentEntity> List<T> createContents(final List<T> contentEntities, final UUID courseId) {
+        contentEntities.forEach(contentEntity -> contentEntity.getMetadata().setCourseId(courseId));
+        // new entities are persisted, so the given instances are the saved ones and keep their order
+        contentRepository.saveAll(contentEntities);
+        contentEntities.forEach(this::invalidateCachedContent);
+
+        return contentEntities;
+    }
+
     /**
      * Generified Content Entity update method.
      *
@@ -250,7 +381,13 @@ public class ContentService {
      */
     private <T extends ContentEntity> T updateContent(final T oldContentEntity, T updatedContentEntity) {
         updatedContentEntity.getMetadata().setCourseId(oldContentEntity.getMetadata().getCourseId());
+        moveLearnedContentIfChapterChanged(oldContentEntity, updatedContentEntity);
+        // the chapter of the content might change, so the old chapter has to be invalidated as well
+        invalidateCachedContent(oldContentEntity.getId(),
+                oldContentEntity.getMetadata().getChapterId(),
+                oldContentEntity.getMetadata().getCourseId());
         updatedContentEntity = contentRepository.save(updatedContentEntity);
+        invalidateCachedContent(updatedContentEntity);
 
         // if the content is assigned to a different chapter course Links need to be potentially updated and therefore
         // an Update request is sent to the resource services
@@ -261,13 +398,29 @@ public class ContentService {
         return updatedContentEntity;
     }
 
+    /**
+     * Moves the content in the chapter progress of all users that have learned it,
+     * if it is assigned to a different chapter.
+     */
+    private void moveLearnedContentIfChapterChanged(final ContentEntity oldContentEntity,
+                                                    final ContentEntity updatedContentEntity) {
+        final UUID oldChapterId = oldContentEntity.getMetadata().getChapterId();
+        final UUID newChapterId = updatedContentEntity.getMetadata().getChapterId();
+        if (oldChapterId.equals(newChapterId)) {
+            return;
+        }
+
+        final List<UUID> contentIds = List.of(oldContentEntity.getId());
+        userChapterProgressRepository.addLearnedContentsOfContents(contentIds, oldChapterId, -1);
+        userChapterProgressRepository.addLearnedContentsOfContents(contentIds, newChapterId, 1);
+    }
+
     /**
      * Method that cascades the deletion of chapters to chapter-dependant-content
      *
      * @param dto message containing information about to be deleted entities
      */
     public void cascadeContentDeletion(final ChapterChangeEvent dto) throws IncompleteEventMessageException {
-        final List<UUID> contentIds = new ArrayList<>();
         final List<UUID> chapterIds = dto.getChapterIds();
 
         // make sure message is complete
@@ -281,17 +434,34 @@ public class ContentService {
         }
 
         final List<ContentEntity> contentEntities = contentRepository.findByChapterIdIn(chapterIds);
+        contentCache.invalidateChapters(chapterIds);
+        userChapterProgressRepository.deleteByChapterIdIn(chapterIds);
 
-        for (final ContentEntity entity : contentEntities) {
-            // remove all links from stages to content
-            // and collect IDs of deleted content entities
-            contentIds.add(deleteContentAndRemoveDependencies(entity));
+        if (contentEntities.isEmpty()) {
+            return;
         }
 
-        if (!contentIds.isEmpty()) {
-            // inform dependant services that content entities were deleted
-            topicPublisher.notifyContentChanges(contentIds, CrudOperation.DELETE);
-        }
+        final List<UUID> contentIds = contentEntities.stream().map(ContentEntity::getId).toList();
+        deleteContentsAndRemoveDependencies(contentIds);
+        contentEntities.forEach(this::invalidateCachedContent);
+
+        // inform dependant services that content entities were deleted
+        topicPublisher.notifyContentChanges(contentIds, CrudOperation.DELETE);
+    }
+
+    /**
+     * Like {@link #deleteContentAndRemoveDependencies(ContentEntity)}, but for multiple contents at once.
+     * Each kind of dependency is removed with a single statement for all contents, so the number of statements
+     * does not depend on the number of contents.
+     *
+     * @param contentIds the ids of the contents to delete
+     */
+    private void deleteContentsAndRemoveDependencies(final List<UUID> contentIds) {
+        userProgressDataRepository.deleteByContentIdIn(contentIds);
+        progressLogItemRepository.deleteByContentIdIn(contentIds);
+        stageService.deleteContentLinksFromStages(contentIds);
+        contentRepository.deleteTagsByContentIdIn(contentIds);
+        contentRepository.deleteByIdIn(contentIds);
     }
 
     /**
@@ -303,38 +473,73 @@ public class ContentService {
      * @return the ID of the deleted content entity
      */
     private UUID deleteContentAndRemoveDependencies(final ContentEntity contentEntity) {
+        userChapterProgressRepository.addLearnedContentsOfContents(List.of(contentEntity.getId()),
+                contentEntity.getMetadata().getChapterId(), -1);
         userProgressDataRepository.deleteByContentId(contentEntity.getId());
+        progressLogItemRepository.deleteByContentId(contentEntity.getId());
         // remove content from sections
         stageService.deleteContentLinksFromStages(contentEntity);
 
         contentRepository.delete(contentEntity);
+        invalidateCachedContent(contentEntity);
 
         return contentEntity.getId();
     }
 
+    /**
+     * Invalidates the cached entries of the given content and of its chapter and course,
+     * on this replica and on all other replicas.
+     */
+    private void invalidateCachedContent(final ContentEntity contentEntity) {
+        invalidateCachedContent(contentEntity.getId(),
+                contentEntity.getMetadata().getChapterId(),
+                contentEntity.getMetadata().getCourseId());
+    }
+
+    private void invalidateCachedContent(final UUID contentId, final UUID chapterId, final UUID courseId) {
+        if (!contentCache.isEnabled()) {
+            // all replicas share the configuration, so none of them caches contents
+            return;
+        }
+        contentCache.invalidateContent(contentId, chapterId, courseId);
+        cacheInvalidationPublisher.notifyContentChanged(contentId, chapterId, courseId);
+    }
+
     /**
      * Returns a list of all skill types that are achievable by the user in the given chapters.
      * A skill type is achievable if there exists at least one assessment in a chapter that has this skill type.
+     * The skill types of all chapters that are not cached are loaded with a single query.
      *
      * @param chapterIds the ids of the chapters to check
      * @return a list of all skill types that are achievable by the user in the given chapters.
      * The order of the list will match the order of the given chapter ids.
      */
     public List<List<SkillType>> getAchievableSkillTypesByChapterIds(final List<UUID> chapterIds) {
-        return chapterIds.stream()
-                .map(this::getSkillTypesOfChapter)
-                .toList();
+        final Map<UUID, List<SkillType>> skillTypesByChapterId = contentCache.getSkillTypesByChapterIds(chapterIds,
+                this::loadSkillTypesByChapterIds);
+
+        return chapterIds.stream().map(skillTypesByChapterId::get).toList();
     }
 
-    @NotNull
-    private List<SkillType> getSkillTypesOfChapter(final UUID chapterId) {
-        return contentRepository.findSkillTypesByChapterId(chapterId)
-                .stream()
-                // each content has a list of skill types, so we have to flatten the list of lists of skill types
-                .flatMap(List::stream)
-                // remove duplicates
-                .distinct()
-                .toList();
+    /**
+     * Loads the skill types of the given chapters from the database. Used to fill the {@link ContentCache}.
+     *
+     * @param chapterIds the ids of the chapters
+     * @return a map from each chapter id to the distinct skill types of the assessments in the chapter
+     */
+    private Map<UUID, List<SkillType>> loadSkillTypesByChapterIds(final Set<UUID> chapterIds) {
+        final Map<UUID, Set<SkillType>> skillTypesByChapterId = new HashMap<>(chapterIds.size());
+        chapterIds.forEach(chapterId -> skillTypesByChapterId.put(chapterId, EnumSet.noneOf(SkillType.class)));
+
+        for (final ContentRepository.ChapterSkillTypes assessment : contentRepository.findSkillTypesByChapterIdIn(chapterIds)) {
+            if (assessment.getSkillTypes() != null) {
+                skillTypesByChapterId.get(assessment.getChapterId()).addAll(assessment.getSkillTypes());
+            }
+        }
+
+        final Map<UUID, List<SkillType>> result = new HashMap<>(chapterIds.size());
+        skillTypesByChapterId.forEach((chapterId, skillTypes) -> result.put(chapterId, List.copyOf(skillTypes)));
+        return result;
     }
 
 
@@ -0,0 +1,51 @@
+package de.unistuttgart.iste.gits.content_service.service;
+
+import jakarta.validation.ValidationException;
+
+import java.nio.charset.StandardCharsets;
+import java.time.OffsetDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+import java.util.UUID;
+
+/**
+ * Position in a list that is ordered by a timestamp and an id, e.g. the due reviews of a user or a progress log.
+ * Encoded as an opaque string so that clients do not depend on the sort key.
+ *
+ * @param timestamp the timestamp of the last returned element
+ * @param id        the id of the last returned element, to break ties between equal timestamps
+ */
+public record KeysetCursor(OffsetDateTime timestamp, UUID id) {
+
+    private static final String SEPARATOR = "|";
+
+    /**
+     * @return the cursor as opaque string
+     */
+    public String encode() {
+        final String value = timestamp + SEPARATOR + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(value.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Decodes a cursor returned by {@link #encode()}.
+     *
+     * @param cursor the opaque string
+     * @return the decoded cursor
+     * @throws ValidationException if the string is not a valid cursor
+     */
+    public static KeysetCursor decode(final String cursor) {
+        try {
+            final String value = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            final int separatorIndex = value.indexOf(SEPARATOR);
+            if (separatorIndex < 0) {
+                throw new ValidationException("Invalid cursor");
+            }
+            return new KeysetCursor(
+                    OffsetDateTime.parse(value.substring(0, separatorIndex)),
+                    UUID.fromString(value.substring(separatorIndex + 1)));
+        } catch (final IllegalArgumentException | DateTimeParseException e) {
+            throw new ValidationException("Invalid cursor", e);
+        }
+    }
+}
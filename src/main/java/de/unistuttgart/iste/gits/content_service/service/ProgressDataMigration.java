@@ -0,0 +1,186 @@
+package de.unistuttgart.iste.gits.content_service.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * One-off migrations of the user progress data, executed on startup:
+ * <ol>
+ *     <li>Progress logs stored in the former element collection table are moved to the progress log item table.</li>
+ *     <li>The chapter progress of all users is calculated from the progress data,
+ *     if it does not exist yet.</li>
+ *     <li>The progress summary columns of user progress data which was created before the columns were
+ *     introduced are calculated. Contents that turn out to be learned are added to the chapter progress.</li>
+ * </ol>
+ * Migrated data is not touched again, so running the migrations after they were completed is cheap.
+ * <p>
+ * The legacy progress log is moved in batches of (user, content) pairs, each in its own transaction, which
+ * deletes the moved rows from the legacy table. Every replica runs the migrations on startup, so each batch holds
+ * a Postgres advisory lock and replicas that start at the same time move the batches one after another.
+ * The legacy table is dropped once it is empty.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class ProgressDataMigration {
+
+    private static final String LEGACY_PROGRESS_LOG_TABLE = "user_progress_data_progress_log";
+    /**
+     * Key of the advisory lock held while moving a batch of the legacy progress log, arbitrary but fixed.
+     */
+    private static final long LEGACY_PROGRESS_LOG_LOCK = 4_711_001L;
+    private static final UUID MIN_UUID = new UUID(0, 0);
+
+    private final UserProgressDataService userProgressDataService;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${content-service.progress.migration.enabled:true}")
+    private boolean enabled;
+
+    @Value("${content-service.progress.migration.batch-size:500}")
+    private int batchSize;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void migrate() {
+        if (!enabled) {
+            return;
+        }
+
+        try {
+            migrateLegacyProgressLog();
+            // before the backfill, which already adds to the chapter progress
+            initializeChapterProgress();
+            backfillProgressSummaries();
+        } catch (final Exception e) {
+            // rows without summary are still evaluated correctly, just slower, so the service can start anyway
+            log.error("Error while migrating the user progress data", e);
+        }
+    }
+
+    private void migrateLegacyProgressLog() {
+        if (!legacyProgressLogExists()) {
+            return;
+        }
+
+        // the legacy table has no index, which every batch would need to find its pairs
+        transactionTemplate.executeWithoutResult(status -> {
+            lockLegacyProgressLog();
+            if (legacyProgressLogExists()) {
+                jdbcTemplate.execute("create index if not exists idx_legacy_progress_log_pair on "
+                                     + LEGACY_PROGRESS_LOG_TABLE
+                                     + " (user_progress_data_user_id, user_progress_data_content_id)");
+            }
+        });
+
+        long total = 0;
+        MovedBatch batch = new MovedBatch(0, MIN_UUID, MIN_UUID);
+        while (batch != null) {
+            total += batch.movedRows();
+            final MovedBatch previous = batch;
+            batch = transactionTemplate.execute(status -> moveLegacyProgressLogBatch(previous));
+        }
+        log.info("Moved {} progress log items to the progress log item table", total);
+    }
+
+    /**
+     * Moves the legacy progress log of the next (user, content) pairs after the last pair of the previous batch.
+     *
+     * @return the moved batch, or null if no pairs are left
+     */
+    private MovedBatch moveLegacyProgressLogBatch(final MovedBatch previous) {
+        lockLegacyProgressLog();
+        if (!legacyProgressLogExists()) {
+            // moved by another replica in the meantime
+            return null;
+        }
+
+        final List<UUID[]> pairs = jdbcTemplate.query("""
+                        select distinct user_progress_data_user_id, user_progress_data_content_id
+                        from %s
+                        where (user_progress_data_user_id, user_progress_data_content_id) > (?, ?)
+                        order by user_progress_data_user_id, user_progress_data_content_id
+                        limit ?""".formatted(LEGACY_PROGRESS_LOG_TABLE),
+                (resultSet, rowNum) -> new UUID[]{
+                        resultSet.getObject(1, UUID.class),
+                        resultSet.getObject(2, UUID.class)},
+                previous.lastUserId(), previous.lastContentId(), batchSize);
+
+        if (pairs.isEmpty()) {
+            dropLegacyProgressLogIfEmpty();
+            return null;
+        }
+
+        final UUID[] lastPair = pairs.get(pairs.size() - 1);
+        final int movedRows = jdbcTemplate.update("""
+                        with moved as (
+                            delete from %s
+                            where (user_progress_data_user_id, user_progress_data_content_id) > (?, ?)
+                                and (user_progress_data_user_id, user_progress_data_content_id) <= (?, ?)
+                            returning *
+                        )
+                        insert into progress_log_item
+                            (id, user_id, content_id, timestamp, success, correctness, hints_used, time_to_complete)
+                        select gen_random_uuid(), user_progress_data_user_id, user_progress_data_content_id,
+                            timestamp, success, correctness, hints_used, time_to_complete
+                        from moved""".formatted(LEGACY_PROGRESS_LOG_TABLE),
+                previous.lastUserId(), previous.lastContentId(), lastPair[0], lastPair[1]);
+        return new MovedBatch(movedRows, lastPair[0], lastPair[1]);
+    }
+
+    /**
+     * Drops the legacy progress log, unless another replica has not finished moving its batches yet.
+     */
+    private void dropLegacyProgressLogIfEmpty() {
+        final Boolean empty = jdbcTemplate.queryForObject(
+                "select not exists (select 1 from " + LEGACY_PROGRESS_LOG_TABLE + ")", Boolean.class);
+        if (Boolean.TRUE.equals(empty)) {
+            jdbcTemplate.execute("drop table " + LEGACY_PROGRESS_LOG_TABLE);
+        }
+    }
+
+    private boolean legacyProgressLogExists() {
+        return Boolean.TRUE.equals(jdbcTemplate.queryForObject(
+                "select to_regclass('" + LEGACY_PROGRESS_LOG_TABLE + "') is not null", Boolean.class));
+    }
+
+    /**
+     * Waits for the advisory lock of the legacy progress log, which is released at the end of the transaction.
+     */
+    private void lockLegacyProgressLog() {
+        jdbcTemplate.queryForList("select pg_advisory_xact_lock(?)", LEGACY_PROGRESS_LOG_LOCK);
+    }
+
+    private void initializeChapterProgress() {
+        final int created = userProgressDataService.initializeChapterProgress();
+        if (created > 0) {
+            log.info("Calculated {} chapter progress entities", created);
+        }
+    }
+
+    private void backfillProgressSummaries() {
+        long total = 0;
+        int updated;
+        do {
+            // each batch is updated in its own transaction
+            updated = userProgressDataService.backfillProgressSummaries(batchSize);
+            total += updated;
+        } while (updated == batchSize);
+
+        if (total > 0) {
+            log.info("Calculated the progress summary of {} user progress data entities", total);
+        }
+    }
+
+    private record MovedBatch(int movedRows, UUID lastUserId, UUID lastContentId) {
+    }
+}
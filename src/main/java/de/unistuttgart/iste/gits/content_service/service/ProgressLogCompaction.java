@@ -0,0 +1,116 @@
+package de.unistuttgart.iste.gits.content_service.service;
+
+import io.micrometer.core.instrument.*;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.OffsetDateTime;
+
+/**
+ * Periodically deletes progress log entries that are older than the configured maximum age or beyond the
+ * configured number of latest entries per user and content.
+ * <p>
+ * Whether a content is learned, when it was last learned and the learning interval are stored on the
+ * user progress data, so the compacted entries are only missing from the progress log shown to the user.
+ * Entries are deleted in batches of (user, content) pairs, each in its own transaction, so that the job does
+ * not hold locks on the progress log for long and each batch only reads the entries of its pairs.
+ * <p>
+ * A walk over all pairs is split into runs of at most the configured number of batches, so that a run does not
+ * occupy a scheduler thread for long. Each run continues after the last pair of the previous run. A new walk
+ * starts at the earliest after the walk interval has passed since the start of the previous walk.
+ */
+@Component
+@Slf4j
+public class ProgressLogCompaction {
+
+    private final UserProgressDataService userProgressDataService;
+    private final boolean enabled;
+    private final Duration maxAge;
+    private final int keepLatest;
+    private final int batchSize;
+    private final int maxBatchesPerRun;
+    private final Duration walkInterval;
+
+    /**
+     * The last pair compacted by the previous run, or null if no walk is in progress.
+     */
+    private UserProgressDataKey resumeKey;
+    private OffsetDateTime nextWalkStart = OffsetDateTime.MIN;
+
+    private final Counter compactedItems;
+    private final Timer runTimer;
+
+    public ProgressLogCompaction(final UserProgressDataService userProgressDataService,
+                                 @Value("${content-service.progress.compaction.enabled:true}") final boolean enabled,
+                                 @Value("${content-service.progress.compaction.max-age:P180D}") final Duration maxAge,
+                                 @Value("${content-service.progress.compaction.keep-latest:50}") final int keepLatest,
+                                 @Value("${content-service.progress.compaction.batch-size:200}") final int batchSize,
+                                 @Value("${content-service.progress.compaction.max-batches-per-run:20}") final int maxBatchesPerRun,
+                                 @Value("${content-service.progress.compaction.walk-interval:PT6H}") final Duration walkInterval,
+                                 final ObjectProvider<MeterRegistry> meterRegistryProvider) {
+        this.userProgressDataService = userProgressDataService;
+        this.enabled = enabled;
+        this.maxAge = maxAge;
+        this.keepLatest = keepLatest;
+        this.batchSize = batchSize;
+        this.maxBatchesPerRun = maxBatchesPerRun;
+        this.walkInterval = walkInterval;
+
+        final MeterRegistry meterRegistry = meterRegistryProvider.getIfAvailable(() -> Metrics.globalRegistry);
+        this.compactedItems = Counter.builder("content_service.progress.compaction.items")
+                .description("Number of compacted progress log entries")
+                .register(meterRegistry);
+        this.runTimer = Timer.builder("content_service.progress.compaction.run")
+                .description("Duration of a compaction run of the progress log")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Compacts the next batches of the current walk over all (user, content) pairs, or starts a new walk if the
+     * previous one is finished and the walk interval has passed.
+     *
+     * @return the number of compacted entries
+     */
+    @Scheduled(fixedDelayString = "${content-service.progress.compaction.interval:PT1M}",
+            initialDelayString = "${content-service.progress.compaction.initial-delay:PT10M}")
+    public synchronized long compact() {
+        if (!enabled) {
+            return 0;
+        }
+
+        final OffsetDateTime now = OffsetDateTime.now();
+        if (resumeKey == null) {
+            if (now.isBefore(nextWalkStart)) {
+                return 0;
+            }
+            nextWalkStart = now.plus(walkInterval);
+        }
+
+        final Timer.Sample sample = Timer.start();
+        final OffsetDateTime olderThan = now.minus(maxAge);
+        long total = 0;
+        int batches = 0;
+        try {
+            do {
+                final UserProgressDataService.CompactedBatch batch =
+                        userProgressDataService.compactProgressLog(olderThan, keepLatest, resumeKey, batchSize);
+                compactedItems.increment(batch.compactedItems());
+                total += batch.compactedItems();
+                resumeKey = batch.lastKey();
+                batches++;
+            } while (resumeKey != null && batches < maxBatchesPerRun);
+        } catch (final Exception e) {
+            // the failed batch is retried in the next run
+            log.error("Error while compacting the progress log", e);
+        } finally {
+            sample.stop(runTimer);
+        }
+
+        log.info("Compacted {} progress log entries in {} batches", total, batches);
+        return total;
+    }
+}
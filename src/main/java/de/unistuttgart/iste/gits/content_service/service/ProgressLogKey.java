@@ -0,0 +1,21 @@
+package de.unistuttgart.iste.gits.content_service.service;
+
+import java.util.UUID;
+
+/**
+ * Identifies the requested slice of the progress log of one user for one content.
+ * Used as key when the progress logs of multiple (user, content) pairs are loaded at once.
+ *
+ * @param userId    ID of the user
+ * @param contentId ID of the content
+ * @param first     the maximum number of entries, or null for all entries
+ * @param after     if not null, only entries after this position are requested
+ */
+public record ProgressLogKey(UUID userId, UUID contentId, Integer first, KeysetCursor after) {
+
+    public ProgressLogKey {
+        if (first != null && first < 0) {
+            throw new IllegalArgumentException("first must not be negative");
+        }
+    }
+}
@@ -2,13 +2,15 @@ package de.unistuttgart.iste.gits.content_service.service;
 
 import de.unistuttgart.iste.gits.common.event.ChapterChangeEvent;
 import de.unistuttgart.iste.gits.common.exception.IncompleteEventMessageException;
+import de.unistuttgart.iste.gits.content_service.dapr.CacheInvalidationPublisher;
 import de.unistuttgart.iste.gits.content_service.persistence.entity.SectionEntity;
 import de.unistuttgart.iste.gits.content_service.persistence.entity.StageEntity;
 import de.unistuttgart.iste.gits.content_service.persistence.mapper.SectionMapper;
-import de.unistuttgart.iste.gits.content_service.persistence.repository.SectionRepository;
+import de.unistuttgart.iste.gits.content_service.persistence.repository.*;
 import de.unistuttgart.iste.gits.generated.dto.CreateSectionInput;
 import de.unistuttgart.iste.gits.generated.dto.Section;
 import jakarta.persistence.EntityNotFoundException;
+import jakarta.transaction.Transactional;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 
@@ -22,6 +24,9 @@ public class SectionService {
 
     private final SectionMapper sectionMapper;
     private final SectionRepository sectionRepository;
+    private final StageRepository stageRepository;
+    private final ContentRepository contentRepository;
+    private final CacheInvalidationPublisher cacheInvalidationPublisher;
 
     /**
      * creates a new Section for a given chapterId and name
@@ -41,6 +46,7 @@ public class SectionService {
                 .build();
 
         sectionEntity = sectionRepository.save(sectionEntity);
+        notifySectionChanged(sectionEntity);
 
         return sectionMapper.entityToDto(sectionEntity);
     }
@@ -59,6 +65,7 @@ public class SectionService {
         SectionEntity sectionEntity = sectionRepository.getReferenceById(sectionId);
         sectionEntity.setName(name);
         sectionEntity = sectionRepository.save(sectionEntity);
+        notifySectionChanged(sectionEntity);
         return sectionMapper.entityToDto(sectionEntity);
     }
 
@@ -68,10 +75,12 @@ public class SectionService {
      * @param sectionId ID of Section
      * @return ID of deleted Object
      */
+    @Transactional
     public UUID deleteSection(final UUID sectionId) {
         requireSectionExisting(sectionId);
 
         sectionRepository.deleteById(sectionId);
+        cacheInvalidationPublisher.notifySectionChanged(sectionId, null, null);
 
         return sectionId;
     }
@@ -93,6 +102,7 @@ public class SectionService {
         }
         sections = sectionRepository.findByChapterIdInOrderByPosition(chapterIds);
         sectionRepository.deleteAll(sections);
+        sections.forEach(this::notifySectionChanged);
     }
 
     /**
@@ -117,6 +127,7 @@ public class SectionService {
 
         // persist changes
         sectionRepository.save(sectionEntity);
+        notifySectionChanged(sectionEntity);
 
         return sectionMapper.entityToDto(sectionEntity);
     }
@@ -145,14 +156,46 @@ public class SectionService {
      * @return A list of lists of sections. The outer list contains sublists which each contain the sections
      *         for one chapter.
      */
+    @Transactional
     public List<List<Section>> getSectionsByChapterIds(List<UUID> chapterIds) {
         // get a list containing all sections for the given chapters, but not divided by chapter yet
-        List<SectionEntity> entities = sectionRepository.findByChapterIdInOrderByPosition(chapterIds);
+        List<SectionEntity> entities = findSectionTreesByChapterIds(chapterIds);
         List<Section> sections = entities.stream().map(sectionMapper::entityToDto).toList();
 
         return groupIntoSubLists(sections, chapterIds, Section::getChapterId);
     }
 
+    /**
+     * Fetches the sections of the given chapters with their stages, the contents of the stages and the tags of the
+     * contents. Instead of lazily loading the associations of each section, stage and content one by one,
+     * each level is fetched with a single query, so the number of queries does not depend on the size of the chapters.
+     * Must be called within a transaction, so that all queries share the same persistence context.
+     *
+     * @param chapterIds the ids of the chapters
+     * @return the sections of the chapters, ordered by position, with all associations initialized
+     */
+    private List<SectionEntity> findSectionTreesByChapterIds(final List<UUID> chapterIds) {
+        final List<SectionEntity> sections = sectionRepository.findWithStagesByChapterIdInOrderByPosition(chapterIds);
+        final List<UUID> sectionIds = sections.stream().map(SectionEntity::getId).toList();
+        if (sectionIds.isEmpty()) {
+            return sections;
+        }
+
+        final List<StageEntity> stages = stageRepository.findWithRequiredContentsBySectionIdIn(sectionIds);
+        stageRepository.findWithOptionalContentsBySectionIdIn(sectionIds);
+
+        final Set<UUID> contentIds = new HashSet<>();
+        for (final StageEntity stage : stages) {
+            stage.getRequiredContents().forEach(content -> contentIds.add(content.getId()));
+            stage.getOptionalContents().forEach(content -> contentIds.add(content.getId()));
+        }
+        if (!contentIds.isEmpty()) {
+            contentRepository.findWithTagsByIdIn(contentIds);
+        }
+
+        return sections;
+    }
+
     /**
      * Gets a Section by its id.
      * @param sectionId The id of the Section to get.
@@ -162,6 +205,15 @@ public class SectionService {
         return sectionMapper.entityToDto(sectionRepository.getReferenceById(sectionId));
     }
 
+    /**
+     * Notifies the other replicas that the given section changed, so that they can invalidate their caches.
+     */
+    private void notifySectionChanged(final SectionEntity sectionEntity) {
+        cacheInvalidationPublisher.notifySectionChanged(sectionEntity.getId(),
+                sectionEntity.getChapterId(),
+                sectionEntity.getCourseId());
+    }
+
     /**
      * Checks if a Section exists.
      *
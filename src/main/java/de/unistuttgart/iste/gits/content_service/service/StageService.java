@@ -1,5 +1,6 @@
 package de.unistuttgart.iste.gits.content_service.service;
 
+import de.unistuttgart.iste.gits.content_service.dapr.CacheInvalidationPublisher;
 import de.unistuttgart.iste.gits.content_service.persistence.entity.*;
 import de.unistuttgart.iste.gits.content_service.persistence.mapper.StageMapper;
 import de.unistuttgart.iste.gits.content_service.persistence.repository.*;
@@ -18,6 +19,7 @@ public class StageService {
     private final SectionRepository sectionRepository;
     private final ContentRepository contentRepository;
     private final StageMapper stageMapper;
+    private final CacheInvalidationPublisher cacheInvalidationPublisher;
 
     /**
      * creates a new Stage for an existing Section
@@ -38,7 +40,10 @@ public class StageService {
                         input.getOptionalContents()))
                 .build();
 
-        return stageMapper.entityToDto(stageRepository.save(stageEntity));
+        final StageEntity createdStageEntity = stageRepository.save(stageEntity);
+        notifyStageChanged(createdStageEntity);
+
+        return stageMapper.entityToDto(createdStageEntity);
     }
 
     /**
@@ -64,7 +69,10 @@ public class StageService {
                         input.getOptionalContents()
                 ));
 
-        return stageMapper.entityToDto(stageRepository.save(stageEntity));
+        final StageEntity updatedStageEntity = stageRepository.save(stageEntity);
+        notifyStageChanged(updatedStageEntity);
+
+        return stageMapper.entityToDto(updatedStageEntity);
     }
 
     /**
@@ -114,6 +122,7 @@ public class StageService {
         // perform deletion
         stageRepository.delete(deletedStageEntity);
         sectionRepository.save(sectionEntity);
+        notifyStageChanged(deletedStageEntity);
 
         return deletedStageEntity.getId();
     }
@@ -131,6 +140,28 @@ public class StageService {
             stageEntity.getOptionalContents().remove(contentEntity);
         }
         stageRepository.saveAll(stageEntities);
+        stageEntities.forEach(this::notifyStageChanged);
+    }
+
+    /**
+     * Like {@link #deleteContentLinksFromStages(ContentEntity)}, but for multiple contents at once.
+     * The links are removed with a constant number of statements, regardless of the number of contents and stages.
+     *
+     * @param contentIds the ids of the contents to remove from all stages
+     */
+    public void deleteContentLinksFromStages(final Collection<UUID> contentIds) {
+        final List<StageEntity> stageEntities = stageRepository.findAllContainingAnyContentOf(contentIds);
+
+        stageRepository.deleteRequiredContentLinks(contentIds);
+        stageRepository.deleteOptionalContentLinks(contentIds);
+        stageEntities.forEach(this::notifyStageChanged);
+    }
+
+    /**
+     * Notifies the other replicas that the given stage changed, so that they can invalidate their caches.
+     */
+    private void notifyStageChanged(final StageEntity stageEntity) {
+        cacheInvalidationPublisher.notifyStageChanged(stageEntity.getId(), stageEntity.getSectionId());
     }
 
 
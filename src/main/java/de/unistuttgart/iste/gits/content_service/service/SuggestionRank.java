@@ -0,0 +1,58 @@
+package de.unistuttgart.iste.gits.content_service.service;
+
+import de.unistuttgart.iste.gits.generated.dto.Content;
+import de.unistuttgart.iste.gits.generated.dto.UserProgressData;
+
+import java.time.Duration;
+import java.time.OffsetDateTime;
+
+/**
+ * Sort key of a content in the suggestion ranking of {@link SuggestionService}.
+ * The key is computed once per content against a fixed reference time, so that ranking only compares primitives.
+ * A smaller key means that the content is suggested earlier.
+ *
+ * @param daysUntilDue days from the reference time until the suggested date or, if the content is already learned,
+ *                     the next learn date. Negative if the content is overdue.
+ * @param learned      whether the content is already learned, i.e. whether it would be a repetition
+ * @param rewardPoints the reward points of the content
+ */
+record SuggestionRank(long daysUntilDue, boolean learned, int rewardPoints) implements Comparable<SuggestionRank> {
+
+    /**
+     * Computes the sort key of the given content.
+     *
+     * @param content          the content to rank
+     * @param userProgressData the progress of the user for the content
+     * @param referenceTime    the time to compute the days until the content is due from. Should be the same for
+     *                         all contents that are ranked against each other.
+     * @return the sort key of the content
+     */
+    static SuggestionRank of(final Content content,
+                             final UserProgressData userProgressData,
+                             final OffsetDateTime referenceTime) {
+        final OffsetDateTime relevantLearnDate = userProgressData.getIsLearned()
+                ? userProgressData.getNextLearnDate()
+                : content.getMetadata().getSuggestedDate();
+
+        return new SuggestionRank(
+                Duration.between(referenceTime, relevantLearnDate).toDays(),
+                userProgressData.getIsLearned(),
+                content.getMetadata().getRewardPoints());
+    }
+
+    @Override
+    public int compareTo(final SuggestionRank other) {
+        // sort by due date for new contents and next learn date for repetitions
+        int result = Long.compare(daysUntilDue, other.daysUntilDue);
+        if (result != 0) {
+            return result;
+        }
+        // then sort if content is new or a repetition, with new contents first
+        result = Boolean.compare(learned, other.learned);
+        if (result != 0) {
+            return result;
+        }
+        // then sort by reward points, with more reward points first
+        return Integer.compare(other.rewardPoints, rewardPoints);
+    }
+}
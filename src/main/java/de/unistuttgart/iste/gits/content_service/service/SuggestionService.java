@@ -2,20 +2,15 @@ package de.unistuttgart.iste.gits.content_service.service;
 
 import de.unistuttgart.iste.gits.generated.dto.*;
 import lombok.RequiredArgsConstructor;
-import org.apache.commons.lang3.tuple.Pair;
-import org.jetbrains.annotations.NotNull;
 import org.springframework.stereotype.Service;
 
-import java.time.Duration;
 import java.time.OffsetDateTime;
 import java.util.*;
-import java.util.function.Function;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
 import static java.time.OffsetDateTime.now;
 import static java.util.Comparator.comparing;
-import static java.util.Comparator.reverseOrder;
 import static org.apache.commons.lang3.ObjectUtils.isEmpty;
 
 /**
@@ -25,14 +20,12 @@ import static org.apache.commons.lang3.ObjectUtils.isEmpty;
 @RequiredArgsConstructor
 public class SuggestionService {
 
-    private final SectionService sectionService;
     private final UserProgressDataService userProgressDataService;
 
-    private final Map<Pair<UUID, UUID>, UserProgressData> userProgressDataCache = new HashMap<>();
-
     /**
-     * Creates {@link Suggestion}s for the given chapter IDs and user ID. The suggestions are created based on the
-     * user's progress and the given skill types.
+     * Creates {@link Suggestion}s for the contents of the given sections and the given user. The suggestions are
+     * created based on the user's progress and the given skill types. Only contents of stages which are available
+     * to the user are considered.
      * <p>
      * The suggested contents are prioritized as follows:
      * <ol>
@@ -44,9 +37,11 @@ public class SuggestionService {
      *     <li>New contents are suggested before repetitions.</li>
      *     <li>Contents with more reward points are suggested before contents with less reward points.</li>
      * </ol>
+     * <p>
+     * The sections are walked only once and the progress of the user for all their contents is loaded with a single
+     * query. Instead of sorting all candidates, only the best {@code amount} required and optional contents are kept.
      *
-     * @param requiredContents required contents which should be taken into account for the suggestion
-     * @param optionalContents optional contents which should be taken into account for the suggestion
+     * @param sections   the sections whose contents should be taken into account for the suggestion
      * @param userId     the ID of the user for which suggestions should be created.
      * @param amount     the amount of suggestions to create.
      * @param skillTypes the skill types of the suggestions to create. If the list is empty, all skill types are
@@ -54,102 +49,65 @@ public class SuggestionService {
      *                   media contents are ignored.
      * @return the created suggestions.
      */
-    public List<Suggestion> createSuggestions(final List<Content> requiredContents,
-                                              final List<Content> optionalContents,
+    public List<Suggestion> createSuggestions(final List<Section> sections,
                                               final UUID userId,
                                               final int amount,
                                               final List<SkillType> skillTypes) {
-        userProgressDataCache.clear();
-
-        return Stream.concat(
-                        filterAndSort(requiredContents.stream(), userId, skillTypes),
-                        filterAndSort(optionalContents.stream(), userId, skillTypes))
-                .limit(amount)
-                .map(content -> createSuggestion(content, getUserProgressData(userId, content.getId())))
-                .toList();
-    }
-
-    /**
-     * Method which for a given user fetches the required contents which are currently available to the user to work
-     * on in the given chapters.
-     * @param chapterIds the chapters to get the available required contents for
-     * @param userId the user to get the available required contents for
-     * @return a list of the available required contents
-     */
-    public List<Content> getAvailableRequiredContentsOfChaptersForUser(final List<UUID> chapterIds,
-                                                                         final UUID userId) {
-        final List<Stage> availableStages = sectionService.getSectionsByChapterIds(chapterIds)
-                .stream()
-                .flatMap(Collection::stream)
-                .flatMap(section -> getAvailableStagesOfSection(section, userId).stream())
-                .toList();
+        if (amount <= 0) {
+            return List.of();
+        }
 
-        return availableStages.stream().flatMap(stage -> stage.getRequiredContents().stream()).toList();
-    }
+        final UserProgressSnapshot userProgress = new UserProgressSnapshot(userId, userProgressDataService);
+        userProgress.preload(sections.stream()
+                .flatMap(section -> section.getStages().stream())
+                .flatMap(stage -> Stream.concat(stage.getRequiredContents().stream(), stage.getOptionalContents().stream()))
+                .map(Content::getId)
+                .toList());
+
+        // all contents are ranked against the same point in time, so that the ranking is consistent
+        final OffsetDateTime referenceTime = now();
+
+        final TopContents requiredContents = new TopContents(amount);
+        final TopContents optionalContents = new TopContents(amount);
+
+        for (final Section section : sections) {
+            for (final Stage stage : getAvailableStagesOfSection(section, userProgress)) {
+                stage.getRequiredContents().stream()
+                        .filter(content -> isCandidate(content, userProgress, skillTypes))
+                        .forEach(content -> requiredContents.offer(content, rank(content, userProgress, referenceTime)));
+                stage.getOptionalContents().stream()
+                        .filter(content -> isCandidate(content, userProgress, skillTypes))
+                        .forEach(content -> optionalContents.offer(content, rank(content, userProgress, referenceTime)));
+            }
+        }
 
-    /**
-     * Method which for a given user fetches the optional contents which are currently available to the user to work
-     * @param chapterIds the chapters to get the available optional contents for
-     * @param userId the user to get the available optional contents for
-     * @return a list of the available optional contents
-     */
-    public List<Content> getAvailableOptionalContentsOfChaptersForUser(final List<UUID> chapterIds,
-                                                                         final UUID userId) {
-        final List<Stage> availableStages = sectionService.getSectionsByChapterIds(chapterIds)
-                .stream()
-                .flatMap(Collection::stream)
-                .flatMap(section -> getAvailableStagesOfSection(section, userId).stream())
+        return Stream.concat(requiredContents.toSortedList().stream(), optionalContents.toSortedList().stream())
+                .limit(amount)
+                .map(content -> createSuggestion(content, userProgress.get(content.getId())))
                 .toList();
-
-        return availableStages.stream().flatMap(stage -> stage.getOptionalContents().stream()).toList();
     }
 
     /**
-     * Filters the given contents by the given skill types and sorts them according to the prioritization described
-     * in {@link SuggestionService#createSuggestions(List, List, UUID, int, List)}
+     * @return whether the given content should be considered for a suggestion, i.e. whether it is new or due for
+     * review and has one of the given skill types.
      */
-    private Stream<Content> filterAndSort(final Stream<Content> contents, final UUID userId, final List<SkillType> skillTypes) {
-        return contents
-                .filter(content -> isNewOrDueForReview(content, userId))
-                .filter(content -> hasCorrectSkillType(content, skillTypes))
-                // sort by due date for new contents and next learn date for repetitions
-                .sorted(byNextLearnDateOrRepetitionDate(userId)
-                        // then sort if content is new or a repetition, with new contents first
-                        .thenComparing(newContentFirst(userId))
-                        // then sort by reward points, with more reward points first
-                        .thenComparing(byRewardPoints(), reverseOrder()));
-    }
-
-    @NotNull
-    private static Function<Content, Integer> byRewardPoints() {
-        return content -> content.getMetadata().getRewardPoints();
-    }
-
-    @NotNull
-    private Function<Content, Boolean> newContentFirst(final UUID userId) {
-        return content -> getUserProgressData(userId, content.getId()).getIsLearned();
-    }
-
-    private Comparator<Content> byNextLearnDateOrRepetitionDate(final UUID userId) {
-        return comparing((Content content) -> Duration.between(now(), getRelevantLearnDate(content, userId)).toDays());
+    private static boolean isCandidate(final Content content,
+                                       final UserProgressSnapshot userProgress,
+                                       final List<SkillType> skillTypes) {
+        return isNewOrDueForReview(content, userProgress) && hasCorrectSkillType(content, skillTypes);
     }
 
     /**
-     * @return the date when the user should learn the given content next, which is either the suggested date or the
-     * next learn date, depending on whether the user has already learned the content.
+     * @return the sort key of the given content, see {@link SuggestionRank}
      */
-    private OffsetDateTime getRelevantLearnDate(final Content content, final UUID userId) {
-        final UserProgressData userProgressData = getUserProgressData(userId, content.getId());
-
-        if (userProgressData.getIsLearned()) {
-            return userProgressData.getNextLearnDate();
-        }
-
-        return content.getMetadata().getSuggestedDate();
+    private static SuggestionRank rank(final Content content,
+                                       final UserProgressSnapshot userProgress,
+                                       final OffsetDateTime referenceTime) {
+        return SuggestionRank.of(content, userProgress.get(content.getId()), referenceTime);
     }
 
-    private boolean isNewOrDueForReview(final Content content, final UUID userId) {
-        final UserProgressData userProgressData = getUserProgressData(userId, content.getId());
+    private static boolean isNewOrDueForReview(final Content content, final UserProgressSnapshot userProgress) {
+        final UserProgressData userProgressData = userProgress.get(content.getId());
         return !userProgressData.getIsLearned() || userProgressData.getIsDueForReview();
     }
 
@@ -161,7 +119,7 @@ public class SuggestionService {
         return new Suggestion(content, type);
     }
 
-    private List<Stage> getAvailableStagesOfSection(final Section section, final UUID userId) {
+    private static List<Stage> getAvailableStagesOfSection(final Section section, final UserProgressSnapshot userProgress) {
         if (section.getStages().isEmpty()) {
             return List.of();
         }
@@ -170,7 +128,7 @@ public class SuggestionService {
         reachableStages.add(section.getStages().get(0));
 
         for (int i = 0; i < section.getStages().size() - 1; i++) {
-            if (isCompleted(section.getStages().get(i), userId)) {
+            if (isCompleted(section.getStages().get(i), userProgress)) {
                 // current stage is completed, so the next stage is reachable
                 reachableStages.add(section.getStages().get(i + 1));
             }
@@ -179,27 +137,13 @@ public class SuggestionService {
         return reachableStages;
     }
 
-    /**
-     * @return the user progress data for the given user and content. The result is cached.
-     */
-    private UserProgressData getUserProgressData(final UUID userId, final UUID contentId) {
-        final Pair<UUID, UUID> key = Pair.of(userId, contentId);
-        if (userProgressDataCache.containsKey(key)) {
-            return userProgressDataCache.get(key);
-        }
-
-        final UserProgressData userProgressData = userProgressDataService.getUserProgressData(userId, contentId);
-        userProgressDataCache.put(key, userProgressData);
-        return userProgressData;
-    }
-
     /**
      * @return whether the given stage is completed by the given user. Completion means that all required contents
      * are learned.
      */
-    private boolean isCompleted(final Stage stage, final UUID userId) {
+    private static boolean isCompleted(final Stage stage, final UserProgressSnapshot userProgress) {
         return stage.getRequiredContents().stream()
-                .allMatch(contentEntity -> getUserProgressData(userId, contentEntity.getId()).getIsLearned());
+                .allMatch(contentEntity -> userProgress.get(contentEntity.getId()).getIsLearned());
     }
 
     /**
@@ -207,7 +151,7 @@ public class SuggestionService {
      * method always returns true. Otherwise, this method returns true if the content is an assessment and its skill
      * type is contained in the list of skill types.
      */
-    private boolean hasCorrectSkillType(final Content content, final List<SkillType> skillTypes) {
+    private static boolean hasCorrectSkillType(final Content content, final List<SkillType> skillTypes) {
         if (isEmpty(skillTypes)) {
             return true;
         }
@@ -225,4 +169,44 @@ public class SuggestionService {
         return !intersection.isEmpty();
     }
 
+    /**
+     * Keeps the best {@code limit} contents offered to it according to their {@link SuggestionRank}, using a
+     * bounded heap. Contents which are ranked equally keep the order in which they were offered.
+     */
+    static class TopContents {
+
+        private static final Comparator<Candidate> RANKING =
+                comparing(Candidate::rank).thenComparingInt(Candidate::position);
+
+        private final int limit;
+        // the head of the heap is the worst of the kept contents, so it can be replaced by a better one
+        private final PriorityQueue<Candidate> heap = new PriorityQueue<>(RANKING.reversed());
+        private int offered = 0;
+
+        TopContents(final int limit) {
+            this.limit = limit;
+        }
+
+        void offer(final Content content, final SuggestionRank rank) {
+            final Candidate candidate = new Candidate(content, rank, offered++);
+
+            if (heap.size() < limit) {
+                heap.add(candidate);
+            } else if (RANKING.compare(candidate, heap.peek()) < 0) {
+                heap.poll();
+                heap.add(candidate);
+            }
+        }
+
+        List<Content> toSortedList() {
+            return heap.stream()
+                    .sorted(RANKING)
+                    .map(Candidate::content)
+                    .toList();
+        }
+
+        private record Candidate(Content content, SuggestionRank rank, int position) {
+        }
+    }
+
 }
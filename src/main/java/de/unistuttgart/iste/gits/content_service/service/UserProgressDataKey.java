@@ -0,0 +1,13 @@
+package de.unistuttgart.iste.gits.content_service.service;
+
+import java.util.UUID;
+
+/**
+ * Identifies the progress data of one user for one content.
+ * Used as key when the progress data of multiple (user, content) pairs is loaded at once.
+ *
+ * @param userId    ID of the user
+ * @param contentId ID of the content
+ */
+public record UserProgressDataKey(UUID userId, UUID contentId) {
+}
@@ -5,14 +5,25 @@ import de.unistuttgart.iste.gits.common.event.ContentProgressedEvent;
 import de.unistuttgart.iste.gits.common.event.UserProgressUpdatedEvent;
 import de.unistuttgart.iste.gits.content_service.persistence.entity.*;
 import de.unistuttgart.iste.gits.content_service.persistence.mapper.UserProgressDataMapper;
+import de.unistuttgart.iste.gits.content_service.persistence.repository.ProgressLogItemRepository;
+import de.unistuttgart.iste.gits.content_service.persistence.repository.UserChapterProgressRepository;
 import de.unistuttgart.iste.gits.content_service.persistence.repository.UserProgressDataRepository;
+import de.unistuttgart.iste.gits.content_service.persistence.repository.UserProgressDataRepository.ProgressDataKey;
 import de.unistuttgart.iste.gits.generated.dto.*;
+import jakarta.transaction.Transactional;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import java.time.OffsetDateTime;
 import java.util.*;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 import static de.unistuttgart.iste.gits.common.util.GitsCollectionUtils.countAsInt;
 
@@ -22,13 +33,22 @@ import static de.unistuttgart.iste.gits.common.util.GitsCollectionUtils.countAsI
 public class UserProgressDataService {
 
     private final UserProgressDataRepository userProgressDataRepository;
+    private final ProgressLogItemRepository progressLogItemRepository;
+    private final UserChapterProgressRepository userChapterProgressRepository;
     private final ContentService contentService;
     private final UserProgressDataMapper userProgressDataMapper;
     private final TopicPublisher topicPublisher;
 
+    /**
+     * If true, the initial progress data of a content the user has never worked on is persisted as soon as it is
+     * read. Otherwise, it is only created in memory and persisted when the first progress of the user is logged.
+     */
+    @Value("${content-service.progress.persist-initial-on-read:false}")
+    private boolean persistInitialProgressOnRead;
+
     /**
      * Returns the user progress data for the given user and content.
-     * If no progress data exists for the given user and content, it will be created.
+     * If no progress data exists for the given user and content, the initial progress data is returned.
      */
     public UserProgressData getUserProgressData(final UUID userId, final UUID contentId) {
         final UserProgressDataEntity dbProgressData = getUserProgressDataEntity(userId, contentId);
@@ -36,6 +56,64 @@ public class UserProgressDataService {
         return userProgressDataMapper.entityToDto(dbProgressData);
     }
 
+    /**
+     * Returns the user progress data for multiple (user, content) pairs at once.
+     * The progress data of each user is fetched with a single database query.
+     * If no progress data exists for a pair, the initial progress data is returned.
+     *
+     * @param keys the (user, content) pairs to get the progress data for
+     * @return a map from each given key to the corresponding user progress data
+     */
+    public Map<UserProgressDataKey, UserProgressData> getUserProgressData(final Collection<UserProgressDataKey> keys) {
+        final Map<UUID, Set<UUID>> contentIdsByUserId = keys.stream()
+                .collect(Collectors.groupingBy(UserProgressDataKey::userId,
+                        Collectors.mapping(UserProgressDataKey::contentId, Collectors.toSet())));
+
+        final Map<UserProgressDataKey, UserProgressData> result = new HashMap<>(keys.size());
+
+        contentIdsByUserId.forEach((userId, contentIds) ->
+                getUserProgressDataOfContents(userId, contentIds).forEach((contentId, userProgressData) ->
+                        result.put(new UserProgressDataKey(userId, contentId), userProgressData)));
+
+        return result;
+    }
+
+    /**
+     * Returns the user progress data of one user for multiple contents.
+     * All existing progress data is fetched with a single database query, without the progress logs.
+     * If no progress data exists for a content, the initial progress data is returned.
+     *
+     * @param userId     the id of the user
+     * @param contentIds the ids of the contents to get the progress data for
+     * @return a map from each given content id to the progress data of the user for this content
+     */
+    public Map<UUID, UserProgressData> getUserProgressDataOfContents(final UUID userId,
+                                                                     final Collection<UUID> contentIds) {
+        if (contentIds.isEmpty()) {
+            return Map.of();
+        }
+
+        final List<UserProgressDataEntity> existingProgressDataList = userProgressDataRepository
+                .findByUserIdAndContentIdIn(userId, contentIds);
+        ensureProgressSummary(existingProgressDataList);
+
+        final Map<UUID, UserProgressDataEntity> existingProgressData = existingProgressDataList
+                .stream()
+                .collect(Collectors.toMap(UserProgressDataEntity::getContentId, Function.identity()));
+
+        final List<UUID> missingContentIds = contentIds.stream()
+                .filter(contentId -> !existingProgressData.containsKey(contentId))
+                .toList();
+
+        final Map<UUID, UserProgressData> result = new HashMap<>(contentIds.size());
+        existingProgressData.forEach((contentId, entity) ->
+                result.put(contentId, userProgressDataMapper.entityToDto(entity)));
+        createMissingUserProgressData(userId, missingContentIds).forEach(entity ->
+                result.put(entity.getContentId(), userProgressDataMapper.entityToDto(entity)));
+
+        return result;
+    }
+
     /**
      * Retrieves a User Progress Object for a user, content combination from the database
      *
@@ -46,7 +124,71 @@ public class UserProgressDataService {
     private UserProgressDataEntity getUserProgressDataEntity(final UUID userId, final UUID contentId) {
         return userProgressDataRepository
                 .findByUserIdAndContentId(userId, contentId)
-                .orElseGet(() -> createInitialUserProgressData(userId, contentId));
+                .map(entity -> {
+                    ensureProgressSummary(List.of(entity));
+                    return entity;
+                })
+                .orElseGet(() -> createMissingUserProgressData(userId, List.of(contentId)).get(0));
+    }
+
+    /**
+     * Calculates the progress summary of entities that do not have one yet from their progress log.
+     * This is only necessary until the {@link ProgressDataMigration} has run.
+     *
+     * @param entities progress data entities, which are updated in place
+     */
+    private void ensureProgressSummary(final Collection<UserProgressDataEntity> entities) {
+        for (final UserProgressDataEntity entity : entities) {
+            if (!entity.hasProgressSummary()) {
+                entity.initializeProgressSummary(progressLogItemRepository
+                        .findLastSuccessTimestamp(entity.getUserId(), entity.getContentId()));
+            }
+        }
+    }
+
+    /**
+     * Creates the initial progress data for contents the user has not worked on yet.
+     * Unless {@link #persistInitialProgressOnRead} is set, the progress data is only created in memory.
+     * In this case, the contents are fetched with a single query and nothing is written to the database.
+     *
+     * @param userId     ID of user
+     * @param contentIds IDs of the contents without progress data
+     * @return the initial progress data, in the same order as the given content ids
+     */
+    private List<UserProgressDataEntity> createMissingUserProgressData(final UUID userId, final List<UUID> contentIds) {
+        if (contentIds.isEmpty()) {
+            return List.of();
+        }
+        if (persistInitialProgressOnRead) {
+            return contentIds.stream()
+                    .map(contentId -> createInitialUserProgressData(userId, contentId))
+                    .toList();
+        }
+
+        return contentService.getContentsById(contentIds)
+                .stream()
+                .map(content -> buildInitialUserProgressData(userId, content))
+                .toList();
+    }
+
+    /**
+     * Builds a User Progress Entity with no initial Progress tracked without persisting it.
+     *
+     * @param userId  ID of user
+     * @param content the content the progress data belongs to
+     * @return a newly initialized, transient User Progress Entity
+     */
+    private static UserProgressDataEntity buildInitialUserProgressData(final UUID userId, final Content content) {
+        final Integer learningInterval = content instanceof final Assessment assessment
+                ? assessment.getAssessmentMetadata().getInitialLearningInterval()
+                : null;
+
+        return UserProgressDataEntity.builder()
+                .userId(userId)
+                .contentId(content.getId())
+                .learningInterval(learningInterval)
+                .learned(false)
+                .build();
     }
 
     /**
@@ -69,36 +211,377 @@ public class UserProgressDataService {
         final UserProgressDataEntity userProgressDataEntity = UserProgressDataEntity.builder()
                 .userId(userId)
                 .contentId(contentId)
-                .progressLog(new ArrayList<>(0))
                 .learningInterval(learningInterval)
+                .learned(false)
                 .build();
 
         return userProgressDataRepository.save(userProgressDataEntity);
     }
 
     /**
-     * Logs user progress according to the given event.
-     * The learning interval of the user progress data entity will be updated.
-     * A new progress log item will be added to the progress log.
-     * The event will be forwarded to the topic "user-progress-updated".
+     * Logs the user progress of multiple events at once, e.g. a burst of events buffered by the
+     * {@link ContentProgressedEventIngestion}. The events are applied in the given order, so multiple events
+     * for the same user and content are logged one after another.
+     * <p>
+     * For each event, the learning interval of the user progress data is updated, a new progress log item is added
+     * and the progress summary is updated. If the user has no persisted progress data for a content yet, it is
+     * created now. If a content becomes learned, it is counted in the chapter progress of the user.
+     * <p>
+     * The contents are fetched with a single query and the progress data with one query per user.
+     * All changes are written in one transaction and the "user-progress-updated" events are published
+     * after the transaction was committed. Events for contents that do not exist are skipped.
+     *
+     * @param contentProgressedEvents the events to log
+     */
+    @Transactional
+    public void logUserProgress(final List<ContentProgressedEvent> contentProgressedEvents) {
+        final Map<UUID, Content> contentsById = findContentsOfEvents(contentProgressedEvents);
+
+        final Map<UUID, Set<UUID>> contentIdsByUserId = contentProgressedEvents.stream()
+                .filter(event -> contentsById.containsKey(event.getContentId()))
+                .collect(Collectors.groupingBy(ContentProgressedEvent::getUserId,
+                        Collectors.mapping(ContentProgressedEvent::getContentId, Collectors.toSet())));
+
+        final Map<UserProgressDataKey, UserProgressDataEntity> progressDataByKey = new HashMap<>();
+        contentIdsByUserId.forEach((userId, contentIds) ->
+                userProgressDataRepository.findByUserIdAndContentIdIn(userId, contentIds)
+                        .forEach(entity -> progressDataByKey.put(
+                                new UserProgressDataKey(entity.getUserId(), entity.getContentId()), entity)));
+        final Set<UserProgressDataKey> countedAsLearned = progressDataByKey.entrySet().stream()
+                .filter(entry -> isCountedAsLearned(entry.getValue()))
+                .map(Map.Entry::getKey)
+                .collect(Collectors.toSet());
+        ensureProgressSummary(progressDataByKey.values());
+
+        final List<ProgressLogItemEntity> logItems = new ArrayList<>(contentProgressedEvents.size());
+
+        final List<UserProgressUpdatedEvent> userProgressUpdatedEvents = new ArrayList<>(contentProgressedEvents.size());
+        for (final ContentProgressedEvent event : contentProgressedEvents) {
+            final Content content = contentsById.get(event.getContentId());
+            if (content == null) {
+                log.warn("Skipping content-progressed event of user {} for non-existing content {}",
+                        event.getUserId(), event.getContentId());
+                continue;
+            }
+
+            final UserProgressDataEntity userProgressDataEntity = progressDataByKey.computeIfAbsent(
+                    new UserProgressDataKey(event.getUserId(), event.getContentId()),
+                    key -> buildInitialUserProgressData(key.userId(), content));
+            logItems.add(applyProgress(userProgressDataEntity, event));
+
+            userProgressUpdatedEvents.add(createUserProgressUpdatedEvent(event, content));
+        }
+
+        userProgressDataRepository.saveAll(progressDataByKey.values());
+        progressLogItemRepository.saveAll(logItems);
+        countNewlyLearnedContents(progressDataByKey.entrySet().stream()
+                        .filter(entry -> !countedAsLearned.contains(entry.getKey()))
+                        .map(Map.Entry::getValue)
+                        .toList(),
+                contentsById);
+
+        publishAfterCommit(userProgressUpdatedEvents);
+    }
+
+    /**
+     * @return whether the given progress data is counted as learned in the chapter progress of its user,
+     * which is the case if it is persisted as learned
+     */
+    private static boolean isCountedAsLearned(final UserProgressDataEntity userProgressDataEntity) {
+        return Boolean.TRUE.equals(userProgressDataEntity.getLearned());
+    }
+
+    /**
+     * Adds the learned contents among the given progress data to the chapter progress of their users,
+     * with one statement per user and chapter.
      *
-     * @param contentProgressedEvent the event to log
+     * @param userProgressData progress data that was not counted as learned before
+     * @param contentsById     the contents of the progress data. Progress data of missing contents is skipped.
+     */
+    private void countNewlyLearnedContents(final Collection<UserProgressDataEntity> userProgressData,
+                                           final Map<UUID, Content> contentsById) {
+        userProgressData.stream()
+                .filter(UserProgressDataService::isCountedAsLearned)
+                .filter(entity -> contentsById.containsKey(entity.getContentId()))
+                .collect(Collectors.groupingBy(UserProgressDataEntity::getUserId,
+                        Collectors.groupingBy(
+                                entity -> contentsById.get(entity.getContentId()).getMetadata().getChapterId(),
+                                Collectors.counting())))
+                .forEach((userId, learnedByChapterId) -> learnedByChapterId.forEach((chapterId, learned) ->
+                        userChapterProgressRepository.addLearnedContents(userId, chapterId, learned.intValue())));
+    }
+
+    private Map<UUID, Content> findContentsOfEvents(final List<ContentProgressedEvent> contentProgressedEvents) {
+        return findExistingContentsById(contentProgressedEvents.stream()
+                .map(ContentProgressedEvent::getContentId)
+                .distinct()
+                .toList());
+    }
+
+    /**
+     * @return the contents with the given ids, without the ids of contents that do not exist
      */
-    public void logUserProgress(final ContentProgressedEvent contentProgressedEvent) {
-        final UserProgressDataEntity userProgressDataEntity = getUserProgressDataEntity(
-                contentProgressedEvent.getUserId(), contentProgressedEvent.getContentId());
+    private Map<UUID, Content> findExistingContentsById(final List<UUID> contentIds) {
+        if (contentIds.isEmpty()) {
+            return Map.of();
+        }
 
+        final Map<UUID, Content> contentsById = new HashMap<>(contentIds.size());
+        for (final Content content : contentService.findContentsById(contentIds)) {
+            if (content != null) {
+                contentsById.put(content.getId(), content);
+            }
+        }
+        return contentsById;
+    }
+
+    /**
+     * Updates the learning interval and the progress summary of the given entity.
+     *
+     * @return the new progress log item, which still has to be saved
+     */
+    private ProgressLogItemEntity applyProgress(final UserProgressDataEntity userProgressDataEntity,
+                                                final ContentProgressedEvent contentProgressedEvent) {
         userProgressDataEntity.setLearningInterval(
                 calculateNewLearningInterval(contentProgressedEvent, userProgressDataEntity));
 
-        final var logItem = userProgressDataMapper.eventToEmbeddable(contentProgressedEvent);
+        final ProgressLogItemEntity logItem = userProgressDataMapper.eventToEntity(contentProgressedEvent);
         logItem.setTimestamp(OffsetDateTime.now());
-        userProgressDataEntity.getProgressLog().add(logItem);
+        userProgressDataEntity.recordProgress(logItem);
+
+        return logItem;
+    }
+
+    /**
+     * Publishes the given events once the current transaction is committed, or immediately if there is none.
+     * Nothing is published if the transaction is rolled back.
+     */
+    private void publishAfterCommit(final List<UserProgressUpdatedEvent> userProgressUpdatedEvents) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            userProgressUpdatedEvents.forEach(topicPublisher::notifyUserProgressUpdated);
+            return;
+        }
+
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                userProgressUpdatedEvents.forEach(topicPublisher::notifyUserProgressUpdated);
+            }
+        });
+    }
+
+    /**
+     * Returns the requested slices of the progress logs of multiple (user, content) pairs, newest entries first.
+     * Only the requested entries are read from the database, with one query per user and requested slice,
+     * which is usually a single query for all contents of a response.
+     *
+     * @param keys the requested slices of the progress logs
+     * @return a map from each given key to the requested progress log entries
+     */
+    public Map<ProgressLogKey, List<ProgressLogItem>> getProgressLogs(final Collection<ProgressLogKey> keys) {
+        final Map<ProgressLogKey, List<ProgressLogItem>> result = new HashMap<>(keys.size());
+
+        // keys only differ in the content id, unless the log of a single content is paged
+        keys.stream()
+                .collect(Collectors.groupingBy(key -> new ProgressLogKey(key.userId(), null, key.first(), key.after())))
+                .forEach((slice, keysOfSlice) -> {
+                    final Map<UUID, List<ProgressLogItem>> logByContentId = getProgressLogsOfContents(slice,
+                            keysOfSlice.stream().map(ProgressLogKey::contentId).collect(Collectors.toSet()));
+                    keysOfSlice.forEach(key ->
+                            result.put(key, logByContentId.getOrDefault(key.contentId(), List.of())));
+                });
+
+        return result;
+    }
+
+    private Map<UUID, List<ProgressLogItem>> getProgressLogsOfContents(final ProgressLogKey slice,
+                                                                       final Set<UUID> contentIds) {
+        if (slice.first() != null && slice.first() == 0) {
+            return Map.of();
+        }
 
-        userProgressDataRepository.save(userProgressDataEntity);
+        final int limit = slice.first() == null ? Integer.MAX_VALUE : slice.first();
+        final List<ProgressLogItemEntity> logItems = slice.after() == null
+                ? progressLogItemRepository.findLatestOfContents(slice.userId(), contentIds, limit)
+                : progressLogItemRepository.findLatestOfContentsBefore(slice.userId(), contentIds,
+                slice.after().timestamp(), slice.after().id(), limit);
 
-        final Content content = contentService.getContentsById(List.of(contentProgressedEvent.getContentId())).get(0);
-        topicPublisher.notifyUserProgressUpdated(createUserProgressUpdatedEvent(contentProgressedEvent, content));
+        // the entries are ordered by content and then newest first, which the grouping keeps
+        return logItems.stream()
+                .collect(Collectors.groupingBy(ProgressLogItemEntity::getContentId,
+                        Collectors.collectingAndThen(Collectors.toList(), this::logItemsToDto)));
+    }
+
+    private List<ProgressLogItem> logItemsToDto(final List<ProgressLogItemEntity> logItems) {
+        final List<ProgressLogItem> result = userProgressDataMapper.logItemsToDto(logItems);
+        for (int i = 0; i < logItems.size(); i++) {
+            final ProgressLogItemEntity logItem = logItems.get(i);
+            result.get(i).setCursor(new KeysetCursor(logItem.getTimestamp(), logItem.getId()).encode());
+        }
+        return result;
+    }
+
+    /**
+     * Returns a page of the contents of the given courses that are due for review by a user,
+     * ordered by next learn date, most overdue first.
+     * Only the due progress data is read from the database, using the persisted next learn date.
+     *
+     * @param userId    ID of user
+     * @param courseIds IDs of the courses of the contents
+     * @param first     the maximum number of contents to return
+     * @param after     if not null, the end cursor of the previous page
+     * @return the requested page of due contents
+     */
+    public DueReviewsPayload getDueReviews(final UUID userId,
+                                           final List<UUID> courseIds,
+                                           final int first,
+                                           final String after) {
+        if (first < 0) {
+            throw new IllegalArgumentException("first must not be negative");
+        }
+        if (first == 0 || courseIds.isEmpty()) {
+            return DueReviewsPayload.builder()
+                    .setElements(List.of())
+                    .setPageInfo(CursorPaginationInfo.builder()
+                            .setSize(first)
+                            .setHasNext(false)
+                            .build())
+                    .build();
+        }
+
+        // fetch one more entity than requested to know whether there is a next page
+        final Pageable pageable = PageRequest.of(0, first + 1);
+        final OffsetDateTime now = OffsetDateTime.now();
+        final List<UserProgressDataEntity> dueProgressData;
+        if (after == null) {
+            dueProgressData = userProgressDataRepository.findDueForReview(userId, courseIds, now, pageable);
+        } else {
+            final KeysetCursor cursor = KeysetCursor.decode(after);
+            dueProgressData = userProgressDataRepository.findDueForReviewAfter(userId, courseIds, now,
+                    cursor.timestamp(), cursor.id(), pageable);
+        }
+
+        final boolean hasNextPage = dueProgressData.size() > first;
+        final List<UserProgressDataEntity> page = hasNextPage ? dueProgressData.subList(0, first) : dueProgressData;
+        final String endCursor = page.isEmpty()
+                ? null
+                : toCursor(page.get(page.size() - 1)).encode();
+
+        return DueReviewsPayload.builder()
+                .setElements(contentService.getContentsById(
+                        page.stream().map(UserProgressDataEntity::getContentId).toList()))
+                .setPageInfo(CursorPaginationInfo.builder()
+                        .setSize(first)
+                        .setHasNext(hasNextPage)
+                        .setEndCursor(endCursor)
+                        .build())
+                .build();
+    }
+
+    private static KeysetCursor toCursor(final UserProgressDataEntity userProgressData) {
+        return new KeysetCursor(userProgressData.getNextLearnDate(), userProgressData.getContentId());
+    }
+
+    /**
+     * Calculates the progress summary columns of up to {@code batchSize} progress data entities that do not have
+     * them yet, e.g. because they were created before the columns were introduced.
+     *
+     * @param batchSize the maximum number of entities to update
+     * @return the number of updated entities. If smaller than the batch size, all entities have a summary.
+     */
+    @Transactional
+    public int backfillProgressSummaries(final int batchSize) {
+        final List<UserProgressDataEntity> entities = userProgressDataRepository
+                .findWithoutProgressSummary(PageRequest.of(0, batchSize));
+
+        ensureProgressSummary(entities);
+        userProgressDataRepository.saveAll(entities);
+        countNewlyLearnedContents(entities, findContentsOfProgressData(entities));
+
+        return entities.size();
+    }
+
+    private Map<UUID, Content> findContentsOfProgressData(final List<UserProgressDataEntity> entities) {
+        return findExistingContentsById(entities.stream()
+                .map(UserProgressDataEntity::getContentId)
+                .distinct()
+                .toList());
+    }
+
+    /**
+     * Calculates the chapter progress of all users from their progress data, if no chapter progress exists yet,
+     * e.g. because the progress data was created before the chapter progress was introduced.
+     *
+     * @return the number of created chapter progress entities
+     */
+    @Transactional
+    public int initializeChapterProgress() {
+        if (userChapterProgressRepository.count() > 0) {
+            return 0;
+        }
+        return userChapterProgressRepository.insertCalculatedForAllChapters();
+    }
+
+    /**
+     * Recalculates the chapter progress of all users for the chapters of a course from their progress data.
+     * The chapter progress is maintained incrementally, so this is only necessary to repair it,
+     * e.g. after progress data was changed directly in the database.
+     *
+     * @param courseId the id of the course
+     * @return the number of recalculated chapter progress entities
+     */
+    @Transactional
+    public int rebuildChapterProgress(final UUID courseId) {
+        final int recalculated = userChapterProgressRepository.upsertCalculatedByCourseId(courseId);
+        userChapterProgressRepository.deleteWithoutLearnedContentsByCourseId(courseId);
+        return recalculated;
+    }
+
+    /**
+     * Deletes the progress log entries of the next {@code batchSize} (user, content) pairs that are no longer
+     * needed. Only the entries of these pairs are read, so each batch does a bounded amount of work.
+     * The progress summary and the learning interval are stored on the progress data itself,
+     * so deleting old entries does not change the progress of the user.
+     *
+     * @param olderThan  entries older than this timestamp are deleted
+     * @param keepLatest entries beyond the latest {@code keepLatest} entries per user and content are deleted
+     * @param after      the last pair of the previous batch, or null to start with the first pair
+     * @param batchSize  the maximum number of (user, content) pairs to compact
+     * @return the number of deleted entries and the last compacted pair, which is null if no pairs are left
+     */
+    @Transactional
+    public CompactedBatch compactProgressLog(final OffsetDateTime olderThan,
+                                             final int keepLatest,
+                                             final UserProgressDataKey after,
+                                             final int batchSize) {
+        final Pageable pageable = PageRequest.of(0, batchSize);
+        final List<ProgressDataKey> keys = after == null
+                ? userProgressDataRepository.findKeysWithProgressSummary(pageable)
+                : userProgressDataRepository.findKeysWithProgressSummaryAfter(after.userId(), after.contentId(),
+                pageable);
+        if (keys.isEmpty()) {
+            return new CompactedBatch(0, null);
+        }
+
+        final ProgressDataKey first = keys.get(0);
+        final ProgressDataKey last = keys.get(keys.size() - 1);
+        final List<UUID> ids = progressLogItemRepository.findCompactableIds(olderThan, keepLatest,
+                first.getUserId(), first.getContentId(), last.getUserId(), last.getContentId());
+        progressLogItemRepository.deleteAllByIdInBatch(ids);
+
+        final UserProgressDataKey lastKey = keys.size() < batchSize
+                ? null
+                : new UserProgressDataKey(last.getUserId(), last.getContentId());
+        return new CompactedBatch(ids.size(), lastKey);
+    }
+
+    /**
+     * Result of compacting the progress log of a range of (user, content) pairs.
+     *
+     * @param compactedItems the number of deleted entries
+     * @param lastKey        the last pair of the range, to continue with the next range, or null if no pairs are left
+     */
+    public record CompactedBatch(int compactedItems, UserProgressDataKey lastKey) {
     }
 
     private UserProgressUpdatedEvent createUserProgressUpdatedEvent(final ContentProgressedEvent event,
@@ -159,76 +642,103 @@ public class UserProgressDataService {
      * @return progress percentage
      */
     public double getStageProgressForUser(final Stage stage, final UUID userId, final boolean requiredContent) {
+        return getStagesProgressForUser(List.of(stage), userId, requiredContent).get(0);
+    }
 
-        final List<Content> contentList;
-
-        if (requiredContent) {
-            contentList = stage.getRequiredContents();
-        } else {
-            contentList = stage.getOptionalContents();
-        }
-
-        if (contentList.isEmpty()) {
-            return 100.00;
-        }
-
-        final int numbOfCompletedContent = countNumCompletedContent(userId, contentList);
+    /**
+     * Like {@link #getStageProgressForUser(Stage, UUID, boolean)}, but for multiple stages at once.
+     * The progress data of the user for the contents of all stages is fetched with a single query.
+     *
+     * @param stages          Stage DTOs
+     * @param userId          the User progress is being tracked
+     * @param requiredContent true - consider required content, false - consider optional content
+     * @return progress percentage of each stage, in the same order as the given stages
+     */
+    public List<Double> getStagesProgressForUser(final List<Stage> stages,
+                                                 final UUID userId,
+                                                 final boolean requiredContent) {
+        final Map<UUID, UserProgressData> progressByContentId = getUserProgressDataOfContents(userId,
+                stages.stream()
+                        .flatMap(stage -> getContentsOfStage(stage, requiredContent).stream())
+                        .map(Content::getId)
+                        .collect(Collectors.toSet()));
+
+        return stages.stream()
+                .map(stage -> {
+                    final List<Content> contentList = getContentsOfStage(stage, requiredContent);
+                    if (contentList.isEmpty()) {
+                        return 100.00;
+                    }
+                    final int numbOfCompletedContent = countNumCompletedContent(contentList, progressByContentId);
+                    return (double) numbOfCompletedContent / contentList.size() * 100;
+                })
+                .toList();
+    }
 
-        return (double) numbOfCompletedContent / contentList.size() * 100;
+    private static List<Content> getContentsOfStage(final Stage stage, final boolean requiredContent) {
+        return requiredContent ? stage.getRequiredContents() : stage.getOptionalContents();
     }
 
     /**
      * Method that calculated the progress of content for an individual user for each Chapter.
      * The returned list of CompositeProgressInformation is sorted in the same order as the chapterIds list.
+     * The completed contents are read from the maintained chapter progress of the user and the total contents
+     * are counted with a single query, so neither the contents nor their progress data are loaded.
      *
      * @param chapterIds list of chapters for which the progress has to be evaluated
      * @param userId     the ID of the user for whom progress is evaluated
      * @return Progress for each chapter, containing a percentage of progress, absolut number of content and completed content
      */
     public List<CompositeProgressInformation> getProgressByChapterIdsForUser(final List<UUID> chapterIds, final UUID userId) {
-        final List<List<Content>> contentsByChapterIds = contentService.getContentsByChapterIds(chapterIds);
+        final Map<UUID, Integer> totalContentsByChapterId = contentService.countContentsByChapterIds(chapterIds);
 
-        final List<CompositeProgressInformation> chapterProgressItems = new ArrayList<>();
-
-        for (final List<Content> contentList : contentsByChapterIds) {
-            final int numCompletedContent = countNumCompletedContent(userId, contentList);
-
-            final CompositeProgressInformation compositeProgressInformation =
-                    createProgressInformation(contentList, numCompletedContent);
-
-            chapterProgressItems.add(compositeProgressInformation);
+        final Map<UUID, Integer> learnedContentsByChapterId = new HashMap<>(chapterIds.size());
+        if (!chapterIds.isEmpty()) {
+            userChapterProgressRepository.findByUserIdAndChapterIdIn(userId, chapterIds)
+                    .forEach(progress -> learnedContentsByChapterId.put(progress.getChapterId(),
+                            progress.getLearnedContents()));
         }
 
-        return chapterProgressItems;
+        return chapterIds.stream()
+                .map(chapterId -> {
+                    final int totalContents = totalContentsByChapterId.getOrDefault(chapterId, 0);
+                    // guard against a chapter progress that drifted, until it is rebuilt
+                    final int learnedContents = Math.max(0,
+                            Math.min(learnedContentsByChapterId.getOrDefault(chapterId, 0), totalContents));
+                    return createProgressInformation(totalContents, learnedContents);
+                })
+                .toList();
     }
 
-    private static CompositeProgressInformation createProgressInformation(final List<Content> contentList, final int numCompletedContent) {
+    private static CompositeProgressInformation createProgressInformation(final int totalContents,
+                                                                          final int numCompletedContent) {
         double progress = 100.0;
 
-        if (!contentList.isEmpty()) {
-            progress = (double) numCompletedContent / contentList.size() * 100;
+        if (totalContents > 0) {
+            progress = (double) numCompletedContent / totalContents * 100;
         }
 
         return CompositeProgressInformation.builder()
                 .setProgress(progress)
                 .setCompletedContents(numCompletedContent)
-                .setTotalContents(contentList.size())
+                .setTotalContents(totalContents)
                 .build();
     }
 
     /**
-     * function counting how many Content objects have been successfully progressed/completed
+     * function counting how many Content objects have been successfully progressed/completed,
+     * using already fetched progress data
      *
-     * @param userId      ID of the user progress is to be checked
-     * @param contentList all content objects for which the progress has to be evaluated
+     * @param contentList         all content objects for which the progress has to be evaluated
+     * @param progressByContentId the progress data of the user, containing an entry for each of the contents
      * @return number of successfully completed contents
      */
-    private int countNumCompletedContent(final UUID userId, final List<Content> contentList) {
-
+    private static int countNumCompletedContent(final List<Content> contentList,
+                                                final Map<UUID, UserProgressData> progressByContentId) {
         final List<UserProgressData> userProgressDataOfContents = contentList
                 .stream()
                 .map(Content::getId)
-                .map(contentId -> getUserProgressData(userId, contentId))
+                .map(progressByContentId::get)
                 .toList();
 
         return countAsInt(userProgressDataOfContents, UserProgressData::getIsLearned);
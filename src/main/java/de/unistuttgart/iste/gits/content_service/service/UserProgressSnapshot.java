@@ -0,0 +1,51 @@
+package de.unistuttgart.iste.gits.content_service.service;
+
+import de.unistuttgart.iste.gits.generated.dto.UserProgressData;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+import java.util.*;
+
+/**
+ * Snapshot of the progress data of one user, used for the duration of a single request.
+ * <p>
+ * Progress data is loaded in bulk via {@link #preload(Collection)} and afterwards served from memory.
+ * Progress data of contents that were not preloaded is loaded lazily when it is accessed.
+ * <p>
+ * Instances are not thread-safe and must not be shared between requests.
+ */
+@RequiredArgsConstructor
+public class UserProgressSnapshot {
+
+    @Getter
+    private final UUID userId;
+    private final UserProgressDataService userProgressDataService;
+
+    private final Map<UUID, UserProgressData> progressByContentId = new HashMap<>();
+
+    /**
+     * Loads the progress data of all given contents which are not part of the snapshot yet with a single query.
+     *
+     * @param contentIds the ids of the contents to load the progress data for
+     */
+    public void preload(final Collection<UUID> contentIds) {
+        final Set<UUID> missingContentIds = new HashSet<>(contentIds);
+        missingContentIds.removeAll(progressByContentId.keySet());
+
+        if (missingContentIds.isEmpty()) {
+            return;
+        }
+
+        progressByContentId.putAll(userProgressDataService.getUserProgressDataOfContents(userId, missingContentIds));
+    }
+
+    /**
+     * @return the progress data of the user for the given content
+     */
+    public UserProgressData get(final UUID contentId) {
+        if (!progressByContentId.containsKey(contentId)) {
+            preload(List.of(contentId));
+        }
+        return progressByContentId.get(contentId);
+    }
+}
@@ -66,18 +66,33 @@ public class TestData {
      * @return database representation of a Progress data Item
      */
     public static UserProgressDataEntity buildDummyUserProgressData(final boolean success, final UUID userId, final UUID contentId) {
-        final ProgressLogItemEmbeddable logItem = ProgressLogItemEmbeddable.builder()
-                .correctness(70.00)
-                .timestamp(OffsetDateTime.now())
-                .hintsUsed(0)
-                .success(success)
-                .timeToComplete(null)
-                .build();
         return UserProgressDataEntity.builder()
                 .userId(userId)
                 .contentId(contentId)
-                .progressLog(List.of(logItem))
                 .learningInterval(null)
+                .learned(success)
+                .lastSuccessTimestamp(success ? OffsetDateTime.now() : null)
+                .build();
+    }
+
+    /**
+     * helper method to generate an entry of the progress log
+     *
+     * @param userId    ID of the User the entry belongs to
+     * @param contentId ID of the Content the entry belongs to
+     * @param success   if evaluation of progress is a success
+     * @param timestamp time of the entry
+     * @return database representation of a Progress log entry
+     */
+    public static ProgressLogItemEntity buildProgressLogItem(final UUID userId, final UUID contentId,
+                                                             final boolean success, final OffsetDateTime timestamp) {
+        return ProgressLogItemEntity.builder()
+                .userId(userId)
+                .contentId(contentId)
+                .success(success)
+                .correctness(1.0)
+                .hintsUsed(0)
+                .timestamp(timestamp)
                 .build();
     }
 
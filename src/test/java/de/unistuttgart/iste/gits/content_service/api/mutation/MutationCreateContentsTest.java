@@ -0,0 +1,210 @@
+package de.unistuttgart.iste.gits.content_service.api.mutation;
+
+import de.unistuttgart.iste.gits.common.testutil.*;
+import de.unistuttgart.iste.gits.common.user_handling.LoggedInUser;
+import de.unistuttgart.iste.gits.common.user_handling.LoggedInUser.UserRoleInCourse;
+import de.unistuttgart.iste.gits.content_service.persistence.entity.AssessmentEntity;
+import de.unistuttgart.iste.gits.content_service.persistence.entity.ContentEntity;
+import de.unistuttgart.iste.gits.content_service.persistence.repository.ContentRepository;
+import de.unistuttgart.iste.gits.generated.dto.*;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.graphql.test.tester.GraphQlTester;
+
+import java.util.List;
+import java.util.UUID;
+
+import static de.unistuttgart.iste.gits.common.testutil.TestUsers.userWithMembershipInCourseWithId;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+@GraphQlApiTest
+@TablesToDelete({"content_tags", "content"})
+class MutationCreateContentsTest {
+
+    @Autowired
+    private ContentRepository contentRepository;
+
+    private final UUID courseId = UUID.randomUUID();
+
+    @InjectCurrentUserHeader
+    private final LoggedInUser loggedInUser = userWithMembershipInCourseWithId(courseId, UserRoleInCourse.ADMINISTRATOR);
+
+    /**
+     * Given valid CreateMediaContentInputs
+     * When the createMediaContents mutation is called
+     * Then all media contents are created and returned in the order of the inputs
+     */
+    @Test
+    void testCreateMediaContents(final GraphQlTester graphQlTester) {
+        final UUID chapterId = UUID.randomUUID();
+        final String query = """
+                mutation($chapterId: UUID!, $courseId: UUID!) {
+                    createMediaContents: _internal_createMediaContents(courseId: $courseId, inputs: [
+                        {
+                            metadata: {
+                                chapterId: $chapterId
+                                name: "first"
+                                suggestedDate: "2021-01-01T00:00:00.000Z"
+                                tagNames: ["tag1", "tag2"]
+                                type: MEDIA
+                                rewardPoints: 1
+                            }
+                        },
+                        {
+                            metadata: {
+                                chapterId: $chapterId
+                                name: "second"
+                                suggestedDate: "2021-01-02T00:00:00.000Z"
+                                tagNames: []
+                                type: MEDIA
+                                rewardPoints: 2
+                            }
+                        }
+                    ]) {
+                        id
+                        metadata {
+                            name
+                            tagNames
+                            courseId
+                            chapterId
+                        }
+                    }
+                }
+                """;
+
+        final List<MediaContent> createdMediaContents = graphQlTester.document(query)
+                .variable("chapterId", chapterId)
+                .variable("courseId", courseId)
+                .execute()
+                .path("createMediaContents").entityList(MediaContent.class).get();
+
+        assertThat(createdMediaContents, hasSize(2));
+        assertThat(createdMediaContents.get(0).getMetadata().getName(), is("first"));
+        assertThat(createdMediaContents.get(0).getMetadata().getTagNames(), containsInAnyOrder("tag1", "tag2"));
+        assertThat(createdMediaContents.get(1).getMetadata().getName(), is("second"));
+        for (final MediaContent mediaContent : createdMediaContents) {
+            assertThat(mediaContent.getId(), is(notNullValue()));
+            assertThat(mediaContent.getMetadata().getCourseId(), is(courseId));
+            assertThat(mediaContent.getMetadata().getChapterId(), is(chapterId));
+        }
+
+        final List<ContentEntity> contentEntities = contentRepository.findAllById(
+                createdMediaContents.stream().map(MediaContent::getId).toList());
+        assertThat(contentEntities, hasSize(2));
+    }
+
+    /**
+     * Given valid CreateAssessmentInputs
+     * When the createAssessments mutation is called
+     * Then all assessments are created and returned in the order of the inputs
+     */
+    @Test
+    void testCreateAssessments(final GraphQlTester graphQlTester) {
+        final UUID chapterId = UUID.randomUUID();
+        final String query = """
+                mutation($chapterId: UUID!, $courseId: UUID!) {
+                    createAssessments: _internal_createAssessments(courseId: $courseId, inputs: [
+                        {
+                            metadata: {
+                                chapterId: $chapterId
+                                name: "flashcards"
+                                suggestedDate: "2021-01-01T00:00:00.000Z"
+                                rewardPoints: 1
+                                tagNames: []
+                                type: FLASHCARDS
+                            }
+                            assessmentMetadata: {
+                                skillPoints: 1
+                                skillTypes: [REMEMBER]
+                                initialLearningInterval: 2
+                            }
+                        },
+                        {
+                            metadata: {
+                                chapterId: $chapterId
+                                name: "quiz"
+                                suggestedDate: "2021-01-01T00:00:00.000Z"
+                                rewardPoints: 2
+                                tagNames: []
+                                type: QUIZ
+                            }
+                            assessmentMetadata: {
+                                skillPoints: 2
+                                skillTypes: [UNDERSTAND]
+                            }
+                        }
+                    ]) {
+                        id
+                        metadata {
+                            name
+                            type
+                        }
+                    }
+                }
+                """;
+
+        final List<Assessment> createdAssessments = graphQlTester.document(query)
+                .variable("chapterId", chapterId)
+                .variable("courseId", courseId)
+                .execute()
+                .path("createAssessments").entityList(Assessment.class).get();
+
+        assertThat(createdAssessments, hasSize(2));
+        assertThat(createdAssessments.get(0).getMetadata().getName(), is("flashcards"));
+        assertThat(createdAssessments.get(0).getMetadata().getType(), is(ContentType.FLASHCARDS));
+        assertThat(createdAssessments.get(1).getMetadata().getName(), is("quiz"));
+        assertThat(createdAssessments.get(1).getMetadata().getType(), is(ContentType.QUIZ));
+
+        final List<ContentEntity> contentEntities = contentRepository.findAll();
+        assertThat(contentEntities, hasSize(2));
+        assertThat(contentEntities, everyItem(is(instanceOf(AssessmentEntity.class))));
+    }
+
+    /**
+     * Given CreateMediaContentInputs of which one has a content type other than MEDIA
+     * When the createMediaContents mutation is called
+     * Then a ValidationException is thrown and none of the media contents is created
+     */
+    @Test
+    void testCreateMediaContentsWithInvalidInput(final GraphQlTester graphQlTester) {
+        final String query = """
+                mutation($courseId: UUID!) {
+                    createMediaContents: _internal_createMediaContents(courseId: $courseId, inputs: [
+                        {
+                            metadata: {
+                                type: MEDIA,
+                                name: "valid"
+                                suggestedDate: "2021-01-01T00:00:00.000Z"
+                                chapterId: "00000000-0000-0000-0000-000000000000"
+                                rewardPoints: 1
+                                tagNames: []
+                            }
+                        },
+                        {
+                            metadata: {
+                                type: FLASHCARDS,
+                                name: "invalid"
+                                suggestedDate: "2021-01-01T00:00:00.000Z"
+                                chapterId: "00000000-0000-0000-0000-000000000000"
+                                rewardPoints: 1
+                                tagNames: []
+                            }
+                        }
+                    ]) { id }
+                }
+                """;
+
+        graphQlTester.document(query)
+                .variable("courseId", courseId)
+                .execute()
+                .errors()
+                .satisfy(errors -> {
+                    assertThat(errors, hasSize(1));
+                    assertThat(errors.get(0).getMessage(), containsString("Media content must have type MEDIA"));
+                    assertThat(errors.get(0).getExtensions().get("classification"), is("ValidationError"));
+                });
+
+        assertThat(contentRepository.findAll(), hasSize(0));
+    }
+}
@@ -4,8 +4,10 @@ import de.unistuttgart.iste.gits.common.testutil.*;
 import de.unistuttgart.iste.gits.common.user_handling.LoggedInUser;
 import de.unistuttgart.iste.gits.content_service.TestData;
 import de.unistuttgart.iste.gits.content_service.persistence.entity.*;
-import de.unistuttgart.iste.gits.content_service.persistence.repository.ContentRepository;
-import de.unistuttgart.iste.gits.content_service.persistence.repository.UserProgressDataRepository;
+import de.unistuttgart.iste.gits.content_service.persistence.repository.*;
+import de.unistuttgart.iste.gits.content_service.service.KeysetCursor;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.graphql.test.tester.HttpGraphQlTester;
@@ -13,13 +15,15 @@ import org.springframework.graphql.test.tester.HttpGraphQlTester;
 import java.time.*;
 import java.util.List;
 import java.util.UUID;
+import java.util.stream.Stream;
 
 import static de.unistuttgart.iste.gits.common.testutil.TestUsers.userWithMembershipInCourseWithId;
 import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.containsInAnyOrder;
 import static org.hamcrest.Matchers.is;
 
 @GraphQlApiTest
-@TablesToDelete({"content_tags", "user_progress_data_progress_log", "user_progress_data", "content"})
+@TablesToDelete({"content_tags", "progress_log_item", "user_progress_data", "content"})
 class QueryContentsWithUserDataTest {
 
     @Autowired
@@ -28,6 +32,12 @@ class QueryContentsWithUserDataTest {
     @Autowired
     private UserProgressDataRepository userProgressDataRepository;
 
+    @Autowired
+    private ProgressLogItemRepository progressLogItemRepository;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
     private final UUID courseId = UUID.randomUUID();
 
     @InjectCurrentUserHeader
@@ -52,33 +62,19 @@ class QueryContentsWithUserDataTest {
                 .userId(userId)
                 .contentId(contentEntity.getId())
                 .learningInterval(1)
-                .progressLog(List.of(
-                        ProgressLogItemEmbeddable.builder()
-                                .success(true)
-                                .correctness(1.0)
-                                .hintsUsed(0)
-                                .timestamp(LocalDate.of(2021, 1, 1)
-                                        .atStartOfDay()
-                                        .atOffset(ZoneOffset.ofHours(1)))
-                                .build(),
-                        ProgressLogItemEmbeddable.builder()
-                                .success(false)
-                                .correctness(1.0)
-                                .hintsUsed(0)
-                                .timestamp(LocalDate.of(2021, 1, 2)
-                                        .atStartOfDay()
-                                        .atOffset(ZoneOffset.ofHours(1)))
-                                .build()
-                ))
                 .build();
         userProgressDataRepository.save(userProgressDataEntity1);
+        progressLogItemRepository.saveAll(List.of(
+                TestData.buildProgressLogItem(userId, contentEntity.getId(), true,
+                        LocalDate.of(2021, 1, 1).atStartOfDay().atOffset(ZoneOffset.ofHours(1))),
+                TestData.buildProgressLogItem(userId, contentEntity.getId(), false,
+                        LocalDate.of(2021, 1, 2).atStartOfDay().atOffset(ZoneOffset.ofHours(1)))));
 
         // create another to check if the query is filtered by user id
         final UserProgressDataEntity userProgressDataEntity2 = UserProgressDataEntity.builder()
                 .userId(userId2)
                 .contentId(contentEntity.getId())
                 .learningInterval(2)
-                .progressLog(List.of())
                 .build();
         userProgressDataRepository.save(userProgressDataEntity2);
 
@@ -156,33 +152,19 @@ class QueryContentsWithUserDataTest {
                 .userId(userId)
                 .contentId(contentEntity.getId())
                 .learningInterval(1)
-                .progressLog(List.of(
-                        ProgressLogItemEmbeddable.builder()
-                                .success(true)
-                                .correctness(1.0)
-                                .hintsUsed(0)
-                                .timestamp(LocalDate.of(2021, 1, 1)
-                                        .atStartOfDay()
-                                        .atOffset(ZoneOffset.ofHours(1)))
-                                .build(),
-                        ProgressLogItemEmbeddable.builder()
-                                .success(false)
-                                .correctness(1.0)
-                                .hintsUsed(0)
-                                .timestamp(LocalDate.of(2021, 1, 2)
-                                        .atStartOfDay()
-                                        .atOffset(ZoneOffset.ofHours(1)))
-                                .build()
-                ))
                 .build();
         userProgressDataRepository.save(userProgressDataEntity1);
+        progressLogItemRepository.saveAll(List.of(
+                TestData.buildProgressLogItem(userId, contentEntity.getId(), true,
+                        LocalDate.of(2021, 1, 1).atStartOfDay().atOffset(ZoneOffset.ofHours(1))),
+                TestData.buildProgressLogItem(userId, contentEntity.getId(), false,
+                        LocalDate.of(2021, 1, 2).atStartOfDay().atOffset(ZoneOffset.ofHours(1)))));
 
         // create another to check if the query is filtered by user id
         final UserProgressDataEntity userProgressDataEntity2 = UserProgressDataEntity.builder()
                 .userId(userId2)
                 .contentId(contentEntity.getId())
                 .learningInterval(2)
-                .progressLog(List.of())
                 .build();
         userProgressDataRepository.save(userProgressDataEntity2);
 
@@ -234,4 +216,157 @@ class QueryContentsWithUserDataTest {
                 .path("contentsByIds[0].progressDataForUser.log.length()").entity(Integer.class).isEqualTo(2);
 
     }
+
+    @Test
+    void testQueryProgressLogPaged(final HttpGraphQlTester graphQlTester) {
+        MediaContentEntity contentEntity = TestData.dummyMediaContentEntityBuilder(courseId).build();
+        contentEntity = contentRepository.save(contentEntity);
+
+        final OffsetDateTime firstTimestamp = OffsetDateTime.of(2021, 1, 1, 0, 0, 0, 0, ZoneOffset.UTC);
+        final UserProgressDataEntity userProgressDataEntity = UserProgressDataEntity.builder()
+                .userId(userId)
+                .contentId(contentEntity.getId())
+                .learningInterval(1)
+                .build();
+        userProgressDataRepository.save(userProgressDataEntity);
+        progressLogItemRepository.saveAll(List.of(
+                TestData.buildProgressLogItem(userId, contentEntity.getId(), true, firstTimestamp),
+                TestData.buildProgressLogItem(userId, contentEntity.getId(), true, firstTimestamp.plusDays(1)),
+                TestData.buildProgressLogItem(userId, contentEntity.getId(), true, firstTimestamp.plusDays(2))));
+
+        final String query = """
+                query($contentId: UUID!, $after: String) {
+                    contentsByIds(ids: [$contentId]) {
+                        userProgressData {
+                            log(first: 2, after: $after) {
+                                timestamp
+                                cursor
+                            }
+                        }
+                    }
+                }
+                """;
+
+        // first page contains the two newest entries
+        final String endCursor = graphQlTester.document(query)
+                .variable("contentId", contentEntity.getId())
+                .execute()
+                .path("contentsByIds[0].userProgressData.log.length()").entity(Integer.class).isEqualTo(2)
+                .path("contentsByIds[0].userProgressData.log[0].timestamp").entity(OffsetDateTime.class)
+                .matches(timestamp -> timestamp.isEqual(firstTimestamp.plusDays(2)))
+                .path("contentsByIds[0].userProgressData.log[1].timestamp").entity(OffsetDateTime.class)
+                .matches(timestamp -> timestamp.isEqual(firstTimestamp.plusDays(1)))
+                .path("contentsByIds[0].userProgressData.log[1].cursor").entity(String.class).get();
+
+        // second page starts after the last entry of the first page
+        graphQlTester.document(query)
+                .variable("contentId", contentEntity.getId())
+                .variable("after", endCursor)
+                .execute()
+                .path("contentsByIds[0].userProgressData.log.length()").entity(Integer.class).isEqualTo(1)
+                .path("contentsByIds[0].userProgressData.log[0].timestamp").entity(OffsetDateTime.class)
+                .matches(timestamp -> timestamp.isEqual(firstTimestamp));
+    }
+
+    /**
+     * Given progress log entries with the same timestamp
+     * When the log is paged across them
+     * Then every entry is returned exactly once
+     */
+    @Test
+    void testQueryProgressLogPagedAcrossEqualTimestamps(final HttpGraphQlTester graphQlTester) {
+        final MediaContentEntity contentEntity = contentRepository.save(
+                TestData.dummyMediaContentEntityBuilder(courseId).build());
+        userProgressDataRepository.save(UserProgressDataEntity.builder()
+                .userId(userId)
+                .contentId(contentEntity.getId())
+                .learningInterval(1)
+                .build());
+        final OffsetDateTime timestamp = OffsetDateTime.of(2021, 1, 1, 0, 0, 0, 0, ZoneOffset.UTC);
+        final List<UUID> logItemIds = progressLogItemRepository.saveAll(List.of(
+                        TestData.buildProgressLogItem(userId, contentEntity.getId(), true, timestamp),
+                        TestData.buildProgressLogItem(userId, contentEntity.getId(), false, timestamp),
+                        TestData.buildProgressLogItem(userId, contentEntity.getId(), true, timestamp)))
+                .stream()
+                .map(ProgressLogItemEntity::getId)
+                .toList();
+
+        final String query = """
+                query($contentId: UUID!, $after: String) {
+                    contentsByIds(ids: [$contentId]) {
+                        userProgressData {
+                            log(first: 2, after: $after) {
+                                cursor
+                            }
+                        }
+                    }
+                }
+                """;
+
+        final List<String> firstPage = graphQlTester.document(query)
+                .variable("contentId", contentEntity.getId())
+                .execute()
+                .path("contentsByIds[0].userProgressData.log[*].cursor").entityList(String.class).hasSize(2).get();
+        final List<String> secondPage = graphQlTester.document(query)
+                .variable("contentId", contentEntity.getId())
+                .variable("after", firstPage.get(1))
+                .execute()
+                .path("contentsByIds[0].userProgressData.log[*].cursor").entityList(String.class).hasSize(1).get();
+
+        final List<UUID> returnedIds = Stream.concat(firstPage.stream(), secondPage.stream())
+                .map(cursor -> KeysetCursor.decode(cursor).id())
+                .toList();
+        assertThat(returnedIds, containsInAnyOrder(logItemIds.toArray()));
+    }
+
+    /**
+     * Given several contents with progress logs
+     * When their logs are queried in one request
+     * Then all logs are loaded with a single query
+     */
+    @Test
+    void testProgressLogsOfAllContentsAreLoadedTogether(final HttpGraphQlTester graphQlTester) {
+        final OffsetDateTime timestamp = OffsetDateTime.of(2021, 1, 1, 0, 0, 0, 0, ZoneOffset.UTC);
+        for (int i = 0; i < 3; i++) {
+            final MediaContentEntity contentEntity = contentRepository.save(
+                    TestData.dummyMediaContentEntityBuilder(courseId).build());
+            userProgressDataRepository.save(UserProgressDataEntity.builder()
+                    .userId(userId)
+                    .contentId(contentEntity.getId())
+                    .learningInterval(1)
+                    .build());
+            progressLogItemRepository.save(
+                    TestData.buildProgressLogItem(userId, contentEntity.getId(), true, timestamp));
+        }
+
+        final String query = """
+                query($courseId: UUID!) {
+                    contentsByCourseIds(courseIds: [$courseId]) {
+                        userProgressData {
+                            log(first: 1) {
+                                timestamp
+                            }
+                        }
+                    }
+                }
+                """;
+
+        final long queriesBefore = countLogQueries();
+
+        graphQlTester.document(query)
+                .variable("courseId", courseId)
+                .execute()
+                .path("contentsByCourseIds[0][*].userProgressData.log[0].timestamp")
+                .entityList(OffsetDateTime.class).hasSize(3);
+
+        assertThat(countLogQueries(), is(queriesBefore + 1));
+    }
+
+    private long countLogQueries() {
+        final Timer timer = meterRegistry.find("spring.data.repository.invocations")
+                .tag("repository", "ProgressLogItemRepository")
+                .tag("method", "findLatestOfContents")
+                .timer();
+        return timer == null ? 0 : timer.count();
+    }
 }
@@ -0,0 +1,148 @@
+package de.unistuttgart.iste.gits.content_service.api.query;
+
+import de.unistuttgart.iste.gits.common.testutil.*;
+import de.unistuttgart.iste.gits.common.user_handling.LoggedInUser;
+import de.unistuttgart.iste.gits.content_service.TestData;
+import de.unistuttgart.iste.gits.content_service.persistence.entity.*;
+import de.unistuttgart.iste.gits.content_service.persistence.repository.*;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.graphql.test.tester.GraphQlTester;
+
+import java.time.OffsetDateTime;
+import java.util.List;
+import java.util.UUID;
+
+import static de.unistuttgart.iste.gits.common.testutil.TestUsers.userWithMembershipInCourseWithId;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+@GraphQlApiTest
+@TablesToDelete({"content_tags", "user_progress_data", "content"})
+class QueryDueReviewsTest {
+
+    private static final String QUERY = """
+            query($courseIds: [UUID!]!, $first: Int!, $after: String) {
+                dueReviewsForUser(courseIds: $courseIds, first: $first, after: $after) {
+                    elements {
+                        id
+                    }
+                    pageInfo {
+                        size
+                        hasNext
+                        endCursor
+                    }
+                }
+            }
+            """;
+
+    @Autowired
+    private ContentRepository contentRepository;
+
+    @Autowired
+    private UserProgressDataRepository userProgressDataRepository;
+
+    private final UUID courseId = UUID.randomUUID();
+
+    @InjectCurrentUserHeader
+    private final LoggedInUser loggedInUser = userWithMembershipInCourseWithId(courseId, LoggedInUser.UserRoleInCourse.STUDENT);
+
+    /**
+     * Given contents that are due for review, not yet due, never learned or due for another user
+     * When the due reviews are queried page by page
+     * Then only the due contents of the current user are returned, most overdue first
+     */
+    @Test
+    void testDueReviewsArePaginatedByUrgency(final GraphQlTester graphQlTester) {
+        final OffsetDateTime now = OffsetDateTime.now();
+        final UUID dueLong = createContentWithProgress(loggedInUser.getId(), now.minusDays(10));
+        final UUID dueShort = createContentWithProgress(loggedInUser.getId(), now.minusDays(1));
+        final UUID dueMedium = createContentWithProgress(loggedInUser.getId(), now.minusDays(5));
+        createContentWithProgress(loggedInUser.getId(), now.plusDays(1));
+        createContentWithProgress(loggedInUser.getId(), null);
+        createContentWithProgress(UUID.randomUUID(), now.minusDays(20));
+
+        graphQlTester.document(QUERY)
+                .variable("courseIds", List.of(courseId))
+                .variable("first", 2)
+                .execute()
+                .path("dueReviewsForUser.elements[*].id").entityList(UUID.class).containsExactly(dueLong, dueMedium)
+                .path("dueReviewsForUser.pageInfo.size").entity(Integer.class).isEqualTo(2)
+                .path("dueReviewsForUser.pageInfo.hasNext").entity(Boolean.class).isEqualTo(true);
+
+        final String endCursor = graphQlTester.document(QUERY)
+                .variable("courseIds", List.of(courseId))
+                .variable("first", 2)
+                .execute()
+                .path("dueReviewsForUser.pageInfo.endCursor").entity(String.class).get();
+
+        graphQlTester.document(QUERY)
+                .variable("courseIds", List.of(courseId))
+                .variable("first", 2)
+                .variable("after", endCursor)
+                .execute()
+                .path("dueReviewsForUser.elements[*].id").entityList(UUID.class).containsExactly(dueShort)
+                .path("dueReviewsForUser.pageInfo.hasNext").entity(Boolean.class).isEqualTo(false);
+    }
+
+    /**
+     * Given a due content in another course
+     * When the due reviews of a course are queried
+     * Then the content of the other course is not returned
+     */
+    @Test
+    void testDueReviewsAreFilteredByCourse(final GraphQlTester graphQlTester) {
+        final ContentEntity otherCourseContent = contentRepository.save(
+                TestData.dummyMediaContentEntityBuilder(UUID.randomUUID()).build());
+        userProgressDataRepository.save(buildProgressData(loggedInUser.getId(), otherCourseContent.getId(),
+                OffsetDateTime.now().minusDays(1)));
+
+        graphQlTester.document(QUERY)
+                .variable("courseIds", List.of(courseId))
+                .variable("first", 10)
+                .execute()
+                .path("dueReviewsForUser.elements").entityList(Object.class).hasSize(0)
+                .path("dueReviewsForUser.pageInfo.endCursor").valueIsNull()
+                .path("dueReviewsForUser.pageInfo.hasNext").entity(Boolean.class).isEqualTo(false);
+    }
+
+    /**
+     * Given a cursor that was not returned by the query
+     * When the due reviews are queried with it
+     * Then a ValidationException is thrown
+     */
+    @Test
+    void testInvalidCursor(final GraphQlTester graphQlTester) {
+        graphQlTester.document(QUERY)
+                .variable("courseIds", List.of(courseId))
+                .variable("first", 10)
+                .variable("after", "invalid")
+                .execute()
+                .errors()
+                .satisfy(errors -> {
+                    assertThat(errors, hasSize(1));
+                    assertThat(errors.get(0).getMessage(), containsString("Invalid cursor"));
+                    assertThat(errors.get(0).getExtensions().get("classification"), is("ValidationError"));
+                });
+    }
+
+    private UUID createContentWithProgress(final UUID userId, final OffsetDateTime nextLearnDate) {
+        final ContentEntity contentEntity = contentRepository.save(
+                TestData.dummyMediaContentEntityBuilder(courseId).build());
+        userProgressDataRepository.save(buildProgressData(userId, contentEntity.getId(), nextLearnDate));
+        return contentEntity.getId();
+    }
+
+    private static UserProgressDataEntity buildProgressData(final UUID userId,
+                                                            final UUID contentId,
+                                                            final OffsetDateTime nextLearnDate) {
+        return UserProgressDataEntity.builder()
+                .userId(userId)
+                .contentId(contentId)
+                .learningInterval(nextLearnDate == null ? null : 1)
+                .learned(nextLearnDate != null)
+                .lastSuccessTimestamp(nextLearnDate == null ? null : nextLearnDate.minusDays(1))
+                .nextLearnDate(nextLearnDate)
+                .build();
+    }
+}
@@ -22,7 +22,7 @@ import static de.unistuttgart.iste.gits.common.testutil.TestUsers.userWithMember
 import static org.springframework.test.util.AssertionErrors.assertEquals;
 
 @GraphQlApiTest
-@TablesToDelete({"stage_required_contents", "stage_optional_contents", "stage", "section", "content_tags", "user_progress_data_progress_log", "user_progress_data", "content"})
+@TablesToDelete({"stage_required_contents", "stage_optional_contents", "stage", "section", "content_tags", "progress_log_item", "user_progress_data", "content"})
 class QueryGetContentWithNoSectionTest {
 
     @Autowired
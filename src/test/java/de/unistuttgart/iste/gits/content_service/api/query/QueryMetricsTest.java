@@ -0,0 +1,96 @@
+package de.unistuttgart.iste.gits.content_service.api.query;
+
+import de.unistuttgart.iste.gits.common.testutil.*;
+import de.unistuttgart.iste.gits.common.user_handling.LoggedInUser;
+import de.unistuttgart.iste.gits.common.user_handling.LoggedInUser.UserRoleInCourse;
+import de.unistuttgart.iste.gits.content_service.TestData;
+import de.unistuttgart.iste.gits.content_service.config.ContentServiceGraphQlTimings;
+import de.unistuttgart.iste.gits.content_service.persistence.repository.ContentRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.graphql.test.tester.GraphQlTester;
+
+import java.util.List;
+import java.util.UUID;
+
+import static de.unistuttgart.iste.gits.common.testutil.TestUsers.userWithMembershipInCourseWithId;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+@GraphQlApiTest
+@TablesToDelete({"content_tags", "content"})
+class QueryMetricsTest {
+
+    private static final String QUERY = """
+            query ContentsOfCourses($courseIds: [UUID!]!) {
+                contentsByCourseIds(courseIds: $courseIds) {
+                    id
+                    userProgressData {
+                        isLearned
+                    }
+                }
+            }
+            """;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private ContentRepository contentRepository;
+
+    private final UUID courseId = UUID.randomUUID();
+
+    @InjectCurrentUserHeader
+    private final LoggedInUser loggedInUser = userWithMembershipInCourseWithId(courseId, UserRoleInCourse.STUDENT);
+
+    /**
+     * Given a content of a course
+     * When the contents of the course are queried
+     * Then the resolved fields and the repository calls are recorded
+     */
+    @Test
+    void testSuccessfulQueryIsRecorded(final GraphQlTester graphQlTester) {
+        contentRepository.save(TestData.dummyMediaContentEntityBuilder(courseId).build());
+
+        graphQlTester.document(QUERY)
+                .variable("courseIds", List.of(courseId))
+                .execute()
+                .path("contentsByCourseIds[0]").entityList(Object.class).hasSize(1);
+
+        assertThat(meterRegistry.find(ContentServiceGraphQlTimings.FIELD_TIMER)
+                .tag("field", "Query.contentsByCourseIds")
+                .tag("outcome", "SUCCESS")
+                .timer(), is(notNullValue()));
+        assertThat(meterRegistry.find(ContentServiceGraphQlTimings.FIELD_TIMER)
+                .tag("field", "MediaContent.userProgressData")
+                .timer(), is(notNullValue()));
+        // fields that are read from their parent object are not recorded
+        assertThat(meterRegistry.find(ContentServiceGraphQlTimings.FIELD_TIMER)
+                .tag("field", "MediaContent.id")
+                .timer(), is(nullValue()));
+
+        assertThat(meterRegistry.find("spring.data.repository.invocations")
+                .tag("repository", "ContentRepository")
+                .timers(), is(not(empty())));
+    }
+
+    /**
+     * Given a course the user has no access to
+     * When its contents are queried
+     * Then the field is recorded as error
+     */
+    @Test
+    void testFailedQueryIsRecorded(final GraphQlTester graphQlTester) {
+        graphQlTester.document(QUERY)
+                .variable("courseIds", List.of(UUID.randomUUID()))
+                .execute()
+                .errors()
+                .satisfy(errors -> assertThat(errors, hasSize(1)));
+
+        assertThat(meterRegistry.find(ContentServiceGraphQlTimings.FIELD_TIMER)
+                .tag("field", "Query.contentsByCourseIds")
+                .tag("outcome", "ERROR")
+                .timer(), is(notNullValue()));
+    }
+}
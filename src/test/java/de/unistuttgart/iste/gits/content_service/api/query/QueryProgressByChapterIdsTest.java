@@ -6,8 +6,11 @@ import de.unistuttgart.iste.gits.common.testutil.TablesToDelete;
 import de.unistuttgart.iste.gits.common.user_handling.LoggedInUser;
 import de.unistuttgart.iste.gits.content_service.TestData;
 import de.unistuttgart.iste.gits.content_service.persistence.entity.MediaContentEntity;
+import de.unistuttgart.iste.gits.content_service.persistence.entity.UserChapterProgressEntity;
 import de.unistuttgart.iste.gits.content_service.persistence.repository.ContentRepository;
+import de.unistuttgart.iste.gits.content_service.persistence.repository.UserChapterProgressRepository;
 import de.unistuttgart.iste.gits.content_service.persistence.repository.UserProgressDataRepository;
+import de.unistuttgart.iste.gits.content_service.service.UserProgressDataService;
 import de.unistuttgart.iste.gits.generated.dto.CompositeProgressInformation;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -20,7 +23,7 @@ import static de.unistuttgart.iste.gits.common.testutil.TestUsers.userWithMember
 import static org.junit.jupiter.api.Assertions.assertEquals;
 
 @GraphQlApiTest
-@TablesToDelete({"content_tags", "user_progress_data_progress_log", "user_progress_data", "content"})
+@TablesToDelete({"content_tags", "progress_log_item", "user_chapter_progress", "user_progress_data", "content"})
 class QueryProgressByChapterIdsTest {
 
     private static final String QUERY_USER_PROGRESS_BY_CHAPTER_IDS = """ 
@@ -39,6 +42,12 @@ class QueryProgressByChapterIdsTest {
     @Autowired
     private UserProgressDataRepository userProgressDataRepository;
 
+    @Autowired
+    private UserChapterProgressRepository userChapterProgressRepository;
+
+    @Autowired
+    private UserProgressDataService userProgressDataService;
+
     private final UUID courseId = UUID.randomUUID();
 
     @InjectCurrentUserHeader
@@ -57,6 +66,11 @@ class QueryProgressByChapterIdsTest {
 
         userProgressDataRepository.save(TestData.buildDummyUserProgressData(true, userId, mediaContentEntity.getId()));
         userProgressDataRepository.save(TestData.buildDummyUserProgressData(false, userId, mediaContentEntity1.getId()));
+        userChapterProgressRepository.save(UserChapterProgressEntity.builder()
+                .userId(userId)
+                .chapterId(chapterId)
+                .learnedContents(1)
+                .build());
 
         List<CompositeProgressInformation> resultList
                 = executeProgressByChapterIdsQuery(graphQlTester, chapterId);
@@ -67,6 +81,70 @@ class QueryProgressByChapterIdsTest {
         assertEquals(2, resultItem.getTotalContents());
     }
 
+    /**
+     * This Testcase assumes progress data was written without updating the chapter progress,
+     * which is repaired by rebuilding the chapter progress of the course
+     */
+    @Test
+    void testProgressByChapterIdAfterRebuild(HttpGraphQlTester graphQlTester) {
+        UUID userId = loggedInUser.getId();
+        UUID chapterId = UUID.randomUUID();
+        MediaContentEntity mediaContentEntity = TestData.buildContentEntity(chapterId);
+        mediaContentEntity.getMetadata().setCourseId(courseId);
+        mediaContentEntity = contentRepository.save(mediaContentEntity);
+        MediaContentEntity mediaContentEntity1 = TestData.buildContentEntity(chapterId);
+        mediaContentEntity1.getMetadata().setCourseId(courseId);
+        mediaContentEntity1 = contentRepository.save(mediaContentEntity1);
+
+        userProgressDataRepository.save(TestData.buildDummyUserProgressData(true, userId, mediaContentEntity.getId()));
+        userProgressDataRepository.save(TestData.buildDummyUserProgressData(true, userId, mediaContentEntity1.getId()));
+
+        assertEquals(0, executeProgressByChapterIdsQuery(graphQlTester, chapterId).get(0).getCompletedContents());
+
+        assertEquals(1, userProgressDataService.rebuildChapterProgress(courseId));
+
+        CompositeProgressInformation resultItem = executeProgressByChapterIdsQuery(graphQlTester, chapterId).get(0);
+        assertEquals(100.0, resultItem.getProgress());
+        assertEquals(2, resultItem.getCompletedContents());
+        assertEquals(2, resultItem.getTotalContents());
+    }
+
+    /**
+     * This Testcase assumes the chapter progress exists but is wrong, both in a chapter with learned contents
+     * and in a chapter without learned contents, which is repaired by rebuilding the chapter progress of the course
+     */
+    @Test
+    void testRebuildOverwritesExistingChapterProgress(HttpGraphQlTester graphQlTester) {
+        UUID userId = loggedInUser.getId();
+        UUID chapterId = UUID.randomUUID();
+        UUID otherChapterId = UUID.randomUUID();
+        MediaContentEntity mediaContentEntity = TestData.buildContentEntity(chapterId);
+        mediaContentEntity.getMetadata().setCourseId(courseId);
+        mediaContentEntity = contentRepository.save(mediaContentEntity);
+        MediaContentEntity mediaContentEntity1 = TestData.buildContentEntity(otherChapterId);
+        mediaContentEntity1.getMetadata().setCourseId(courseId);
+        mediaContentEntity1 = contentRepository.save(mediaContentEntity1);
+
+        userProgressDataRepository.save(TestData.buildDummyUserProgressData(true, userId, mediaContentEntity.getId()));
+        userProgressDataRepository.save(TestData.buildDummyUserProgressData(false, userId, mediaContentEntity1.getId()));
+        userChapterProgressRepository.save(UserChapterProgressEntity.builder()
+                .userId(userId)
+                .chapterId(chapterId)
+                .learnedContents(5)
+                .build());
+        userChapterProgressRepository.save(UserChapterProgressEntity.builder()
+                .userId(userId)
+                .chapterId(otherChapterId)
+                .learnedContents(1)
+                .build());
+
+        assertEquals(1, userProgressDataService.rebuildChapterProgress(courseId));
+
+        assertEquals(1, executeProgressByChapterIdsQuery(graphQlTester, chapterId).get(0).getCompletedContents());
+        assertEquals(0, executeProgressByChapterIdsQuery(graphQlTester, otherChapterId).get(0).getCompletedContents());
+        assertEquals(1, userChapterProgressRepository.count());
+    }
+
     /**
      * This Testcase assumes no Progress has already been made for all content within a chapter
      */
@@ -23,7 +23,7 @@ import static de.unistuttgart.iste.gits.common.testutil.TestUsers.userWithMember
 import static org.assertj.core.api.Assertions.assertThat;
 
 @GraphQlApiTest
-@TablesToDelete({"stage_required_contents", "stage_optional_contents", "stage", "section", "content_tags", "user_progress_data_progress_log", "user_progress_data", "content"})
+@TablesToDelete({"stage_required_contents", "stage_optional_contents", "stage", "section", "content_tags", "progress_log_item", "user_progress_data", "content"})
 class QuerySectionsByChapterTest {
 
     @Autowired
@@ -120,72 +120,27 @@ class QuerySectionsByChapterTest {
                 .userId(userId)
                 .contentId(contentEntities.get(0).getId())
                 .learningInterval(1)
-                .progressLog(List.of(
-                        ProgressLogItemEmbeddable.builder()
-                                .success(true)
-                                .correctness(1.0)
-                                .hintsUsed(0)
-                                .timestamp(LocalDate.of(2021, 1, 1)
-                                        .atStartOfDay()
-                                        .atOffset(ZoneOffset.ofHours(1)))
-                                .build(),
-                        ProgressLogItemEmbeddable.builder()
-                                .success(false)
-                                .correctness(1.0)
-                                .hintsUsed(0)
-                                .timestamp(LocalDate.of(2021, 1, 2)
-                                        .atStartOfDay()
-                                        .atOffset(ZoneOffset.ofHours(1)))
-                                .build()
-                ))
+                .learned(true)
+                .lastSuccessTimestamp(LocalDate.of(2021, 1, 1)
+                        .atStartOfDay()
+                        .atOffset(ZoneOffset.ofHours(1)))
+                .nextLearnDate(LocalDate.of(2021, 1, 2)
+                        .atStartOfDay()
+                        .atOffset(ZoneOffset.ofHours(1)))
                 .build();
 
         final UserProgressDataEntity userProgressDataEntity2 = UserProgressDataEntity.builder()
                 .userId(userId)
                 .contentId(contentEntities.get(1).getId())
                 .learningInterval(1)
-                .progressLog(List.of(
-                        ProgressLogItemEmbeddable.builder()
-                                .success(false)
-                                .correctness(0.5)
-                                .hintsUsed(0)
-                                .timestamp(LocalDate.of(2021, 1, 1)
-                                        .atStartOfDay()
-                                        .atOffset(ZoneOffset.ofHours(1)))
-                                .build(),
-                        ProgressLogItemEmbeddable.builder()
-                                .success(false)
-                                .correctness(0.5)
-                                .hintsUsed(0)
-                                .timestamp(LocalDate.of(2021, 1, 2)
-                                        .atStartOfDay()
-                                        .atOffset(ZoneOffset.ofHours(1)))
-                                .build()
-                ))
+                .learned(false)
                 .build();
 
         final UserProgressDataEntity userProgressDataEntity3 = UserProgressDataEntity.builder()
                 .userId(userId)
                 .contentId(contentEntities.get(2).getId())
                 .learningInterval(1)
-                .progressLog(List.of(
-                        ProgressLogItemEmbeddable.builder()
-                                .success(false)
-                                .correctness(0.5)
-                                .hintsUsed(0)
-                                .timestamp(LocalDate.of(2021, 1, 1)
-                                        .atStartOfDay()
-                                        .atOffset(ZoneOffset.ofHours(1)))
-                                .build(),
-                        ProgressLogItemEmbeddable.builder()
-                                .success(false)
-                                .correctness(0.5)
-                                .hintsUsed(0)
-                                .timestamp(LocalDate.of(2021, 1, 2)
-                                        .atStartOfDay()
-                                        .atOffset(ZoneOffset.ofHours(1)))
-                                .build()
-                ))
+                .learned(false)
                 .build();
 
         final List<UserProgressDataEntity> progressDataEntities = List.of(userProgressDataEntity1, userProgressDataEntity2, userProgressDataEntity3);
@@ -20,7 +20,7 @@ import static de.unistuttgart.iste.gits.common.testutil.TestUsers.userWithMember
  * Basic test for the suggestions query, detailed tests are in the SuggestionsServiceTest.
  */
 @GraphQlApiTest
-@TablesToDelete({"stage_required_contents", "stage_optional_contents", "stage", "section", "content_tags", "user_progress_data_progress_log", "user_progress_data", "content"})
+@TablesToDelete({"stage_required_contents", "stage_optional_contents", "stage", "section", "content_tags", "progress_log_item", "user_progress_data", "content"})
 class QuerySuggestionsTest {
 
     @Autowired
@@ -0,0 +1,111 @@
+package de.unistuttgart.iste.gits.content_service.dapr;
+
+import de.unistuttgart.iste.gits.content_service.controller.SubscriptionController;
+import de.unistuttgart.iste.gits.content_service.service.ContentCache;
+import de.unistuttgart.iste.gits.generated.dto.Content;
+import io.dapr.client.DaprClient;
+import io.dapr.client.domain.CloudEvent;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.yaml.snakeyaml.Yaml;
+import reactor.core.publisher.Mono;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.*;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class CacheInvalidationBroadcastTest {
+
+    /**
+     * Given two other replicas that both cache the contents of a chapter
+     * When a replica publishes a change of a content of the chapter
+     * Then both other replicas receive the message and invalidate their cached contents
+     */
+    @Test
+    void testMessageReachesAllSubscribers() {
+        final UUID chapterId = UUID.randomUUID();
+        final InMemoryCacheInvalidationPublisher sender = new InMemoryCacheInvalidationPublisher();
+        final ContentCache firstReplicaCache = cacheWithChapter(chapterId);
+        final ContentCache secondReplicaCache = cacheWithChapter(chapterId);
+        sender.subscribe(event -> receive(firstReplicaCache, event));
+        sender.subscribe(event -> receive(secondReplicaCache, event));
+
+        sender.notifyContentChanged(UUID.randomUUID(), chapterId, null);
+
+        assertThat(isCached(firstReplicaCache, chapterId), is(false));
+        assertThat(isCached(secondReplicaCache, chapterId), is(false));
+    }
+
+    /**
+     * Given the dapr publisher
+     * When a change is published
+     * Then it is sent over the broadcast pubsub component instead of the shared "gits" component
+     */
+    @Test
+    void testDaprPublisherUsesBroadcastComponent() {
+        final DaprClient daprClient = Mockito.mock(DaprClient.class);
+        doReturn(Mono.empty()).when(daprClient).publishEvent(any(String.class), any(String.class), any());
+        final DaprCacheInvalidationPublisher publisher = new DaprCacheInvalidationPublisher(daprClient);
+
+        publisher.notifyContentChanged(UUID.randomUUID(), null, null);
+
+        verify(daprClient).publishEvent(eq(CacheInvalidationPublisher.PUBSUB_NAME),
+                eq(CacheInvalidationPublisher.TOPIC),
+                any(CacheInvalidationEvent.class));
+    }
+
+    /**
+     * Given the pubsub component used for the broadcast
+     * When it is read
+     * Then every replica uses its own consumer group, so that every replica receives every message
+     */
+    @Test
+    @SuppressWarnings("unchecked")
+    void testBroadcastComponentHasConsumerGroupPerReplica() throws IOException {
+        final Map<String, Object> component;
+        try (final InputStream inputStream = Files.newInputStream(Path.of("components/pubsub-cache-invalidation.yaml"))) {
+            component = new Yaml().load(inputStream);
+        }
+
+        final Map<String, Object> metadata = (Map<String, Object>) component.get("metadata");
+        assertThat(metadata.get("name"), is(CacheInvalidationPublisher.PUBSUB_NAME));
+
+        final Map<String, Object> spec = (Map<String, Object>) component.get("spec");
+        final List<Map<String, Object>> specMetadata = (List<Map<String, Object>>) spec.get("metadata");
+        assertThat(specMetadata, hasItem(allOf(
+                hasEntry("name", (Object) "consumerID"),
+                hasEntry("value", (Object) "{uuid}"))));
+    }
+
+    /**
+     * Passes the message to the subscription endpoint of a replica, as the dapr sidecar of the replica would.
+     */
+    private static void receive(final ContentCache contentCache, final CacheInvalidationEvent event) {
+        final SubscriptionController subscriptionController = new SubscriptionController(null, null,
+                contentCache, new InMemoryCacheInvalidationPublisher());
+        final CloudEvent<CacheInvalidationEvent> cloudEvent = new CloudEvent<>();
+        cloudEvent.setData(event);
+
+        subscriptionController.invalidateCaches(cloudEvent).block();
+    }
+
+    private static ContentCache cacheWithChapter(final UUID chapterId) {
+        final ContentCache contentCache = new ContentCache(100, Duration.ofMinutes(10));
+        contentCache.getContentsByChapterIds(List.of(chapterId), ids -> Map.of(chapterId, List.of()));
+        return contentCache;
+    }
+
+    private static boolean isCached(final ContentCache contentCache, final UUID chapterId) {
+        final Map<UUID, List<Content>> result = contentCache.getContentsByChapterIds(List.of(chapterId),
+                ids -> Map.of());
+        return result.containsKey(chapterId);
+    }
+}
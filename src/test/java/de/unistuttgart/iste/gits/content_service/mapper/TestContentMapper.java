@@ -0,0 +1,107 @@
+package de.unistuttgart.iste.gits.content_service.mapper;
+
+import de.unistuttgart.iste.gits.content_service.persistence.entity.*;
+import de.unistuttgart.iste.gits.content_service.persistence.mapper.ContentMapper;
+import de.unistuttgart.iste.gits.generated.dto.*;
+import org.junit.jupiter.api.Test;
+
+import java.time.OffsetDateTime;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+class TestContentMapper {
+
+    private final ContentMapper contentMapper = new ContentMapper();
+
+    @Test
+    void testMediaContentEntityToDto() {
+        final MediaContentEntity entity = MediaContentEntity.builder()
+                .id(UUID.randomUUID())
+                .metadata(ContentMetadataEmbeddable.builder()
+                        .name("Media")
+                        .type(ContentType.MEDIA)
+                        .suggestedDate(OffsetDateTime.parse("2021-01-01T00:00:00Z"))
+                        .rewardPoints(10)
+                        .chapterId(UUID.randomUUID())
+                        .courseId(UUID.randomUUID())
+                        .tags(Set.of("tag"))
+                        .build())
+                .build();
+
+        final Content actual = contentMapper.entityToDto(entity);
+
+        assertThat(actual, is(instanceOf(MediaContent.class)));
+        assertThat(actual.getId(), is(entity.getId()));
+        assertThat(actual.getMetadata().getName(), is("Media"));
+        assertThat(actual.getMetadata().getType(), is(ContentType.MEDIA));
+        assertThat(actual.getMetadata().getSuggestedDate(), is(OffsetDateTime.parse("2021-01-01T00:00:00Z")));
+        assertThat(actual.getMetadata().getRewardPoints(), is(10));
+        assertThat(actual.getMetadata().getChapterId(), is(entity.getMetadata().getChapterId()));
+        assertThat(actual.getMetadata().getCourseId(), is(entity.getMetadata().getCourseId()));
+        assertThat(actual.getMetadata().getTagNames(), contains("tag"));
+    }
+
+    @Test
+    void testAssessmentEntityToDto() {
+        final AssessmentEntity entity = AssessmentEntity.builder()
+                .id(UUID.randomUUID())
+                .metadata(ContentMetadataEmbeddable.builder()
+                        .name("Quiz")
+                        .type(ContentType.QUIZ)
+                        .suggestedDate(OffsetDateTime.parse("2021-01-01T00:00:00Z"))
+                        .chapterId(UUID.randomUUID())
+                        .courseId(UUID.randomUUID())
+                        .build())
+                .assessmentMetadata(AssessmentMetadataEmbeddable.builder()
+                        .skillPoints(5)
+                        .skillTypes(List.of(SkillType.APPLY))
+                        .initialLearningInterval(2)
+                        .build())
+                .build();
+
+        final Content actual = contentMapper.entityToDto(entity);
+
+        assertThat(actual, is(instanceOf(QuizAssessment.class)));
+        final QuizAssessment quizAssessment = (QuizAssessment) actual;
+        assertThat(quizAssessment.getId(), is(entity.getId()));
+        assertThat(quizAssessment.getMetadata().getName(), is("Quiz"));
+        assertThat(quizAssessment.getMetadata().getTagNames(), is(empty()));
+        assertThat(quizAssessment.getAssessmentMetadata().getSkillPoints(), is(5));
+        assertThat(quizAssessment.getAssessmentMetadata().getSkillTypes(), contains(SkillType.APPLY));
+        assertThat(quizAssessment.getAssessmentMetadata().getInitialLearningInterval(), is(2));
+    }
+
+    @Test
+    void testUpdateAssessmentInputToEntity() {
+        final UUID contentId = UUID.randomUUID();
+        final UpdateAssessmentInput input = UpdateAssessmentInput.builder()
+                .setMetadata(UpdateContentMetadataInput.builder()
+                        .setName("Flashcards")
+                        .setSuggestedDate(OffsetDateTime.parse("2021-01-01T00:00:00Z"))
+                        .setRewardPoints(3)
+                        .setChapterId(UUID.randomUUID())
+                        .setTagNames(List.of("a", "b"))
+                        .build())
+                .setAssessmentMetadata(AssessmentMetadataInput.builder()
+                        .setSkillPoints(1)
+                        .setSkillTypes(List.of(SkillType.REMEMBER))
+                        .build())
+                .build();
+
+        final AssessmentEntity actual = contentMapper.assessmentDtoToEntity(contentId, input, ContentType.FLASHCARDS);
+
+        assertThat(actual.getId(), is(contentId));
+        assertThat(actual.getMetadata().getName(), is("Flashcards"));
+        assertThat(actual.getMetadata().getType(), is(ContentType.FLASHCARDS));
+        assertThat(actual.getMetadata().getRewardPoints(), is(3));
+        assertThat(actual.getMetadata().getChapterId(), is(input.getMetadata().getChapterId()));
+        assertThat(actual.getMetadata().getTags(), containsInAnyOrder("a", "b"));
+        assertThat(actual.getAssessmentMetadata().getSkillPoints(), is(1));
+        assertThat(actual.getAssessmentMetadata().getSkillTypes(), contains(SkillType.REMEMBER));
+        assertThat(actual.getAssessmentMetadata().getInitialLearningInterval(), is(nullValue()));
+    }
+}
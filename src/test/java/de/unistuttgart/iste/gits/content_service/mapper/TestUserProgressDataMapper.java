@@ -1,11 +1,11 @@
 package de.unistuttgart.iste.gits.content_service.mapper;
 
-import de.unistuttgart.iste.gits.content_service.persistence.entity.ProgressLogItemEmbeddable;
+import de.unistuttgart.iste.gits.common.event.ContentProgressedEvent;
+import de.unistuttgart.iste.gits.content_service.persistence.entity.ProgressLogItemEntity;
 import de.unistuttgart.iste.gits.content_service.persistence.entity.UserProgressDataEntity;
 import de.unistuttgart.iste.gits.content_service.persistence.mapper.UserProgressDataMapper;
 import de.unistuttgart.iste.gits.generated.dto.UserProgressData;
 import org.junit.jupiter.api.Test;
-import org.modelmapper.ModelMapper;
 
 import java.time.OffsetDateTime;
 import java.util.List;
@@ -16,7 +16,7 @@ import static org.hamcrest.Matchers.*;
 
 class TestUserProgressDataMapper {
 
-    private final UserProgressDataMapper userProgressDataMapper = new UserProgressDataMapper(new ModelMapper());
+    private final UserProgressDataMapper userProgressDataMapper = new UserProgressDataMapper();
 
     @Test
     void testFullMapping() {
@@ -24,13 +24,9 @@ class TestUserProgressDataMapper {
                 .userId(UUID.randomUUID())
                 .contentId(UUID.randomUUID())
                 .learningInterval(2)
-                .progressLog(List.of(
-                        ProgressLogItemEmbeddable.builder()
-                                .correctness(1.0)
-                                .hintsUsed(1)
-                                .success(true)
-                                .timestamp(OffsetDateTime.parse("2021-01-01T00:00:00Z"))
-                                .build()))
+                .learned(true)
+                .lastSuccessTimestamp(OffsetDateTime.parse("2021-01-01T00:00:00Z"))
+                .nextLearnDate(OffsetDateTime.parse("2021-01-03T00:00:00Z"))
                 .build();
 
         final UserProgressData actual = userProgressDataMapper.entityToDto(userProgressDataEntity);
@@ -38,18 +34,54 @@ class TestUserProgressDataMapper {
         assertThat(actual.getUserId(), is(userProgressDataEntity.getUserId()));
         assertThat(actual.getContentId(), is(userProgressDataEntity.getContentId()));
         assertThat(actual.getLearningInterval(), is(userProgressDataEntity.getLearningInterval()));
-        assertThat(actual.getLog(), contains(
+        assertThat(actual.getLastLearnDate(), is(OffsetDateTime.parse("2021-01-01T00:00:00Z")));
+        assertThat(actual.getIsLearned(), is(true));
+        assertThat(actual.getNextLearnDate(), is(OffsetDateTime.parse("2021-01-03T00:00:00Z")));
+        assertThat(actual.getIsDueForReview(), is(true));
+    }
+
+    @Test
+    void testLogItemMapping() {
+        final ProgressLogItemEntity logItem = ProgressLogItemEntity.builder()
+                .userId(UUID.randomUUID())
+                .contentId(UUID.randomUUID())
+                .correctness(1.0)
+                .hintsUsed(1)
+                .success(true)
+                .timeToComplete(30)
+                .timestamp(OffsetDateTime.parse("2021-01-01T00:00:00Z"))
+                .build();
+
+        assertThat(userProgressDataMapper.logItemsToDto(List.of(logItem)), contains(
                 allOf(
                         hasProperty("correctness", is(1.0)),
                         hasProperty("hintsUsed", is(1)),
                         hasProperty("success", is(true)),
+                        hasProperty("timeToComplete", is(30)),
                         hasProperty("timestamp", is(OffsetDateTime.parse("2021-01-01T00:00:00Z")))
                 )
         ));
-        assertThat(actual.getLastLearnDate(), is(OffsetDateTime.parse("2021-01-01T00:00:00Z")));
-        assertThat(actual.getIsLearned(), is(true));
-        assertThat(actual.getNextLearnDate(), is(OffsetDateTime.parse("2021-01-03T00:00:00Z")));
-        assertThat(actual.getIsDueForReview(), is(true));
+    }
+
+    @Test
+    void testEventToEntity() {
+        final ContentProgressedEvent event = ContentProgressedEvent.builder()
+                .userId(UUID.randomUUID())
+                .contentId(UUID.randomUUID())
+                .success(false)
+                .correctness(0.5)
+                .hintsUsed(2)
+                .timeToComplete(10)
+                .build();
+
+        final ProgressLogItemEntity actual = userProgressDataMapper.eventToEntity(event);
+
+        assertThat(actual.getUserId(), is(event.getUserId()));
+        assertThat(actual.getContentId(), is(event.getContentId()));
+        assertThat(actual.isSuccess(), is(false));
+        assertThat(actual.getCorrectness(), is(0.5));
+        assertThat(actual.getHintsUsed(), is(2));
+        assertThat(actual.getTimeToComplete(), is(10));
     }
 
     @Test
@@ -58,13 +90,7 @@ class TestUserProgressDataMapper {
                 .userId(UUID.randomUUID())
                 .contentId(UUID.randomUUID())
                 .learningInterval(2)
-                .progressLog(List.of(
-                        ProgressLogItemEmbeddable.builder()
-                                .correctness(0.0)
-                                .hintsUsed(1)
-                                .success(false)
-                                .timestamp(OffsetDateTime.parse("2021-01-01T00:00:00Z"))
-                                .build()))
+                .learned(false)
                 .build();
 
         final UserProgressData actual = userProgressDataMapper.entityToDto(userProgressDataEntity);
@@ -92,22 +118,19 @@ class TestUserProgressDataMapper {
 
     @Test
     void testContentNotDueForRepetitionYet() {
+        final OffsetDateTime lastSuccessTimestamp = OffsetDateTime.now();
         final UserProgressDataEntity userProgressDataEntity = UserProgressDataEntity.builder()
                 .userId(UUID.randomUUID())
                 .contentId(UUID.randomUUID())
                 .learningInterval(2)
-                .progressLog(List.of(
-                        ProgressLogItemEmbeddable.builder()
-                                .correctness(0.0)
-                                .hintsUsed(1)
-                                .success(true)
-                                .timestamp(OffsetDateTime.now())
-                                .build()))
+                .learned(true)
+                .lastSuccessTimestamp(lastSuccessTimestamp)
+                .nextLearnDate(lastSuccessTimestamp.plusDays(2))
                 .build();
 
         final UserProgressData actual = userProgressDataMapper.entityToDto(userProgressDataEntity);
 
-        assertThat(actual.getLastLearnDate(), is(not(nullValue())));
+        assertThat(actual.getLastLearnDate(), is(lastSuccessTimestamp));
         assertThat(actual.getIsLearned(), is(true));
         assertThat(actual.getNextLearnDate(), is(actual.getLastLearnDate().plusDays(2)));
         assertThat(actual.getIsDueForReview(), is(false));
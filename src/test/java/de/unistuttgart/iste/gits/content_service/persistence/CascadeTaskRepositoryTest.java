@@ -0,0 +1,202 @@
+package de.unistuttgart.iste.gits.content_service.persistence;
+
+import de.unistuttgart.iste.gits.common.testutil.GraphQlApiTest;
+import de.unistuttgart.iste.gits.common.testutil.TablesToDelete;
+import de.unistuttgart.iste.gits.content_service.persistence.entity.CascadeTaskEntity;
+import de.unistuttgart.iste.gits.content_service.persistence.entity.CascadeTaskEntity.Status;
+import de.unistuttgart.iste.gits.content_service.persistence.repository.CascadeTaskRepository;
+import de.unistuttgart.iste.gits.content_service.service.CascadeTaskQueue;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.OffsetDateTime;
+import java.util.*;
+import java.util.concurrent.*;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+/**
+ * Runs the native queries of the cascade task queue against Postgres.
+ */
+@GraphQlApiTest
+@TablesToDelete({"cascade_task"})
+// the tasks are claimed by the tests, not by the background worker
+@TestPropertySource(properties = "content-service.cascade.poll-interval=P1D")
+class CascadeTaskRepositoryTest {
+
+    @Autowired
+    private CascadeTaskRepository cascadeTaskRepository;
+    @Autowired
+    private CascadeTaskQueue cascadeTaskQueue;
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    /**
+     * Given a task for a chapter deleted by an event
+     * When the same event is enqueued again
+     * Then no second task is created
+     */
+    @Test
+    void testDuplicateInsertIsIgnored() {
+        final UUID chapterId = UUID.randomUUID();
+
+        final Integer first = transactionTemplate.execute(status -> cascadeTaskRepository.insertIfAbsent("event", chapterId));
+        final Integer second = transactionTemplate.execute(status -> cascadeTaskRepository.insertIfAbsent("event", chapterId));
+        final Integer otherEvent = transactionTemplate.execute(status -> cascadeTaskRepository.insertIfAbsent("other", chapterId));
+
+        assertThat(first, is(1));
+        assertThat(second, is(0));
+        assertThat(otherEvent, is(1));
+        assertThat(cascadeTaskRepository.count(), is(2L));
+    }
+
+    /**
+     * Given two available tasks, one of which is locked by a claim that is not committed yet
+     * When another worker claims tasks concurrently
+     * Then it skips the locked task and claims only the other one
+     */
+    @Test
+    void testConcurrentClaimsSkipLockedTasks() throws Exception {
+        final CascadeTaskEntity task1 = saveTask(Status.PENDING, 0, OffsetDateTime.now().minusMinutes(2));
+        final CascadeTaskEntity task2 = saveTask(Status.PENDING, 0, OffsetDateTime.now().minusMinutes(1));
+
+        final CountDownLatch locked = new CountDownLatch(1);
+        final CountDownLatch otherClaimDone = new CountDownLatch(1);
+        final ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            final Future<List<CascadeTaskEntity>> firstClaim = executor.submit(() ->
+                    transactionTemplate.execute(status -> {
+                        final List<CascadeTaskEntity> tasks =
+                                cascadeTaskRepository.findAvailableForUpdate(OffsetDateTime.now(), 1);
+                        locked.countDown();
+                        awaitUninterruptibly(otherClaimDone);
+                        return tasks;
+                    }));
+
+            assertThat(locked.await(10, TimeUnit.SECONDS), is(true));
+            final List<CascadeTaskQueue.ClaimedTask> secondClaim = cascadeTaskQueue.claim(2);
+            otherClaimDone.countDown();
+
+            assertThat(firstClaim.get(10, TimeUnit.SECONDS).stream().map(CascadeTaskEntity::getId).toList(),
+                    contains(task1.getId()));
+            assertThat(secondClaim.stream().map(CascadeTaskQueue.ClaimedTask::taskId).toList(),
+                    contains(task2.getId()));
+        } finally {
+            otherClaimDone.countDown();
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Given a claimed task whose lease expired
+     * When the original worker tries to complete it and the task is claimed again
+     * Then the completion is rejected and the task is claimed with a new lease
+     */
+    @Test
+    void testExpiredLeaseCannotCompleteAndIsClaimedAgain() {
+        final UUID oldLeaseOwner = UUID.randomUUID();
+        final CascadeTaskEntity task = saveTask(Status.RUNNING, 1, OffsetDateTime.now().minusSeconds(1), oldLeaseOwner);
+
+        final Integer completed = transactionTemplate.execute(status ->
+                cascadeTaskRepository.completeIfLeased(task.getId(), oldLeaseOwner, OffsetDateTime.now()));
+        final List<CascadeTaskQueue.ClaimedTask> claimedTasks = cascadeTaskQueue.claim(1);
+
+        assertThat(completed, is(0));
+        assertThat(claimedTasks, hasSize(1));
+        assertThat(claimedTasks.get(0).leaseOwner(), is(not(oldLeaseOwner)));
+
+        final CascadeTaskEntity actual = cascadeTaskRepository.findById(task.getId()).orElseThrow();
+        assertThat(actual.getStatus(), is(Status.RUNNING));
+        assertThat(actual.getAttempts(), is(2));
+
+        final Integer completedByNewOwner = transactionTemplate.execute(status ->
+                cascadeTaskRepository.completeIfLeased(task.getId(), claimedTasks.get(0).leaseOwner(), OffsetDateTime.now()));
+        assertThat(completedByNewOwner, is(1));
+        assertThat(cascadeTaskRepository.findById(task.getId()).orElseThrow().getStatus(), is(Status.DONE));
+    }
+
+    /**
+     * Given a task whose lease expired in its last allowed attempt
+     * When tasks are claimed
+     * Then the task is marked as failed and not claimed
+     */
+    @Test
+    void testExpiredLeaseAfterMaxAttemptsFailsTask() {
+        final CascadeTaskEntity task = saveTask(Status.RUNNING, 5, OffsetDateTime.now().minusSeconds(1), UUID.randomUUID());
+
+        assertThat(cascadeTaskQueue.claim(1), is(empty()));
+        assertThat(cascadeTaskRepository.findById(task.getId()).orElseThrow().getStatus(), is(Status.FAILED));
+    }
+
+    /**
+     * Given a failed task that waits for its backoff and a task that is done
+     * When tasks are claimed
+     * Then neither of them is claimed
+     */
+    @Test
+    void testBackoffAndDoneTasksAreNotClaimed() {
+        saveTask(Status.PENDING, 1, OffsetDateTime.now().plusMinutes(1));
+        saveTask(Status.DONE, 1, OffsetDateTime.now().minusMinutes(1));
+
+        final List<CascadeTaskEntity> available = transactionTemplate.execute(status ->
+                cascadeTaskRepository.findAvailableForUpdate(OffsetDateTime.now(), 10));
+
+        assertThat(available, is(empty()));
+    }
+
+    /**
+     * Given done tasks completed before and after the retention boundary and a pending task
+     * When done tasks are purged
+     * Then only the done task completed before the boundary is deleted
+     */
+    @Test
+    void testPurgeDeletesOnlyOldDoneTasks() {
+        final OffsetDateTime boundary = OffsetDateTime.now().minusDays(7);
+        final CascadeTaskEntity oldDone = saveDoneTask(boundary.minusHours(1));
+        final CascadeTaskEntity recentDone = saveDoneTask(boundary.plusHours(1));
+        final CascadeTaskEntity pending = saveTask(Status.PENDING, 0, OffsetDateTime.now());
+
+        final Integer deleted = transactionTemplate.execute(status -> cascadeTaskRepository.deleteDoneBefore(boundary));
+
+        assertThat(deleted, is(1));
+        assertThat(cascadeTaskRepository.existsById(oldDone.getId()), is(false));
+        assertThat(cascadeTaskRepository.existsById(recentDone.getId()), is(true));
+        assertThat(cascadeTaskRepository.existsById(pending.getId()), is(true));
+    }
+
+    private CascadeTaskEntity saveTask(final Status status, final int attempts, final OffsetDateTime availableAt) {
+        return saveTask(status, attempts, availableAt, null);
+    }
+
+    private CascadeTaskEntity saveTask(final Status status,
+                                       final int attempts,
+                                       final OffsetDateTime availableAt,
+                                       final UUID leaseOwner) {
+        return cascadeTaskRepository.save(CascadeTaskEntity.builder()
+                .eventId(UUID.randomUUID().toString())
+                .chapterId(UUID.randomUUID())
+                .status(status)
+                .attempts(attempts)
+                .createdAt(availableAt)
+                .availableAt(availableAt)
+                .leaseOwner(leaseOwner)
+                .build());
+    }
+
+    private CascadeTaskEntity saveDoneTask(final OffsetDateTime completedAt) {
+        final CascadeTaskEntity task = saveTask(Status.DONE, 1, completedAt);
+        task.setCompletedAt(completedAt);
+        return cascadeTaskRepository.save(task);
+    }
+
+    private static void awaitUninterruptibly(final CountDownLatch latch) {
+        try {
+            latch.await(10, TimeUnit.SECONDS);
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,142 @@
+package de.unistuttgart.iste.gits.content_service.persistence;
+
+import de.unistuttgart.iste.gits.common.testutil.GraphQlApiTest;
+import de.unistuttgart.iste.gits.common.testutil.TablesToDelete;
+import de.unistuttgart.iste.gits.content_service.TestData;
+import de.unistuttgart.iste.gits.content_service.persistence.entity.*;
+import de.unistuttgart.iste.gits.content_service.persistence.repository.*;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.*;
+import java.util.stream.IntStream;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+/**
+ * Compares the number of JDBC statements of bulk writes with JDBC batching disabled and with the settings of the
+ * write-optimized profile.
+ */
+@GraphQlApiTest
+@TablesToDelete({"stage", "content_tags", "content", "user_progress_data"})
+class JdbcBatchingTest {
+
+    private static final int NUMBER_OF_ROWS = 100;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+    @Autowired
+    private EntityManager entityManager;
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+    @Autowired
+    private ContentRepository contentRepository;
+    @Autowired
+    private StageRepository stageRepository;
+    @Autowired
+    private UserProgressDataRepository userProgressDataRepository;
+
+    private final UUID courseId = UUID.randomUUID();
+
+    /**
+     * Given contents with tags
+     * When they are inserted with and without JDBC batching
+     * Then the batched inserts need only a few statements instead of one per row
+     */
+    @Test
+    void testInsertsAreBatched() {
+        final long unbatched = countStatements(1, () -> contentRepository.saveAll(buildContents()));
+        final long batched = countStatements(null, () -> contentRepository.saveAll(buildContents()));
+
+        // one insert per content and one per tag
+        assertThat(unbatched, is(greaterThanOrEqualTo(2L * NUMBER_OF_ROWS)));
+        assertThat(batched, is(lessThanOrEqualTo(5L)));
+    }
+
+    /**
+     * Given the first progress of a user on contents, i.e. progress data with assigned ids that does not exist yet
+     * When it is inserted with and without JDBC batching
+     * Then it is inserted without selecting every row before and the batched inserts need only a few statements
+     */
+    @Test
+    void testFirstTimeProgressInsertsAreBatched() {
+        final long unbatched = countStatements(1, () -> userProgressDataRepository.saveAll(buildProgressData()));
+        final long batched = countStatements(null, () -> userProgressDataRepository.saveAll(buildProgressData()));
+
+        // one insert per progress data, but no select
+        assertThat(unbatched, is((long) NUMBER_OF_ROWS));
+        assertThat(batched, is(lessThanOrEqualTo(2L)));
+    }
+
+    /**
+     * Given stages whose positions are changed
+     * When the changes are flushed with and without JDBC batching
+     * Then the batched updates need only a few statements instead of one per row
+     */
+    @Test
+    void testUpdatesAreBatched() {
+        final UUID sectionId = UUID.randomUUID();
+        stageRepository.saveAll(IntStream.range(0, NUMBER_OF_ROWS)
+                .mapToObj(position -> StageEntity.builder()
+                        .sectionId(sectionId)
+                        .position(position)
+                        .requiredContents(new HashSet<>())
+                        .optionalContents(new HashSet<>())
+                        .build())
+                .toList());
+
+        final long unbatched = countStatements(1, () -> stageRepository.findAll()
+                .forEach(stage -> stage.setPosition(NUMBER_OF_ROWS - stage.getPosition())));
+        final long batched = countStatements(null, () -> stageRepository.findAll()
+                .forEach(stage -> stage.setPosition(NUMBER_OF_ROWS - stage.getPosition())));
+
+        // one select and one update per stage
+        assertThat(unbatched, is(greaterThanOrEqualTo(1L + NUMBER_OF_ROWS)));
+        assertThat(batched, is(lessThanOrEqualTo(3L)));
+    }
+
+    /**
+     * Runs the given work in a transaction and counts the JDBC statements prepared until the transaction is committed.
+     *
+     * @param jdbcBatchSize the JDBC batch size of the transaction, null to use the configured batch size
+     */
+    private long countStatements(final Integer jdbcBatchSize, final Runnable work) {
+        final Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        transactionTemplate.executeWithoutResult(status -> {
+            entityManager.unwrap(Session.class).setJdbcBatchSize(jdbcBatchSize);
+            work.run();
+        });
+
+        return statistics.getPrepareStatementCount();
+    }
+
+    private List<UserProgressDataEntity> buildProgressData() {
+        final UUID userId = UUID.randomUUID();
+        return IntStream.range(0, NUMBER_OF_ROWS)
+                .mapToObj(i -> UserProgressDataEntity.builder()
+                        .userId(userId)
+                        .contentId(UUID.randomUUID())
+                        .learned(false)
+                        .build())
+                .toList();
+    }
+
+    private List<ContentEntity> buildContents() {
+        return IntStream.range(0, NUMBER_OF_ROWS)
+                .<ContentEntity>mapToObj(i -> TestData.dummyMediaContentEntityBuilder(courseId)
+                        .metadata(TestData.dummyContentMetadataEmbeddableBuilder(courseId)
+                                .tags(new HashSet<>(Set.of("tag")))
+                                .build())
+                        .build())
+                .toList();
+    }
+}
@@ -0,0 +1,276 @@
+package de.unistuttgart.iste.gits.content_service.service;
+
+import de.unistuttgart.iste.gits.common.event.ChapterChangeEvent;
+import de.unistuttgart.iste.gits.common.event.CrudOperation;
+import de.unistuttgart.iste.gits.common.exception.IncompleteEventMessageException;
+import de.unistuttgart.iste.gits.content_service.persistence.entity.CascadeTaskEntity;
+import de.unistuttgart.iste.gits.content_service.persistence.entity.CascadeTaskEntity.Status;
+import de.unistuttgart.iste.gits.content_service.persistence.repository.CascadeTaskRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.util.*;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class CascadeTaskQueueTest {
+
+    @Mock
+    private CascadeTaskRepository cascadeTaskRepository;
+    @Mock
+    private SectionService sectionService;
+    @Mock
+    private ContentService contentService;
+
+    @InjectMocks
+    private CascadeTaskQueue cascadeTaskQueue;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(cascadeTaskQueue, "maxAttempts", 3);
+        ReflectionTestUtils.setField(cascadeTaskQueue, "lease", Duration.ofMinutes(10));
+        ReflectionTestUtils.setField(cascadeTaskQueue, "retryBackoff", Duration.ofSeconds(30));
+        ReflectionTestUtils.setField(cascadeTaskQueue, "doneRetention", Duration.ofDays(7));
+    }
+
+    /**
+     * Given a chapter-changed event deleting two chapters, one of them twice
+     * When the event is enqueued
+     * Then one task is created per distinct chapter
+     */
+    @Test
+    void testEnqueueCreatesTaskPerChapter() throws IncompleteEventMessageException {
+        final UUID chapterId1 = UUID.randomUUID();
+        final UUID chapterId2 = UUID.randomUUID();
+        final ChapterChangeEvent event = ChapterChangeEvent.builder()
+                .chapterIds(List.of(chapterId1, chapterId2, chapterId1))
+                .operation(CrudOperation.DELETE)
+                .build();
+        when(cascadeTaskRepository.insertIfAbsent(any(), any())).thenReturn(1);
+
+        assertThat(cascadeTaskQueue.enqueue("event", event), is(2));
+
+        verify(cascadeTaskRepository).insertIfAbsent("event", chapterId1);
+        verify(cascadeTaskRepository).insertIfAbsent("event", chapterId2);
+    }
+
+    /**
+     * Given chapter-changed events that do not delete chapters or are incomplete
+     * When they are enqueued
+     * Then no tasks are created
+     */
+    @Test
+    void testEnqueueIgnoresOtherOperationsAndRejectsIncompleteEvents() throws IncompleteEventMessageException {
+        final ChapterChangeEvent updateEvent = ChapterChangeEvent.builder()
+                .chapterIds(List.of(UUID.randomUUID()))
+                .operation(CrudOperation.UPDATE)
+                .build();
+        final ChapterChangeEvent incompleteEvent = ChapterChangeEvent.builder()
+                .operation(CrudOperation.DELETE)
+                .build();
+
+        assertThat(cascadeTaskQueue.enqueue("event", updateEvent), is(0));
+        assertThrows(IncompleteEventMessageException.class, () -> cascadeTaskQueue.enqueue("event", incompleteEvent));
+
+        verifyNoInteractions(cascadeTaskRepository);
+    }
+
+    /**
+     * Given available tasks
+     * When they are claimed
+     * Then they are running, their attempt is counted and they are leased
+     */
+    @Test
+    void testClaim() {
+        final CascadeTaskEntity task = buildTask(Status.PENDING, 0);
+        when(cascadeTaskRepository.findAvailableForUpdate(any(), eq(2))).thenReturn(List.of(task));
+
+        final List<CascadeTaskQueue.ClaimedTask> claimedTasks = cascadeTaskQueue.claim(2);
+
+        assertThat(claimedTasks, contains(new CascadeTaskQueue.ClaimedTask(task.getId(), task.getLeaseOwner())));
+        assertThat(task.getLeaseOwner(), is(notNullValue()));
+        assertThat(task.getStatus(), is(Status.RUNNING));
+        assertThat(task.getAttempts(), is(1));
+        assertThat(task.getAvailableAt().isAfter(OffsetDateTime.now().plusMinutes(9)), is(true));
+    }
+
+    /**
+     * Given a task whose lease expired in its last allowed attempt, e.g. because its worker was killed each time
+     * When tasks are claimed
+     * Then the task is marked as failed instead of being claimed again
+     */
+    @Test
+    void testClaimFailsTaskWithExpiredLeaseAfterMaxAttempts() {
+        final CascadeTaskEntity task = buildTask(Status.RUNNING, 3);
+        final CascadeTaskEntity otherTask = buildTask(Status.PENDING, 0);
+        when(cascadeTaskRepository.findAvailableForUpdate(any(), eq(2))).thenReturn(List.of(task, otherTask));
+
+        final List<CascadeTaskQueue.ClaimedTask> claimedTasks = cascadeTaskQueue.claim(2);
+
+        assertThat(claimedTasks, contains(claimed(otherTask)));
+        assertThat(task.getStatus(), is(Status.FAILED));
+        assertThat(task.getAttempts(), is(3));
+        assertThat(task.getLeaseOwner(), is(nullValue()));
+        verify(cascadeTaskRepository).saveAll(List.of(task, otherTask));
+    }
+
+    /**
+     * Given a claimed task
+     * When it is processed
+     * Then the sections and contents of its chapter are deleted and the task is done if it is still leased
+     */
+    @Test
+    void testProcess() throws IncompleteEventMessageException {
+        final CascadeTaskEntity task = buildTask(Status.RUNNING, 1);
+        when(cascadeTaskRepository.findById(task.getId())).thenReturn(Optional.of(task));
+        when(cascadeTaskRepository.completeIfLeased(eq(task.getId()), eq(task.getLeaseOwner()), any())).thenReturn(1);
+
+        cascadeTaskQueue.process(claimed(task));
+
+        verify(sectionService).cascadeSectionDeletion(argThat(event -> isDeletionOf(event, task.getChapterId())));
+        verify(contentService).cascadeContentDeletion(argThat(event -> isDeletionOf(event, task.getChapterId())));
+        verify(cascadeTaskRepository).completeIfLeased(eq(task.getId()), eq(task.getLeaseOwner()), any());
+    }
+
+    /**
+     * Given a task that was claimed again by another worker, e.g. because its lease expired
+     * When it is processed with the previous lease
+     * Then nothing is deleted
+     */
+    @Test
+    void testProcessWithLostLeaseIsSkipped() throws IncompleteEventMessageException {
+        final CascadeTaskEntity task = buildTask(Status.RUNNING, 2);
+        when(cascadeTaskRepository.findById(task.getId())).thenReturn(Optional.of(task));
+
+        cascadeTaskQueue.process(new CascadeTaskQueue.ClaimedTask(task.getId(), UUID.randomUUID()));
+
+        verifyNoInteractions(sectionService, contentService);
+        verify(cascadeTaskRepository, never()).completeIfLeased(any(), any(), any());
+    }
+
+    /**
+     * Given a task whose lease expires while it is processed
+     * When it is completed
+     * Then an exception is thrown, so that the deletions are rolled back
+     */
+    @Test
+    void testProcessFailsIfLeaseExpired() {
+        final CascadeTaskEntity task = buildTask(Status.RUNNING, 1);
+        when(cascadeTaskRepository.findById(task.getId())).thenReturn(Optional.of(task));
+        when(cascadeTaskRepository.completeIfLeased(any(), any(), any())).thenReturn(0);
+
+        assertThrows(IllegalStateException.class, () -> cascadeTaskQueue.process(claimed(task)));
+    }
+
+    /**
+     * Given a task that failed fewer times than the maximum number of attempts
+     * When the failure is recorded
+     * Then the task is retried after a backoff that doubles with each attempt
+     */
+    @Test
+    void testFailRetriesWithBackoff() {
+        final CascadeTaskEntity task = buildTask(Status.RUNNING, 2);
+        when(cascadeTaskRepository.findById(task.getId())).thenReturn(Optional.of(task));
+
+        cascadeTaskQueue.fail(claimed(task), new RuntimeException("test"));
+
+        assertThat(task.getStatus(), is(Status.PENDING));
+        assertThat(task.getLeaseOwner(), is(nullValue()));
+        assertThat(task.getLastError(), is("test"));
+        assertThat(task.getAvailableAt().isAfter(OffsetDateTime.now().plusSeconds(59)), is(true));
+        assertThat(task.getAvailableAt().isBefore(OffsetDateTime.now().plusSeconds(61)), is(true));
+    }
+
+    /**
+     * Given a task that failed in its last attempt
+     * When the failure is recorded
+     * Then the task is not retried anymore
+     */
+    @Test
+    void testFailAfterMaxAttempts() {
+        final CascadeTaskEntity task = buildTask(Status.RUNNING, 3);
+        when(cascadeTaskRepository.findById(task.getId())).thenReturn(Optional.of(task));
+
+        cascadeTaskQueue.fail(claimed(task), new RuntimeException("test"));
+
+        assertThat(task.getStatus(), is(Status.FAILED));
+    }
+
+    /**
+     * Given a task that was claimed again by another worker
+     * When the failure of the previous attempt is recorded
+     * Then the task is not changed
+     */
+    @Test
+    void testFailWithLostLeaseIsIgnored() {
+        final CascadeTaskEntity task = buildTask(Status.RUNNING, 2);
+        when(cascadeTaskRepository.findById(task.getId())).thenReturn(Optional.of(task));
+
+        cascadeTaskQueue.fail(new CascadeTaskQueue.ClaimedTask(task.getId(), UUID.randomUUID()),
+                new RuntimeException("test"));
+
+        assertThat(task.getStatus(), is(Status.RUNNING));
+        verify(cascadeTaskRepository, never()).save(any());
+    }
+
+    /**
+     * Given the retention of done tasks
+     * When done tasks are purged
+     * Then the tasks done before the retention are deleted
+     */
+    @Test
+    void testPurgeDoneTasks() {
+        when(cascadeTaskRepository.deleteDoneBefore(any())).thenReturn(3);
+
+        assertThat(cascadeTaskQueue.purgeDoneTasks(), is(3));
+
+        verify(cascadeTaskRepository).deleteDoneBefore(argThat(completedBefore ->
+                completedBefore.isBefore(OffsetDateTime.now().minusDays(6))));
+    }
+
+    @Test
+    void testCountByStatusContainsAllStatuses() {
+        final CascadeTaskRepository.StatusCount pending = mock(CascadeTaskRepository.StatusCount.class);
+        when(pending.getStatus()).thenReturn(Status.PENDING);
+        when(pending.getCount()).thenReturn(4L);
+        when(cascadeTaskRepository.countByStatus()).thenReturn(List.of(pending));
+
+        assertThat(cascadeTaskQueue.countByStatus(), is(Map.of(
+                Status.PENDING, 4L,
+                Status.RUNNING, 0L,
+                Status.DONE, 0L,
+                Status.FAILED, 0L)));
+    }
+
+    private static boolean isDeletionOf(final ChapterChangeEvent event, final UUID chapterId) {
+        return event.getOperation() == CrudOperation.DELETE && event.getChapterIds().equals(List.of(chapterId));
+    }
+
+    private static CascadeTaskQueue.ClaimedTask claimed(final CascadeTaskEntity task) {
+        return new CascadeTaskQueue.ClaimedTask(task.getId(), task.getLeaseOwner());
+    }
+
+    private static CascadeTaskEntity buildTask(final Status status, final int attempts) {
+        return CascadeTaskEntity.builder()
+                .id(UUID.randomUUID())
+                .eventId("event")
+                .chapterId(UUID.randomUUID())
+                .status(status)
+                .attempts(attempts)
+                .createdAt(OffsetDateTime.now())
+                .availableAt(OffsetDateTime.now())
+                .leaseOwner(status == Status.RUNNING ? UUID.randomUUID() : null)
+                .build();
+    }
+}
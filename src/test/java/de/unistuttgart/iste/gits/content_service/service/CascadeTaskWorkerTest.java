@@ -0,0 +1,96 @@
+package de.unistuttgart.iste.gits.content_service.service;
+
+import de.unistuttgart.iste.gits.common.exception.IncompleteEventMessageException;
+import de.unistuttgart.iste.gits.content_service.persistence.entity.CascadeTaskEntity.Status;
+import de.unistuttgart.iste.gits.content_service.service.CascadeTaskQueue.ClaimedTask;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.beans.factory.ObjectProvider;
+
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class CascadeTaskWorkerTest {
+
+    private final CascadeTaskQueue cascadeTaskQueue = Mockito.mock(CascadeTaskQueue.class);
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private CascadeTaskWorker worker;
+
+    @AfterEach
+    void tearDown() {
+        worker.shutdown();
+    }
+
+    /**
+     * Given pending tasks
+     * When the queue is polled
+     * Then only as many tasks are claimed as there are workers, and the claimed tasks are processed
+     */
+    @Test
+    void testPollProcessesClaimedTasks() throws IncompleteEventMessageException {
+        worker = createWorker(2);
+        final ClaimedTask task1 = new ClaimedTask(UUID.randomUUID(), UUID.randomUUID());
+        final ClaimedTask task2 = new ClaimedTask(UUID.randomUUID(), UUID.randomUUID());
+        when(cascadeTaskQueue.claim(2)).thenReturn(List.of(task1, task2));
+
+        assertThat(worker.poll(), is(2));
+
+        verify(cascadeTaskQueue, timeout(1000)).process(task1);
+        verify(cascadeTaskQueue, timeout(1000)).process(task2);
+        verify(cascadeTaskQueue, never()).fail(any(), any());
+        verify(cascadeTaskQueue, never()).countByStatus();
+    }
+
+    /**
+     * Given a task whose processing fails
+     * When the queue is polled
+     * Then the failure is recorded so that the task is retried
+     */
+    @Test
+    void testFailedTaskIsRecorded() throws IncompleteEventMessageException {
+        worker = createWorker(1);
+        final ClaimedTask task = new ClaimedTask(UUID.randomUUID(), UUID.randomUUID());
+        final RuntimeException error = new RuntimeException("test");
+        when(cascadeTaskQueue.claim(1)).thenReturn(List.of(task));
+        doThrow(error).when(cascadeTaskQueue).process(task);
+
+        worker.poll();
+
+        verify(cascadeTaskQueue, timeout(1000)).fail(task, error);
+    }
+
+    /**
+     * Given tasks of some statuses
+     * When the task counts are refreshed
+     * Then the gauge of each status shows its number of tasks
+     */
+    @Test
+    void testRefreshTaskCounts() {
+        worker = createWorker(1);
+        when(cascadeTaskQueue.countByStatus()).thenReturn(Map.of(Status.PENDING, 2L, Status.DONE, 5L));
+
+        worker.refreshTaskCounts();
+
+        assertThat(meterRegistry.get("content_service.cascade.tasks").tag("status", "PENDING").gauge().value(),
+                is(2.0));
+        assertThat(meterRegistry.get("content_service.cascade.tasks").tag("status", "DONE").gauge().value(),
+                is(5.0));
+    }
+
+    @SuppressWarnings("unchecked")
+    private CascadeTaskWorker createWorker(final int concurrency) {
+        final ObjectProvider<MeterRegistry> meterRegistryProvider = Mockito.mock(ObjectProvider.class);
+        when(meterRegistryProvider.getIfAvailable(any())).thenReturn(meterRegistry);
+        return new CascadeTaskWorker(cascadeTaskQueue, concurrency, meterRegistryProvider);
+    }
+}
@@ -0,0 +1,209 @@
+package de.unistuttgart.iste.gits.content_service.service;
+
+import de.unistuttgart.iste.gits.common.event.ContentProgressedEvent;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.beans.factory.ObjectProvider;
+
+import java.util.List;
+import java.util.UUID;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class ContentProgressedEventIngestionTest {
+
+    private final UserProgressDataService userProgressDataService = Mockito.mock(UserProgressDataService.class);
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    /**
+     * Given buffering is enabled
+     * When fewer events than the batch size are submitted
+     * Then they are only logged when the buffer is flushed, all in one batch
+     */
+    @Test
+    void testEventsAreLoggedOnFlush() {
+        final ContentProgressedEventIngestion ingestion = createIngestion(true, 10);
+        final ContentProgressedEvent event1 = buildEvent();
+        final ContentProgressedEvent event2 = buildEvent();
+
+        ingestion.submit(event1);
+        ingestion.submit(event2);
+
+        verify(userProgressDataService, never()).logUserProgress(anyList());
+        assertThat(meterRegistry.get("content_service.progress.ingestion.queue.depth").gauge().value(), is(2.0));
+
+        ingestion.flush();
+
+        verify(userProgressDataService).logUserProgress(List.of(event1, event2));
+        assertThat(meterRegistry.get("content_service.progress.ingestion.queue.depth").gauge().value(), is(0.0));
+        assertThat(meterRegistry.get("content_service.progress.ingestion.events").counter().count(), is(2.0));
+    }
+
+    /**
+     * Given buffering is enabled
+     * When a full batch of events is submitted
+     * Then the batch is logged without waiting for the next flush
+     */
+    @Test
+    void testFullBatchIsLoggedImmediately() {
+        final ContentProgressedEventIngestion ingestion = createIngestion(true, 2);
+        final ContentProgressedEvent event1 = buildEvent();
+        final ContentProgressedEvent event2 = buildEvent();
+
+        ingestion.submit(event1);
+        ingestion.submit(event2);
+
+        verify(userProgressDataService).logUserProgress(List.of(event1, event2));
+    }
+
+    /**
+     * Given buffering is disabled
+     * When an event is submitted
+     * Then it is logged immediately
+     */
+    @Test
+    void testEventIsLoggedImmediatelyIfBufferingIsDisabled() {
+        final ContentProgressedEventIngestion ingestion = createIngestion(false, 10);
+        final ContentProgressedEvent event = buildEvent();
+
+        ingestion.submit(event);
+
+        verify(userProgressDataService).logUserProgress(List.of(event));
+    }
+
+    /**
+     * Given logging a batch fails
+     * When the buffer is flushed
+     * Then the failure is counted and the buffer is empty afterward
+     */
+    @Test
+    void testFailedBatchIsCounted() {
+        final ContentProgressedEventIngestion ingestion = createIngestion(true, 10);
+        doThrow(new RuntimeException("test")).when(userProgressDataService).logUserProgress(anyList());
+
+        ingestion.submit(buildEvent());
+        ingestion.flush();
+
+        assertThat(meterRegistry.get("content_service.progress.ingestion.failed.events").counter().count(), is(1.0));
+        assertThat(meterRegistry.get("content_service.progress.ingestion.queue.depth").gauge().value(), is(0.0));
+    }
+
+    /**
+     * Given logging a batch fails because of one of its events
+     * When the buffer is flushed
+     * Then the other events are logged one by one and only the failing event is counted as failed
+     */
+    @Test
+    void testFailedBatchFallsBackToSingleEvents() {
+        final ContentProgressedEventIngestion ingestion = createIngestion(true, 10);
+        final ContentProgressedEvent event1 = buildEvent();
+        final ContentProgressedEvent failingEvent = buildEvent();
+        final ContentProgressedEvent event3 = buildEvent();
+        doThrow(new RuntimeException("test")).when(userProgressDataService)
+                .logUserProgress(List.of(event1, failingEvent, event3));
+        doThrow(new RuntimeException("test")).when(userProgressDataService)
+                .logUserProgress(List.of(failingEvent));
+
+        ingestion.submit(event1);
+        ingestion.submit(failingEvent);
+        ingestion.submit(event3);
+        ingestion.flush();
+
+        verify(userProgressDataService).logUserProgress(List.of(event1));
+        verify(userProgressDataService).logUserProgress(List.of(event3));
+        assertThat(meterRegistry.get("content_service.progress.ingestion.events").counter().count(), is(2.0));
+        assertThat(meterRegistry.get("content_service.progress.ingestion.failed.events").counter().count(), is(1.0));
+    }
+
+    /**
+     * Given buffering is disabled
+     * When logging a submitted event fails
+     * Then the event is not accepted, so that it is redelivered
+     */
+    @Test
+    void testFailedEventIsNotAcceptedIfBufferingIsDisabled() {
+        final ContentProgressedEventIngestion ingestion = createIngestion(false, 10);
+        doThrow(new RuntimeException("test")).when(userProgressDataService).logUserProgress(anyList());
+
+        assertThat(ingestion.submit(buildEvent()), is(false));
+    }
+
+    /**
+     * Given a full buffer
+     * When another event is submitted
+     * Then the event is rejected and counted
+     */
+    @Test
+    void testEventIsRejectedIfBufferIsFull() {
+        final ContentProgressedEventIngestion ingestion = createIngestion(true, 10, 2);
+
+        assertThat(ingestion.submit(buildEvent()), is(true));
+        assertThat(ingestion.submit(buildEvent()), is(true));
+        assertThat(ingestion.submit(buildEvent()), is(false));
+
+        assertThat(meterRegistry.get("content_service.progress.ingestion.rejected.events").counter().count(), is(1.0));
+        verify(userProgressDataService, never()).logUserProgress(anyList());
+    }
+
+    /**
+     * Given a thread logs a full batch
+     * When another full batch is submitted by another thread in the meantime
+     * Then the first thread returns after its batch and leaves the other batch to the next flush
+     */
+    @Test
+    void testSubmittingThreadLogsAtMostOneBatch() {
+        final ContentProgressedEventIngestion ingestion = createIngestion(true, 2);
+        final ContentProgressedEvent event1 = buildEvent();
+        final ContentProgressedEvent event2 = buildEvent();
+        final ContentProgressedEvent event3 = buildEvent();
+        final ContentProgressedEvent event4 = buildEvent();
+        doAnswer(invocation -> {
+            final Thread otherThread = new Thread(() -> {
+                ingestion.submit(event3);
+                ingestion.submit(event4);
+            });
+            otherThread.start();
+            otherThread.join();
+            return null;
+        }).when(userProgressDataService).logUserProgress(List.of(event1, event2));
+
+        ingestion.submit(event1);
+        ingestion.submit(event2);
+
+        verify(userProgressDataService, never()).logUserProgress(List.of(event3, event4));
+        assertThat(meterRegistry.get("content_service.progress.ingestion.queue.depth").gauge().value(), is(2.0));
+
+        ingestion.flush();
+
+        verify(userProgressDataService).logUserProgress(List.of(event3, event4));
+    }
+
+    private ContentProgressedEventIngestion createIngestion(final boolean bufferingEnabled, final int batchSize) {
+        return createIngestion(bufferingEnabled, batchSize, 1000);
+    }
+
+    @SuppressWarnings("unchecked")
+    private ContentProgressedEventIngestion createIngestion(final boolean bufferingEnabled,
+                                                            final int batchSize,
+                                                            final int capacity) {
+        final ObjectProvider<MeterRegistry> meterRegistryProvider = Mockito.mock(ObjectProvider.class);
+        when(meterRegistryProvider.getIfAvailable(any())).thenReturn(meterRegistry);
+        return new ContentProgressedEventIngestion(userProgressDataService, bufferingEnabled, batchSize, capacity,
+                meterRegistryProvider);
+    }
+
+    private static ContentProgressedEvent buildEvent() {
+        return ContentProgressedEvent.builder()
+                .userId(UUID.randomUUID())
+                .contentId(UUID.randomUUID())
+                .success(true)
+                .correctness(1.0)
+                .hintsUsed(0)
+                .build();
+    }
+}
@@ -6,6 +6,7 @@ import de.unistuttgart.iste.gits.common.event.CrudOperation;
 import de.unistuttgart.iste.gits.common.exception.IncompleteEventMessageException;
 import de.unistuttgart.iste.gits.common.testutil.MockTestPublisherConfiguration;
 import de.unistuttgart.iste.gits.content_service.TestData;
+import de.unistuttgart.iste.gits.content_service.dapr.InMemoryCacheInvalidationPublisher;
 import de.unistuttgart.iste.gits.content_service.persistence.entity.*;
 import de.unistuttgart.iste.gits.content_service.persistence.mapper.ContentMapper;
 import de.unistuttgart.iste.gits.content_service.persistence.repository.*;
@@ -13,9 +14,9 @@ import de.unistuttgart.iste.gits.content_service.validation.ContentValidator;
 import de.unistuttgart.iste.gits.generated.dto.*;
 import org.junit.jupiter.api.Test;
 import org.mockito.Mockito;
-import org.modelmapper.ModelMapper;
 import org.springframework.test.context.ContextConfiguration;
 
+import java.time.Duration;
 import java.time.OffsetDateTime;
 import java.util.*;
 
@@ -32,13 +33,18 @@ class ContentServiceTest {
     private final ContentRepository contentRepository = Mockito.mock(ContentRepository.class);
     private final SectionRepository sectionRepository = Mockito.mock(SectionRepository.class);
     private final StageService stageService = Mockito.mock(StageService.class);
-    private final ContentMapper contentMapper = new ContentMapper(new ModelMapper());
+    private final ContentMapper contentMapper = new ContentMapper();
     private final ContentValidator contentValidator = Mockito.spy(ContentValidator.class);
     private final TopicPublisher mockPublisher = Mockito.mock(TopicPublisher.class);
     private final UserProgressDataRepository userProgressDataRepository = Mockito.mock(UserProgressDataRepository.class);
+    private final ProgressLogItemRepository progressLogItemRepository = Mockito.mock(ProgressLogItemRepository.class);
+    private final UserChapterProgressRepository userChapterProgressRepository = Mockito.mock(UserChapterProgressRepository.class);
+
+    private final ContentCache contentCache = new ContentCache(100, Duration.ofMinutes(10));
+    private final InMemoryCacheInvalidationPublisher cacheInvalidationPublisher = new InMemoryCacheInvalidationPublisher();
 
     private final ContentService contentService = new ContentService(contentRepository, sectionRepository, userProgressDataRepository,
-            stageService, contentMapper, contentValidator, mockPublisher);
+            progressLogItemRepository, userChapterProgressRepository, stageService, contentMapper, contentValidator, mockPublisher, contentCache, cacheInvalidationPublisher);
 
 
     @Test
@@ -76,16 +82,36 @@ class ContentServiceTest {
 
         //mock repository
         when(contentRepository.findByChapterIdIn(dto.getChapterIds())).thenReturn(List.of(testEntity, testEntity2));
-        Mockito.doNothing().when(contentRepository).delete(any(ContentEntity.class));
 
         //execute method under test
         assertDoesNotThrow(() -> contentService.cascadeContentDeletion(dto));
 
-        verify(contentRepository, times(1)).delete(argThat(content -> content.getId().equals(testEntity.getId())));
-        verify(contentRepository, times(1)).delete(argThat(content -> content.getId().equals(testEntity2.getId())));
-        verify(mockPublisher, times(1)).notifyContentChanges(List.of(testEntity.getId(), testEntity2.getId()), CrudOperation.DELETE);
-        verify(userProgressDataRepository, times(1)).deleteByContentId(argThat(content -> content.equals(testEntity.getId())));
-        verify(userProgressDataRepository, times(1)).deleteByContentId(argThat(content -> content.equals(testEntity2.getId())));
+        // all dependencies are deleted with one statement each, regardless of the number of contents
+        final List<UUID> contentIds = List.of(testEntity.getId(), testEntity2.getId());
+        verify(userProgressDataRepository, times(1)).deleteByContentIdIn(contentIds);
+        verify(progressLogItemRepository, times(1)).deleteByContentIdIn(contentIds);
+        verify(stageService, times(1)).deleteContentLinksFromStages(contentIds);
+        verify(contentRepository, times(1)).deleteTagsByContentIdIn(contentIds);
+        verify(contentRepository, times(1)).deleteByIdIn(contentIds);
+        verify(contentRepository, never()).delete(any(ContentEntity.class));
+        verify(userProgressDataRepository, never()).deleteByContentId(any());
+        verify(userChapterProgressRepository, times(1)).deleteByChapterIdIn(dto.getChapterIds());
+        verify(mockPublisher, times(1)).notifyContentChanges(contentIds, CrudOperation.DELETE);
+    }
+
+    @Test
+    void cascadeContentDeletionWithoutContents() {
+        final ChapterChangeEvent dto = ChapterChangeEvent.builder()
+                .chapterIds(List.of(UUID.randomUUID()))
+                .operation(CrudOperation.DELETE)
+                .build();
+
+        when(contentRepository.findByChapterIdIn(dto.getChapterIds())).thenReturn(List.of());
+
+        assertDoesNotThrow(() -> contentService.cascadeContentDeletion(dto));
+
+        verify(contentRepository, never()).deleteByIdIn(any());
+        verifyNoInteractions(mockPublisher);
     }
 
     @Test
@@ -123,12 +149,11 @@ class ContentServiceTest {
         final UUID chapterId1 = UUID.randomUUID();
         final UUID chapterId2 = UUID.randomUUID();
 
-        when(contentRepository.findSkillTypesByChapterId(chapterId1)).thenReturn(
-                List.of(List.of(SkillType.REMEMBER), List.of(SkillType.UNDERSTAND, SkillType.REMEMBER))
-        );
-        when(contentRepository.findSkillTypesByChapterId(chapterId2)).thenReturn(
-                List.of(List.of(SkillType.APPLY, SkillType.REMEMBER))
-        );
+        when(contentRepository.findSkillTypesByChapterIdIn(Set.of(chapterId1, chapterId2))).thenReturn(List.of(
+                chapterSkillTypes(chapterId1, List.of(SkillType.REMEMBER)),
+                chapterSkillTypes(chapterId1, List.of(SkillType.UNDERSTAND, SkillType.REMEMBER)),
+                chapterSkillTypes(chapterId2, List.of(SkillType.APPLY, SkillType.REMEMBER))
+        ));
 
         final var actualSkillTypes = contentService.getAchievableSkillTypesByChapterIds(List.of(chapterId1, chapterId2));
 
@@ -136,14 +161,15 @@ class ContentServiceTest {
                 containsInAnyOrder(SkillType.REMEMBER, SkillType.UNDERSTAND),
                 containsInAnyOrder(SkillType.REMEMBER, SkillType.APPLY)
         ));
+        verify(contentRepository, times(1)).findSkillTypesByChapterIdIn(any());
     }
 
     @Test
     void testSkillTypesByChapterIdNoSkillTypes() {
         final UUID chapterId = UUID.randomUUID();
 
-        when(contentRepository.findSkillTypesByChapterId(chapterId)).thenReturn(
-                List.of(List.of())
+        when(contentRepository.findSkillTypesByChapterIdIn(Set.of(chapterId))).thenReturn(
+                List.of(chapterSkillTypes(chapterId, List.of()))
         );
 
         final var actualSkillTypes = contentService.getAchievableSkillTypesByChapterIds(List.of(chapterId));
@@ -151,6 +177,47 @@ class ContentServiceTest {
         assertThat(actualSkillTypes, contains(is(empty())));
     }
 
+    /**
+     * Given the skill types of a chapter were already requested
+     * When they are requested again, and again after an assessment of the chapter was updated
+     * Then the database is only queried the first time and after the update
+     */
+    @Test
+    void testSkillTypesByChapterIdAreCachedUntilAssessmentChanges() {
+        final UUID chapterId = UUID.randomUUID();
+        final AssessmentEntity assessmentEntity = TestData.assessmentEntityWithSkillType(UUID.randomUUID(), chapterId,
+                SkillType.REMEMBER);
+        assessmentEntity.setId(UUID.randomUUID());
+
+        when(contentRepository.findSkillTypesByChapterIdIn(Set.of(chapterId))).thenReturn(
+                List.of(chapterSkillTypes(chapterId, List.of(SkillType.REMEMBER))));
+        when(contentRepository.findById(assessmentEntity.getId())).thenReturn(Optional.of(assessmentEntity));
+        when(contentRepository.save(any())).thenReturn(assessmentEntity);
+
+        contentService.getAchievableSkillTypesByChapterIds(List.of(chapterId));
+        contentService.getAchievableSkillTypesByChapterIds(List.of(chapterId));
+        verify(contentRepository, times(1)).findSkillTypesByChapterIdIn(any());
+
+        contentService.addTagToContent(assessmentEntity.getId(), "tag");
+        contentService.getAchievableSkillTypesByChapterIds(List.of(chapterId));
+        verify(contentRepository, times(2)).findSkillTypesByChapterIdIn(any());
+    }
+
+    private static ContentRepository.ChapterSkillTypes chapterSkillTypes(final UUID chapterId,
+                                                                         final List<SkillType> skillTypes) {
+        return new ContentRepository.ChapterSkillTypes() {
+            @Override
+            public UUID getChapterId() {
+                return chapterId;
+            }
+
+            @Override
+            public List<SkillType> getSkillTypes() {
+                return skillTypes;
+            }
+        };
+    }
+
     @Test
     void getContentWithNoSection() {
         final UUID chapterId = UUID.randomUUID();
@@ -219,4 +286,141 @@ class ContentServiceTest {
     private StageEntity.StageEntityBuilder buildDummyStage() {
         return StageEntity.builder().id(UUID.randomUUID()).position(0);
     }
-}
\ No newline at end of file
+
+    /**
+     * Given contents of a chapter that were already requested
+     * When the contents of the chapter are requested again
+     * Then the contents are returned from the cache without querying the database
+     */
+    @Test
+    void testContentsByChapterIdsAreCached() {
+        final UUID chapterId = UUID.randomUUID();
+        final ContentEntity contentEntity = buildMediaContentEntity(chapterId);
+
+        when(contentRepository.findByChapterIdIn(List.of(chapterId))).thenReturn(List.of(contentEntity));
+
+        final List<List<Content>> first = contentService.getContentsByChapterIds(List.of(chapterId));
+        final List<List<Content>> second = contentService.getContentsByChapterIds(List.of(chapterId));
+
+        assertThat(first, hasSize(1));
+        assertThat(first.get(0), hasSize(1));
+        assertThat(second, is(first));
+        verify(contentRepository, times(1)).findByChapterIdIn(List.of(chapterId));
+    }
+
+    /**
+     * Given a content that users have learned
+     * When the content is moved to another chapter
+     * Then it is moved from the chapter progress of the old chapter to the one of the new chapter
+     */
+    @Test
+    void testMovingContentToOtherChapterMovesChapterProgress() {
+        final UUID oldChapterId = UUID.randomUUID();
+        final UUID newChapterId = UUID.randomUUID();
+        final ContentEntity contentEntity = buildMediaContentEntity(oldChapterId);
+        final UpdateMediaContentInput input = UpdateMediaContentInput.builder()
+                .setMetadata(UpdateContentMetadataInput.builder()
+                        .setName("Test")
+                        .setSuggestedDate(OffsetDateTime.now())
+                        .setRewardPoints(10)
+                        .setChapterId(newChapterId)
+                        .setTagNames(List.of())
+                        .build())
+                .build();
+
+        when(contentRepository.findById(contentEntity.getId())).thenReturn(Optional.of(contentEntity));
+        when(contentRepository.save(any(ContentEntity.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        contentService.updateMediaContent(contentEntity.getId(), input);
+
+        verify(userChapterProgressRepository).addLearnedContentsOfContents(List.of(contentEntity.getId()), oldChapterId, -1);
+        verify(userChapterProgressRepository).addLearnedContentsOfContents(List.of(contentEntity.getId()), newChapterId, 1);
+    }
+
+    /**
+     * Given contents of a chapter that are cached
+     * When a tag is added to one of the contents
+     * Then the cached contents of the chapter are invalidated and loaded again on the next request
+     */
+    @Test
+    void testAddTagInvalidatesCachedContents() {
+        final UUID chapterId = UUID.randomUUID();
+        final ContentEntity contentEntity = buildMediaContentEntity(chapterId);
+
+        when(contentRepository.findByChapterIdIn(List.of(chapterId))).thenReturn(List.of(contentEntity));
+        when(contentRepository.findById(contentEntity.getId())).thenReturn(Optional.of(contentEntity));
+        when(contentRepository.save(any(ContentEntity.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        contentService.getContentsByChapterIds(List.of(chapterId));
+        contentService.addTagToContent(contentEntity.getId(), "newTag");
+        final List<List<Content>> actual = contentService.getContentsByChapterIds(List.of(chapterId));
+
+        assertThat(actual.get(0).get(0).getMetadata().getTagNames(), contains("newTag"));
+        verify(contentRepository, times(2)).findByChapterIdIn(List.of(chapterId));
+    }
+
+    @Test
+    void testAddTagInvalidatesCachesOfOtherReplicas() {
+        final UUID chapterId = UUID.randomUUID();
+        final ContentEntity contentEntity = buildMediaContentEntity(chapterId);
+        final Content cachedContent = contentMapper.entityToDto(contentEntity);
+
+        // simulates the cache of another replica that receives the broadcast invalidations
+        final ContentCache otherReplicaCache = new ContentCache(100, Duration.ofMinutes(10));
+        cacheInvalidationPublisher.subscribe(otherReplicaCache::invalidate);
+        otherReplicaCache.getContentsByChapterIds(List.of(chapterId), ids -> Map.of(chapterId, List.of(cachedContent)));
+
+        when(contentRepository.findById(contentEntity.getId())).thenReturn(Optional.of(contentEntity));
+        when(contentRepository.save(any(ContentEntity.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        contentService.addTagToContent(contentEntity.getId(), "newTag");
+
+        assertThat(cacheInvalidationPublisher.getPublishedEvents(), hasSize(1));
+        assertThat(cacheInvalidationPublisher.getPublishedEvents().get(0).getContentIds(), contains(contentEntity.getId()));
+        assertThat(cacheInvalidationPublisher.getPublishedEvents().get(0).getChapterIds(), contains(chapterId));
+
+        final Map<UUID, List<Content>> actual = otherReplicaCache.getContentsByChapterIds(List.of(chapterId),
+                ids -> Map.of(chapterId, List.of()));
+        assertThat(actual.get(chapterId), is(empty()));
+    }
+
+    /**
+     * Given a disabled content cache
+     * When the contents of a chapter are requested twice and a tag is added in between
+     * Then both requests go to the database and no invalidation is broadcast
+     */
+    @Test
+    void testDisabledCacheReadsThrough() {
+        final ContentService uncachedContentService = new ContentService(contentRepository, sectionRepository,
+                userProgressDataRepository, progressLogItemRepository, userChapterProgressRepository, stageService,
+                contentMapper, contentValidator, mockPublisher, ContentCache.disabled(), cacheInvalidationPublisher);
+        final UUID chapterId = UUID.randomUUID();
+        final ContentEntity contentEntity = buildMediaContentEntity(chapterId);
+
+        when(contentRepository.findByChapterIdIn(List.of(chapterId))).thenReturn(List.of(contentEntity));
+        when(contentRepository.findById(contentEntity.getId())).thenReturn(Optional.of(contentEntity));
+        when(contentRepository.save(any(ContentEntity.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        uncachedContentService.getContentsByChapterIds(List.of(chapterId));
+        uncachedContentService.addTagToContent(contentEntity.getId(), "newTag");
+        final List<List<Content>> actual = uncachedContentService.getContentsByChapterIds(List.of(chapterId));
+
+        assertThat(actual.get(0).get(0).getMetadata().getTagNames(), contains("newTag"));
+        verify(contentRepository, times(2)).findByChapterIdIn(List.of(chapterId));
+        assertThat(cacheInvalidationPublisher.getPublishedEvents(), is(empty()));
+    }
+
+    private static ContentEntity buildMediaContentEntity(final UUID chapterId) {
+        return ContentEntity.builder()
+                .id(UUID.randomUUID())
+                .metadata(ContentMetadataEmbeddable.builder()
+                        .chapterId(chapterId)
+                        .courseId(UUID.randomUUID())
+                        .name("Test")
+                        .rewardPoints(10)
+                        .type(ContentType.MEDIA)
+                        .suggestedDate(OffsetDateTime.now())
+                        .build())
+                .build();
+    }
+}
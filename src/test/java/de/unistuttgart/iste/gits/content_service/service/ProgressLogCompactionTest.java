@@ -0,0 +1,138 @@
+package de.unistuttgart.iste.gits.content_service.service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.beans.factory.ObjectProvider;
+
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.util.UUID;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class ProgressLogCompactionTest {
+
+    private final UserProgressDataService userProgressDataService = Mockito.mock(UserProgressDataService.class);
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    /**
+     * Given more (user, content) pairs exist than fit into one batch
+     * When the compaction runs without a limit of batches per run
+     * Then each batch continues after the last pair of the previous one until no pairs are left
+     * and the compacted entries are counted
+     */
+    @Test
+    void testCompactsUntilNoPairsAreLeft() {
+        final ProgressLogCompaction compaction = createCompaction(true);
+        final UserProgressDataKey firstLastKey = new UserProgressDataKey(UUID.randomUUID(), UUID.randomUUID());
+        final UserProgressDataKey secondLastKey = new UserProgressDataKey(UUID.randomUUID(), UUID.randomUUID());
+        when(userProgressDataService.compactProgressLog(any(), eq(5), isNull(), eq(10)))
+                .thenReturn(new UserProgressDataService.CompactedBatch(10, firstLastKey));
+        when(userProgressDataService.compactProgressLog(any(), eq(5), eq(firstLastKey), eq(10)))
+                .thenReturn(new UserProgressDataService.CompactedBatch(10, secondLastKey));
+        when(userProgressDataService.compactProgressLog(any(), eq(5), eq(secondLastKey), eq(10)))
+                .thenReturn(new UserProgressDataService.CompactedBatch(3, null));
+
+        final long compacted = compaction.compact();
+
+        assertThat(compacted, is(23L));
+        verify(userProgressDataService, times(3)).compactProgressLog(argThat(olderThan ->
+                olderThan.isBefore(OffsetDateTime.now().minusDays(29))), eq(5), any(), eq(10));
+        assertThat(meterRegistry.get("content_service.progress.compaction.items").counter().count(), is(23.0));
+        assertThat(meterRegistry.get("content_service.progress.compaction.run").timer().count(), is(1L));
+    }
+
+    /**
+     * Given more batches are left than may be compacted in one run
+     * When the compaction runs twice
+     * Then the first run stops after the maximum number of batches and the second run continues after its last pair
+     */
+    @Test
+    void testRunIsLimitedAndResumed() {
+        final ProgressLogCompaction compaction = createCompaction(true, 2, Duration.ofHours(6));
+        final UserProgressDataKey firstLastKey = new UserProgressDataKey(UUID.randomUUID(), UUID.randomUUID());
+        final UserProgressDataKey secondLastKey = new UserProgressDataKey(UUID.randomUUID(), UUID.randomUUID());
+        when(userProgressDataService.compactProgressLog(any(), eq(5), isNull(), eq(10)))
+                .thenReturn(new UserProgressDataService.CompactedBatch(10, firstLastKey));
+        when(userProgressDataService.compactProgressLog(any(), eq(5), eq(firstLastKey), eq(10)))
+                .thenReturn(new UserProgressDataService.CompactedBatch(10, secondLastKey));
+        when(userProgressDataService.compactProgressLog(any(), eq(5), eq(secondLastKey), eq(10)))
+                .thenReturn(new UserProgressDataService.CompactedBatch(3, null));
+
+        assertThat(compaction.compact(), is(20L));
+        verify(userProgressDataService, never()).compactProgressLog(any(), anyInt(), eq(secondLastKey), anyInt());
+
+        assertThat(compaction.compact(), is(3L));
+        verify(userProgressDataService, times(1)).compactProgressLog(any(), anyInt(), eq(secondLastKey), anyInt());
+    }
+
+    /**
+     * Given a walk over all pairs was finished
+     * When the compaction runs again before the walk interval has passed
+     * Then no new walk is started
+     */
+    @Test
+    void testNoNewWalkBeforeWalkInterval() {
+        final ProgressLogCompaction compaction = createCompaction(true, 20, Duration.ofHours(6));
+        when(userProgressDataService.compactProgressLog(any(), anyInt(), any(), anyInt()))
+                .thenReturn(new UserProgressDataService.CompactedBatch(3, null));
+
+        assertThat(compaction.compact(), is(3L));
+        assertThat(compaction.compact(), is(0L));
+        verify(userProgressDataService, times(1)).compactProgressLog(any(), anyInt(), any(), anyInt());
+    }
+
+    /**
+     * Given compacting a batch fails
+     * When the compaction runs
+     * Then the entries compacted before the failure are reported
+     */
+    @Test
+    void testFailedBatchStopsRun() {
+        final ProgressLogCompaction compaction = createCompaction(true);
+        final UserProgressDataKey lastKey = new UserProgressDataKey(UUID.randomUUID(), UUID.randomUUID());
+        when(userProgressDataService.compactProgressLog(any(), anyInt(), any(), anyInt()))
+                .thenReturn(new UserProgressDataService.CompactedBatch(10, lastKey))
+                .thenThrow(new RuntimeException("test"))
+                .thenReturn(new UserProgressDataService.CompactedBatch(2, null));
+
+        assertThat(compaction.compact(), is(10L));
+        verify(userProgressDataService, times(2)).compactProgressLog(any(), anyInt(), any(), anyInt());
+
+        // the next run retries the failed batch
+        assertThat(compaction.compact(), is(2L));
+        verify(userProgressDataService, times(2)).compactProgressLog(any(), anyInt(), eq(lastKey), anyInt());
+    }
+
+    /**
+     * Given the compaction is disabled
+     * When the compaction runs
+     * Then nothing is compacted
+     */
+    @Test
+    void testDisabledCompactionDoesNothing() {
+        final ProgressLogCompaction compaction = createCompaction(false);
+
+        assertThat(compaction.compact(), is(0L));
+        verifyNoInteractions(userProgressDataService);
+    }
+
+    private ProgressLogCompaction createCompaction(final boolean enabled) {
+        return createCompaction(enabled, Integer.MAX_VALUE, Duration.ZERO);
+    }
+
+    @SuppressWarnings("unchecked")
+    private ProgressLogCompaction createCompaction(final boolean enabled,
+                                                  final int maxBatchesPerRun,
+                                                  final Duration walkInterval) {
+        final ObjectProvider<MeterRegistry> meterRegistryProvider = Mockito.mock(ObjectProvider.class);
+        when(meterRegistryProvider.getIfAvailable(any())).thenReturn(meterRegistry);
+        return new ProgressLogCompaction(userProgressDataService, enabled, Duration.ofDays(30), 5, 10,
+                maxBatchesPerRun, walkInterval, meterRegistryProvider);
+    }
+}
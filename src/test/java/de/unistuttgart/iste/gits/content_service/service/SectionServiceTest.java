@@ -3,15 +3,15 @@ package de.unistuttgart.iste.gits.content_service.service;
 import de.unistuttgart.iste.gits.common.event.ChapterChangeEvent;
 import de.unistuttgart.iste.gits.common.event.CrudOperation;
 import de.unistuttgart.iste.gits.common.exception.IncompleteEventMessageException;
-import de.unistuttgart.iste.gits.content_service.persistence.entity.SectionEntity;
-import de.unistuttgart.iste.gits.content_service.persistence.entity.StageEntity;
+import de.unistuttgart.iste.gits.content_service.dapr.InMemoryCacheInvalidationPublisher;
+import de.unistuttgart.iste.gits.content_service.TestData;
+import de.unistuttgart.iste.gits.content_service.persistence.entity.*;
 import de.unistuttgart.iste.gits.content_service.persistence.mapper.*;
-import de.unistuttgart.iste.gits.content_service.persistence.repository.SectionRepository;
+import de.unistuttgart.iste.gits.content_service.persistence.repository.*;
 import de.unistuttgart.iste.gits.generated.dto.*;
 import jakarta.persistence.EntityNotFoundException;
 import org.junit.jupiter.api.Test;
 import org.mockito.Mockito;
-import org.modelmapper.ModelMapper;
 
 import java.util.*;
 
@@ -21,11 +21,14 @@ import static org.mockito.Mockito.*;
 
 class SectionServiceTest {
 
-    private final StageMapper stageMapper = new StageMapper(new ContentMapper(new ModelMapper()));
+    private final StageMapper stageMapper = new StageMapper(new ContentMapper());
     private final SectionMapper sectionMapper = new SectionMapper(stageMapper);
     private final SectionRepository sectionRepository = Mockito.mock(SectionRepository.class);
+    private final StageRepository stageRepository = Mockito.mock(StageRepository.class);
+    private final ContentRepository contentRepository = Mockito.mock(ContentRepository.class);
 
-    private final SectionService sectionService = new SectionService(sectionMapper, sectionRepository);
+    private final SectionService sectionService = new SectionService(sectionMapper, sectionRepository,
+            stageRepository, contentRepository, new InMemoryCacheInvalidationPublisher());
 
     @Test
     void createSectionTest() {
@@ -118,6 +121,45 @@ class SectionServiceTest {
         assertThrows(EntityNotFoundException.class, () -> sectionService.updateSectionName(sectionId, newName));
     }
 
+    /**
+     * Given a chapter with a section, a stage and contents
+     * When the sections of the chapter are requested
+     * Then each level of the section tree is fetched with a single query instead of lazily per entity
+     */
+    @Test
+    void getSectionsByChapterIdsFetchesTreeLevelByLevel() {
+        final UUID chapterId = UUID.randomUUID();
+        final ContentEntity requiredContent = TestData.buildContentEntity(chapterId);
+        final ContentEntity optionalContent = TestData.buildContentEntity(chapterId);
+        final StageEntity stageEntity = StageEntity.builder()
+                .id(UUID.randomUUID())
+                .position(0)
+                .requiredContents(Set.of(requiredContent))
+                .optionalContents(Set.of(optionalContent))
+                .build();
+        final SectionEntity sectionEntity = SectionEntity.builder()
+                .id(UUID.randomUUID())
+                .chapterId(chapterId)
+                .name("Test Section")
+                .stages(Set.of(stageEntity))
+                .build();
+        stageEntity.setSectionId(sectionEntity.getId());
+
+        when(sectionRepository.findWithStagesByChapterIdInOrderByPosition(List.of(chapterId)))
+                .thenReturn(List.of(sectionEntity));
+        when(stageRepository.findWithRequiredContentsBySectionIdIn(List.of(sectionEntity.getId())))
+                .thenReturn(List.of(stageEntity));
+
+        final List<List<Section>> result = sectionService.getSectionsByChapterIds(List.of(chapterId));
+
+        assertEquals(1, result.size());
+        assertEquals(1, result.get(0).size());
+        assertEquals(1, result.get(0).get(0).getStages().size());
+        verify(stageRepository).findWithOptionalContentsBySectionIdIn(List.of(sectionEntity.getId()));
+        verify(contentRepository).findWithTagsByIdIn(Set.of(requiredContent.getId(), optionalContent.getId()));
+        verify(sectionRepository, never()).findByChapterIdInOrderByPosition(any());
+    }
+
     @Test
     void cascadeSectionDeletionWithValidData() {
         // Initialize a ChapterChangeEvent DTO with valid data
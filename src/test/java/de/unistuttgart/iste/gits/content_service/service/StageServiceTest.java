@@ -1,5 +1,6 @@
 package de.unistuttgart.iste.gits.content_service.service;
 
+import de.unistuttgart.iste.gits.content_service.dapr.InMemoryCacheInvalidationPublisher;
 import de.unistuttgart.iste.gits.content_service.persistence.entity.*;
 import de.unistuttgart.iste.gits.content_service.persistence.mapper.ContentMapper;
 import de.unistuttgart.iste.gits.content_service.persistence.mapper.StageMapper;
@@ -8,7 +9,6 @@ import de.unistuttgart.iste.gits.generated.dto.*;
 import jakarta.persistence.EntityNotFoundException;
 import org.junit.jupiter.api.Test;
 import org.mockito.Mockito;
-import org.modelmapper.ModelMapper;
 
 import java.time.OffsetDateTime;
 import java.util.*;
@@ -24,13 +24,14 @@ class StageServiceTest {
 
     private final ContentRepository contentRepository = Mockito.mock(ContentRepository.class);
 
-    private final StageMapper stageMapper = new StageMapper(new ContentMapper(new ModelMapper()));
+    private final StageMapper stageMapper = new StageMapper(new ContentMapper());
 
     private final StageService stageService = new StageService(
             stageRepository,
             sectionRepository,
             contentRepository,
-            stageMapper);
+            stageMapper,
+            new InMemoryCacheInvalidationPublisher());
 
     @Test
     void createNewStageTest() {
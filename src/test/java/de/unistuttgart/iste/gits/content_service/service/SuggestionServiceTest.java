@@ -4,8 +4,8 @@ import de.unistuttgart.iste.gits.generated.dto.*;
 import org.junit.jupiter.api.Test;
 
 import java.time.OffsetDateTime;
-import java.util.List;
-import java.util.UUID;
+import java.util.*;
+import java.util.function.Function;
 
 import static java.time.OffsetDateTime.now;
 import static org.hamcrest.MatcherAssert.assertThat;
@@ -15,59 +15,48 @@ import static org.mockito.Mockito.*;
 
 class SuggestionServiceTest {
 
-    private final SectionService sectionService = mock(SectionService.class);
     private final UserProgressDataService userProgressDataService = mock(UserProgressDataService.class);
-    private final SuggestionService suggestionService = new SuggestionService(sectionService, userProgressDataService);
+    private final SuggestionService suggestionService = new SuggestionService(userProgressDataService);
 
     @Test
     void testCreateSuggestionsNoSections() {
         // Arrange
-        final List<UUID> chapterIds = List.of(UUID.randomUUID(), UUID.randomUUID());
-        doReturn(List.of()).when(sectionService).getSectionsByChapterIds(chapterIds);
         final UUID userId = UUID.randomUUID();
         // Act
-        final List<Content> requiredContents = suggestionService.getAvailableRequiredContentsOfChaptersForUser(chapterIds, userId);
-        final List<Content> optionalContents = suggestionService.getAvailableOptionalContentsOfChaptersForUser(chapterIds, userId);
-        final List<Suggestion> actual = suggestionService.createSuggestions(requiredContents, optionalContents, userId, 5, List.of());
+        final List<Suggestion> actual = suggestionService.createSuggestions(List.of(), userId, 5, List.of());
         // Assert
         assertThat(actual, is(empty()));
         // Verify
         verifyNoInteractions(userProgressDataService);
-        verify(sectionService, times(2)).getSectionsByChapterIds(chapterIds);
     }
 
     @Test
     void testCreateSuggestionsNoStages() {
         // Arrange
-        final List<UUID> chapterIds = List.of(UUID.randomUUID(), UUID.randomUUID());
+        final UUID chapterId = UUID.randomUUID();
         final UUID userId = UUID.randomUUID();
 
         final Section section = Section.builder()
-                .setChapterId(chapterIds.get(0))
+                .setChapterId(chapterId)
                 .setStages(List.of())
                 .build();
-
-        doReturn(List.of(List.of(section))).when(sectionService).getSectionsByChapterIds(chapterIds);
         // Act
-        final List<Content> requiredContents = suggestionService.getAvailableRequiredContentsOfChaptersForUser(chapterIds, userId);
-        final List<Content> optionalContents = suggestionService.getAvailableOptionalContentsOfChaptersForUser(chapterIds, userId);
-        final List<Suggestion> actual = suggestionService.createSuggestions(requiredContents, optionalContents, userId, 5, List.of());
+        final List<Suggestion> actual = suggestionService.createSuggestions(List.of(section), userId, 5, List.of());
 
         // Assert
         assertThat(actual, is(empty()));
         // Verify
         verifyNoInteractions(userProgressDataService);
-        verify(sectionService, times(2)).getSectionsByChapterIds(chapterIds);
     }
 
     @Test
     void testCreateSuggestionsSortByDueDate() {
         // Arrange
-        final List<UUID> chapterIds = List.of(UUID.randomUUID());
+        final UUID chapterId = UUID.randomUUID();
         final UUID userId = UUID.randomUUID();
 
         final Section section = Section.builder()
-                .setChapterId(chapterIds.get(0))
+                .setChapterId(chapterId)
                 .setStages(List.of(
                         Stage.builder()
                                 .setRequiredContents(
@@ -81,16 +70,12 @@ class SuggestionServiceTest {
                                 .build()))
                 .build();
 
-        doReturn(List.of(List.of(section))).when(sectionService).getSectionsByChapterIds(chapterIds);
-
         final UserProgressData userProgressData = UserProgressData.builder().setIsLearned(false).build();
 
-        doReturn(userProgressData).when(userProgressDataService).getUserProgressData(any(), any());
+        mockUserProgressData(userId, contentId -> userProgressData);
 
         // Act
-        final List<Content> requiredContents = suggestionService.getAvailableRequiredContentsOfChaptersForUser(chapterIds, userId);
-        final List<Content> optionalContents = suggestionService.getAvailableOptionalContentsOfChaptersForUser(chapterIds, userId);
-        final List<Suggestion> actual = suggestionService.createSuggestions(requiredContents, optionalContents, userId, 3, List.of());
+        final List<Suggestion> actual = suggestionService.createSuggestions(List.of(section), userId, 3, List.of());
 
         // Assert
         assertThat(actual.get(0).getContent().getMetadata().getName(), is("minus5"));
@@ -102,8 +87,7 @@ class SuggestionServiceTest {
         assertThat(actual.get(2).getType(), is(SuggestionType.NEW_CONTENT));
 
         // Verify
-        verify(userProgressDataService, atLeastOnce()).getUserProgressData(any(), any());
-        verify(sectionService, times(2)).getSectionsByChapterIds(chapterIds);
+        verifyProgressDataLoadedOnce(userId);
     }
 
     /**
@@ -114,11 +98,11 @@ class SuggestionServiceTest {
     @Test
     void testCreateSuggestionsSortByNextLearnDate() {
         // Arrange
-        final List<UUID> chapterIds = List.of(UUID.randomUUID());
+        final UUID chapterId = UUID.randomUUID();
         final UUID userId = UUID.randomUUID();
 
         final Section section = Section.builder()
-                .setChapterId(chapterIds.get(0))
+                .setChapterId(chapterId)
                 .setStages(List.of(
                         Stage.builder()
                                 .setRequiredContents(
@@ -131,8 +115,6 @@ class SuggestionServiceTest {
                                 .build()))
                 .build();
 
-        doReturn(List.of(List.of(section))).when(sectionService).getSectionsByChapterIds(chapterIds);
-
         final UserProgressData progressDataMinus5 = UserProgressData.builder()
                 .setIsLearned(true)
                 .setIsDueForReview(true)
@@ -159,15 +141,14 @@ class SuggestionServiceTest {
         final UUID contentIdMinus1 = section.getStages().get(0).getRequiredContents().get(2).getId();
         final UUID contentIdPlus2 = section.getStages().get(0).getRequiredContents().get(3).getId();
 
-        doReturn(progressDataMinus5).when(userProgressDataService).getUserProgressData(userId, contentIdMinus5);
-        doReturn(progressDataMinus2).when(userProgressDataService).getUserProgressData(userId, contentIdMinus2);
-        doReturn(progressDataMinus1).when(userProgressDataService).getUserProgressData(userId, contentIdMinus1);
-        doReturn(progressDataPlus2).when(userProgressDataService).getUserProgressData(userId, contentIdPlus2);
+        mockUserProgressData(userId, Map.of(
+                contentIdMinus5, progressDataMinus5,
+                contentIdMinus2, progressDataMinus2,
+                contentIdMinus1, progressDataMinus1,
+                contentIdPlus2, progressDataPlus2)::get);
 
         // Act
-        final List<Content> requiredContents = suggestionService.getAvailableRequiredContentsOfChaptersForUser(chapterIds, userId);
-        final List<Content> optionalContents = suggestionService.getAvailableOptionalContentsOfChaptersForUser(chapterIds, userId);
-        final List<Suggestion> actual = suggestionService.createSuggestions(requiredContents, optionalContents, userId, 2, List.of());
+        final List<Suggestion> actual = suggestionService.createSuggestions(List.of(section), userId, 2, List.of());
 
         // Assert
         assertThat(actual, hasSize(2));
@@ -177,10 +158,7 @@ class SuggestionServiceTest {
         assertThat(actual.get(1).getType(), is(SuggestionType.REPETITION));
 
         // Verify
-        verify(userProgressDataService).getUserProgressData(userId, contentIdMinus5);
-        verify(userProgressDataService).getUserProgressData(userId, contentIdMinus2);
-        verify(userProgressDataService).getUserProgressData(userId, contentIdMinus1);
-        verify(userProgressDataService).getUserProgressData(userId, contentIdPlus2);
+        verifyProgressDataLoadedOnce(userId);
     }
 
     /**
@@ -191,11 +169,11 @@ class SuggestionServiceTest {
     @Test
     void testContentNotDueForRepetitionIsNotConsidered() {
         // Arrange
-        final List<UUID> chapterIds = List.of(UUID.randomUUID());
+        final UUID chapterId = UUID.randomUUID();
         final UUID userId = UUID.randomUUID();
 
         final Section section = Section.builder()
-                .setChapterId(chapterIds.get(0))
+                .setChapterId(chapterId)
                 .setStages(List.of(
                         Stage.builder()
                                 .setRequiredContents(
@@ -206,26 +184,22 @@ class SuggestionServiceTest {
                                 .build()))
                 .build();
 
-        doReturn(List.of(List.of(section))).when(sectionService).getSectionsByChapterIds(chapterIds);
-
         final UserProgressData progressNotDueForRepetition = UserProgressData.builder()
                 .setIsLearned(true)
                 .setIsDueForReview(false)
                 .setNextLearnDate(now().plusDays(1))
                 .build();
 
-        doReturn(progressNotDueForRepetition).when(userProgressDataService).getUserProgressData(any(), any());
+        mockUserProgressData(userId, contentId -> progressNotDueForRepetition);
 
         // Act
-        final List<Content> requiredContents = suggestionService.getAvailableRequiredContentsOfChaptersForUser(chapterIds, userId);
-        final List<Content> optionalContents = suggestionService.getAvailableOptionalContentsOfChaptersForUser(chapterIds, userId);
-        final List<Suggestion> actual = suggestionService.createSuggestions(requiredContents, optionalContents, userId, 2, List.of());
+        final List<Suggestion> actual = suggestionService.createSuggestions(List.of(section), userId, 2, List.of());
 
         // Assert
         assertThat(actual, is(empty()));
 
         // Verify
-        verify(userProgressDataService, atLeastOnce()).getUserProgressData(any(), any());
+        verifyProgressDataLoadedOnce(userId);
     }
 
     /**
@@ -236,11 +210,11 @@ class SuggestionServiceTest {
     @Test
     void testOptionalContentLast() {
         // Arrange
-        final List<UUID> chapterIds = List.of(UUID.randomUUID());
+        final UUID chapterId = UUID.randomUUID();
         final UUID userId = UUID.randomUUID();
 
         final Section section = Section.builder()
-                .setChapterId(chapterIds.get(0))
+                .setChapterId(chapterId)
                 .setStages(List.of(
                         Stage.builder()
                                 .setRequiredContents(
@@ -253,16 +227,12 @@ class SuggestionServiceTest {
                                 .build()))
                 .build();
 
-        doReturn(List.of(List.of(section))).when(sectionService).getSectionsByChapterIds(chapterIds);
-
         final UserProgressData userProgressData = UserProgressData.builder().setIsLearned(false).build();
 
-        doReturn(userProgressData).when(userProgressDataService).getUserProgressData(any(), any());
+        mockUserProgressData(userId, contentId -> userProgressData);
 
         // Act
-        final List<Content> requiredContents = suggestionService.getAvailableRequiredContentsOfChaptersForUser(chapterIds, userId);
-        final List<Content> optionalContents = suggestionService.getAvailableOptionalContentsOfChaptersForUser(chapterIds, userId);
-        final List<Suggestion> actual = suggestionService.createSuggestions(requiredContents, optionalContents, userId, 3, List.of());
+        final List<Suggestion> actual = suggestionService.createSuggestions(List.of(section), userId, 3, List.of());
 
         // Assert
         assertThat(actual.get(0).getContent().getMetadata().getName(), is("plus1"));
@@ -271,8 +241,7 @@ class SuggestionServiceTest {
         assertThat(actual, hasSize(3));
 
         // Verify
-        verify(userProgressDataService, atLeastOnce()).getUserProgressData(any(), any());
-        verify(sectionService, times(2)).getSectionsByChapterIds(chapterIds);
+        verifyProgressDataLoadedOnce(userId);
     }
 
     /**
@@ -283,11 +252,11 @@ class SuggestionServiceTest {
     @Test
     void testNewContentsPreferred() {
         // Arrange
-        final List<UUID> chapterIds = List.of(UUID.randomUUID());
+        final UUID chapterId = UUID.randomUUID();
         final UUID userId = UUID.randomUUID();
 
         final Section section = Section.builder()
-                .setChapterId(chapterIds.get(0))
+                .setChapterId(chapterId)
                 .setStages(List.of(
                         Stage.builder()
                                 .setRequiredContents(
@@ -298,21 +267,18 @@ class SuggestionServiceTest {
                                 .build()))
                 .build();
 
-        doReturn(List.of(List.of(section))).when(sectionService).getSectionsByChapterIds(chapterIds);
-
         final UserProgressData progressDataNew = UserProgressData.builder().setIsLearned(false).setNextLearnDate(now().minusDays(5)).build();
         final UserProgressData progressDataRepetition = UserProgressData.builder().setIsLearned(true).setNextLearnDate(now().minusDays(10)).build();
 
         final UUID contentIdNew = section.getStages().get(0).getRequiredContents().get(0).getId();
         final UUID contentIdRepetition = section.getStages().get(0).getRequiredContents().get(1).getId();
 
-        doReturn(progressDataNew).when(userProgressDataService).getUserProgressData(userId, contentIdNew);
-        doReturn(progressDataRepetition).when(userProgressDataService).getUserProgressData(userId, contentIdRepetition);
+        mockUserProgressData(userId, Map.of(
+                contentIdNew, progressDataNew,
+                contentIdRepetition, progressDataRepetition)::get);
 
         // Act
-        final List<Content> requiredContents = suggestionService.getAvailableRequiredContentsOfChaptersForUser(chapterIds, userId);
-        final List<Content> optionalContents = suggestionService.getAvailableOptionalContentsOfChaptersForUser(chapterIds, userId);
-        final List<Suggestion> actual = suggestionService.createSuggestions(requiredContents, optionalContents, userId, 1, List.of());
+        final List<Suggestion> actual = suggestionService.createSuggestions(List.of(section), userId, 1, List.of());
 
         // Assert
         assertThat(actual.get(0).getContent().getMetadata().getName(), is("new"));
@@ -320,9 +286,7 @@ class SuggestionServiceTest {
         assertThat(actual.get(0).getType(), is(SuggestionType.NEW_CONTENT));
 
         // Verify
-        verify(userProgressDataService).getUserProgressData(userId, contentIdNew);
-        verify(userProgressDataService).getUserProgressData(userId, contentIdRepetition);
-        verify(sectionService, times(2)).getSectionsByChapterIds(chapterIds);
+        verifyProgressDataLoadedOnce(userId);
     }
 
     /**
@@ -333,11 +297,11 @@ class SuggestionServiceTest {
     @Test
     void testContentsWithMoreRewardPointsArePreferred() {
         // Arrange
-        final List<UUID> chapterIds = List.of(UUID.randomUUID());
+        final UUID chapterId = UUID.randomUUID();
         final UUID userId = UUID.randomUUID();
 
         final Section section = Section.builder()
-                .setChapterId(chapterIds.get(0))
+                .setChapterId(chapterId)
                 .setStages(List.of(
                         Stage.builder()
                                 .setRequiredContents(
@@ -348,21 +312,18 @@ class SuggestionServiceTest {
                                 .build()))
                 .build();
 
-        doReturn(List.of(List.of(section))).when(sectionService).getSectionsByChapterIds(chapterIds);
-
         final UserProgressData progressDataMorePoints = UserProgressData.builder().setIsLearned(false).build();
         final UserProgressData progressDataLessPoints = UserProgressData.builder().setIsLearned(false).build();
 
         final UUID contentIdMorePoints = section.getStages().get(0).getRequiredContents().get(0).getId();
         final UUID contentIdLessPoints = section.getStages().get(0).getRequiredContents().get(1).getId();
 
-        doReturn(progressDataMorePoints).when(userProgressDataService).getUserProgressData(userId, contentIdMorePoints);
-        doReturn(progressDataLessPoints).when(userProgressDataService).getUserProgressData(userId, contentIdLessPoints);
+        mockUserProgressData(userId, Map.of(
+                contentIdMorePoints, progressDataMorePoints,
+                contentIdLessPoints, progressDataLessPoints)::get);
 
         // Act
-        final List<Content> requiredContents = suggestionService.getAvailableRequiredContentsOfChaptersForUser(chapterIds, userId);
-        final List<Content> optionalContents = suggestionService.getAvailableOptionalContentsOfChaptersForUser(chapterIds, userId);
-        final List<Suggestion> actual = suggestionService.createSuggestions(requiredContents, optionalContents, userId, 1, List.of());
+        final List<Suggestion> actual = suggestionService.createSuggestions(List.of(section), userId, 1, List.of());
 
         // Assert
         assertThat(actual.get(0).getContent().getMetadata().getName(), is("morePoints"));
@@ -370,9 +331,7 @@ class SuggestionServiceTest {
         assertThat(actual.get(0).getType(), is(SuggestionType.NEW_CONTENT));
 
         // Verify
-        verify(userProgressDataService).getUserProgressData(userId, contentIdMorePoints);
-        verify(userProgressDataService).getUserProgressData(userId, contentIdLessPoints);
-        verify(sectionService, times(2)).getSectionsByChapterIds(chapterIds);
+        verifyProgressDataLoadedOnce(userId);
     }
 
     /**
@@ -383,11 +342,11 @@ class SuggestionServiceTest {
     @Test
     void testSkillLevelFilter() {
         // Arrange
-        final List<UUID> chapterIds = List.of(UUID.randomUUID());
+        final UUID chapterId = UUID.randomUUID();
         final UUID userId = UUID.randomUUID();
 
         final Section section = Section.builder()
-                .setChapterId(chapterIds.get(0))
+                .setChapterId(chapterId)
                 .setStages(List.of(
                         Stage.builder()
                                 .setRequiredContents(
@@ -399,24 +358,19 @@ class SuggestionServiceTest {
                                 .build()))
                 .build();
 
-        doReturn(List.of(List.of(section))).when(sectionService).getSectionsByChapterIds(chapterIds);
-
         final UserProgressData progressDataAll = UserProgressData.builder().setIsLearned(false).build();
 
-        doReturn(progressDataAll).when(userProgressDataService).getUserProgressData(eq(userId), any());
+        mockUserProgressData(userId, contentId -> progressDataAll);
 
         // Act
-        final List<Content> requiredContents = suggestionService.getAvailableRequiredContentsOfChaptersForUser(chapterIds, userId);
-        final List<Content> optionalContents = suggestionService.getAvailableOptionalContentsOfChaptersForUser(chapterIds, userId);
-        final List<Suggestion> actual = suggestionService.createSuggestions(requiredContents, optionalContents, userId, 3, List.of(SkillType.APPLY));
+        final List<Suggestion> actual = suggestionService.createSuggestions(List.of(section), userId, 3, List.of(SkillType.APPLY));
 
         // Assert
         assertThat(actual.get(0).getContent().getMetadata().getName(), is("skill2"));
         assertThat(actual, hasSize(1));
 
         // Verify
-        verify(userProgressDataService, atLeastOnce()).getUserProgressData(eq(userId), any());
-        verify(sectionService, times(2)).getSectionsByChapterIds(chapterIds);
+        verifyProgressDataLoadedOnce(userId);
     }
 
     /**
@@ -427,11 +381,11 @@ class SuggestionServiceTest {
     @Test
     void testOnlyUnlockedContentsAreConsidered() {
         // Arrange
-        final List<UUID> chapterIds = List.of(UUID.randomUUID());
+        final UUID chapterId = UUID.randomUUID();
         final UUID userId = UUID.randomUUID();
 
         final Section section = Section.builder()
-                .setChapterId(chapterIds.get(0))
+                .setChapterId(chapterId)
                 .setStages(List.of(
                         Stage.builder()
                                 .setRequiredContents(
@@ -456,8 +410,6 @@ class SuggestionServiceTest {
                                 .build()))
                 .build();
 
-        doReturn(List.of(List.of(section))).when(sectionService).getSectionsByChapterIds(chapterIds);
-
         final UserProgressData progressDataLearned = UserProgressData.builder().setIsLearned(true).setNextLearnDate(now().minusDays(1)).build();
         final UserProgressData progressDataNotLearned = UserProgressData.builder().setIsLearned(false).build();
 
@@ -466,15 +418,14 @@ class SuggestionServiceTest {
         final UUID contentIdUnlocked3 = section.getStages().get(1).getRequiredContents().get(0).getId();
         final UUID contentIdUnlocked4 = section.getStages().get(1).getRequiredContents().get(1).getId();
 
-        doReturn(progressDataLearned).when(userProgressDataService).getUserProgressData(userId, contentIdUnlocked1);
-        doReturn(progressDataLearned).when(userProgressDataService).getUserProgressData(userId, contentIdUnlocked2);
-        doReturn(progressDataNotLearned).when(userProgressDataService).getUserProgressData(userId, contentIdUnlocked3);
-        doReturn(progressDataNotLearned).when(userProgressDataService).getUserProgressData(userId, contentIdUnlocked4);
+        mockUserProgressData(userId, Map.of(
+                contentIdUnlocked1, progressDataLearned,
+                contentIdUnlocked2, progressDataLearned,
+                contentIdUnlocked3, progressDataNotLearned,
+                contentIdUnlocked4, progressDataNotLearned)::get);
 
         // Act
-        final List<Content> requiredContents = suggestionService.getAvailableRequiredContentsOfChaptersForUser(chapterIds, userId);
-        final List<Content> optionalContents = suggestionService.getAvailableOptionalContentsOfChaptersForUser(chapterIds, userId);
-        final List<Suggestion> actual = suggestionService.createSuggestions(requiredContents, optionalContents, userId, 2, List.of());
+        final List<Suggestion> actual = suggestionService.createSuggestions(List.of(section), userId, 2, List.of());
 
         // Assert
         assertThat(actual.get(0).getContent().getMetadata().getName(), is("unlocked4"));
@@ -482,11 +433,27 @@ class SuggestionServiceTest {
         assertThat(actual, hasSize(2));
 
         // Verify
-        verify(userProgressDataService, atLeastOnce()).getUserProgressData(userId, contentIdUnlocked1);
-        verify(userProgressDataService, atLeastOnce()).getUserProgressData(userId, contentIdUnlocked2);
-        verify(userProgressDataService, atLeastOnce()).getUserProgressData(userId, contentIdUnlocked3);
-        verify(userProgressDataService, atLeastOnce()).getUserProgressData(userId, contentIdUnlocked4);
-        verify(sectionService, atLeastOnce()).getSectionsByChapterIds(chapterIds);
+        verifyProgressDataLoadedOnce(userId);
+    }
+
+    /**
+     * Mocks the bulk loading of the progress data of the given user.
+     */
+    private void mockUserProgressData(final UUID userId, final Function<UUID, UserProgressData> progressByContentId) {
+        doAnswer(invocation -> {
+            final Collection<UUID> contentIds = invocation.getArgument(1);
+            final Map<UUID, UserProgressData> result = new HashMap<>();
+            contentIds.forEach(contentId -> result.put(contentId, progressByContentId.apply(contentId)));
+            return result;
+        }).when(userProgressDataService).getUserProgressDataOfContents(eq(userId), any());
+    }
+
+    /**
+     * Verifies that the progress data of the user was loaded with a single bulk query.
+     */
+    private void verifyProgressDataLoadedOnce(final UUID userId) {
+        verify(userProgressDataService, times(1)).getUserProgressDataOfContents(eq(userId), any());
+        verify(userProgressDataService, never()).getUserProgressData(any(UUID.class), any(UUID.class));
     }
 
     private Content contentWithSuggestedDate(final OffsetDateTime suggestedDate, final String name) {
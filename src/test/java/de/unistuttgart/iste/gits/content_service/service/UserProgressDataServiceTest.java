@@ -7,13 +7,16 @@ import de.unistuttgart.iste.gits.content_service.TestData;
 import de.unistuttgart.iste.gits.content_service.persistence.entity.*;
 import de.unistuttgart.iste.gits.content_service.persistence.mapper.ContentMapper;
 import de.unistuttgart.iste.gits.content_service.persistence.mapper.UserProgressDataMapper;
+import de.unistuttgart.iste.gits.content_service.persistence.repository.ProgressLogItemRepository;
+import de.unistuttgart.iste.gits.content_service.persistence.repository.UserChapterProgressRepository;
 import de.unistuttgart.iste.gits.content_service.persistence.repository.UserProgressDataRepository;
 import de.unistuttgart.iste.gits.generated.dto.*;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.*;
 import org.mockito.junit.jupiter.MockitoExtension;
-import org.modelmapper.ModelMapper;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.test.util.ReflectionTestUtils;
 
 import java.time.*;
 import java.util.*;
@@ -32,12 +35,16 @@ class UserProgressDataServiceTest {
     @Mock
     private UserProgressDataRepository userProgressDataRepository;
     @Mock
+    private ProgressLogItemRepository progressLogItemRepository;
+    @Mock
+    private UserChapterProgressRepository userChapterProgressRepository;
+    @Mock
     private ContentService contentService;
     @Spy
-    private UserProgressDataMapper userProgressDataMapper = new UserProgressDataMapper(new ModelMapper());
+    private UserProgressDataMapper userProgressDataMapper = new UserProgressDataMapper();
 
     @Spy
-    private ContentMapper contentMapper = new ContentMapper(new ModelMapper());
+    private ContentMapper contentMapper = new ContentMapper();
     @Mock
     private TopicPublisher topicPublisher;
 
@@ -52,7 +59,6 @@ class UserProgressDataServiceTest {
     @Test
     void getUserProgressData() {
         final var userProgressEntity = UserProgressDataEntity.builder()
-                .progressLog(Collections.emptyList())
                 .learningInterval(1)
                 .userId(UUID.randomUUID())
                 .contentId(UUID.randomUUID())
@@ -68,7 +74,6 @@ class UserProgressDataServiceTest {
         assertThat(actual.getLearningInterval(), is(equalTo(userProgressEntity.getLearningInterval())));
         assertThat(actual.getLastLearnDate(), is(nullValue()));
         assertThat(actual.getNextLearnDate(), is(nullValue()));
-        assertThat(actual.getLog(), is(empty()));
 
         verify(userProgressDataRepository).findByUserIdAndContentId(any(), any());
     }
@@ -80,22 +85,16 @@ class UserProgressDataServiceTest {
      */
     @Test
     void lastLearnDateAndNextLearnDate() {
+        // progress data without progress summary, so it is calculated from the progress log
         final var userProgressEntity = UserProgressDataEntity.builder()
-                .progressLog(List.of(
-                        ProgressLogItemEmbeddable.builder()
-                                .timestamp(OffsetDateTime.of(2021, 1, 1, 0, 0, 0, 0, ZoneOffset.UTC))
-                                .timeToComplete(100)
-                                .hintsUsed(0)
-                                .correctness(1)
-                                .success(true)
-                                .build()
-                ))
                 .learningInterval(7)
                 .userId(UUID.randomUUID())
                 .contentId(UUID.randomUUID())
                 .build();
 
         doReturn(Optional.of(userProgressEntity)).when(userProgressDataRepository).findByUserIdAndContentId(any(), any());
+        doReturn(OffsetDateTime.of(2021, 1, 1, 0, 0, 0, 0, ZoneOffset.UTC))
+                .when(progressLogItemRepository).findLastSuccessTimestamp(any(), any());
 
         final var actual = userProgressDataService
                 .getUserProgressData(userProgressEntity.getUserId(), userProgressEntity.getContentId());
@@ -108,13 +107,83 @@ class UserProgressDataServiceTest {
         final var expectedNextLearnDate = expectedLastLearnDate.plusDays(7);
         assertThat(actual.getLastLearnDate(), is(expectedLastLearnDate));
         assertThat(actual.getNextLearnDate(), is(expectedNextLearnDate));
-        assertThat(actual.getLog(), hasSize(1));
 
         verify(userProgressDataRepository).findByUserIdAndContentId(any(), any());
     }
 
+    /**
+     * Given progress data exists for some of the requested (user, content) pairs
+     * When getUserProgressData is called with multiple keys
+     * Then the progress data of each user is fetched with one query and missing progress data is initialized in memory
+     */
+    @Test
+    void getUserProgressDataForMultipleKeys() {
+        final UUID userId = UUID.randomUUID();
+        final UUID contentId1 = UUID.randomUUID();
+        final UUID contentId2 = UUID.randomUUID();
+        final UserProgressDataEntity existingProgress = buildDummyUserProgressData(true, userId, contentId1);
+
+        doReturn(List.of(existingProgress)).when(userProgressDataRepository)
+                .findByUserIdAndContentIdIn(eq(userId), argThat(ids -> ids.containsAll(List.of(contentId1, contentId2))));
+        doReturn(List.of(buildDummyMediaContent(contentId2))).when(contentService).getContentsById(List.of(contentId2));
+
+        final UserProgressDataKey key1 = new UserProgressDataKey(userId, contentId1);
+        final UserProgressDataKey key2 = new UserProgressDataKey(userId, contentId2);
+        final Map<UserProgressDataKey, UserProgressData> actual = userProgressDataService
+                .getUserProgressData(List.of(key1, key2));
+
+        assertThat(actual.keySet(), containsInAnyOrder(key1, key2));
+        assertThat(actual.get(key1).getIsLearned(), is(true));
+        assertThat(actual.get(key2).getContentId(), is(contentId2));
+        assertThat(actual.get(key2).getIsLearned(), is(false));
+
+        verify(userProgressDataRepository, times(1)).findByUserIdAndContentIdIn(eq(userId), any());
+        verify(userProgressDataRepository, never()).findByUserIdAndContentId(any(), any());
+        verify(userProgressDataRepository, never()).save(any(UserProgressDataEntity.class));
+    }
+
+    /**
+     * Given no progress data exists for the user and content
+     * When getUserProgressData is called
+     * Then the initial progress data is returned without writing to the database
+     */
+    @Test
+    void userDataIsInitializedInMemoryWhenAbsent() {
+        final var contentId = UUID.randomUUID();
+        final var userId = UUID.randomUUID();
+        final Assessment assessment = FlashcardSetAssessment.builder()
+                .setId(contentId)
+                .setAssessmentMetadata(AssessmentMetadata.builder()
+                        .setInitialLearningInterval(2)
+                        .build())
+                .build();
+
+        doReturn(Optional.empty()).when(userProgressDataRepository).findByUserIdAndContentId(any(), any());
+        doReturn(List.of(assessment)).when(contentService).getContentsById(List.of(contentId));
+
+        final var actual = userProgressDataService.getUserProgressData(userId, contentId);
+
+        assertThat(actual.getUserId(), is(equalTo(userId)));
+        assertThat(actual.getContentId(), is(equalTo(contentId)));
+        assertThat(actual.getLearningInterval(), is(2));
+        assertThat(actual.getIsLearned(), is(false));
+        assertThat(actual.getLastLearnDate(), is(nullValue()));
+        assertThat(actual.getNextLearnDate(), is(nullValue()));
+
+        verify(userProgressDataRepository).findByUserIdAndContentId(any(), any());
+        verify(userProgressDataRepository, never()).save(any(UserProgressDataEntity.class));
+        verify(contentService, never()).requireContentExisting(any());
+    }
+
+    /**
+     * Given no progress data exists for the user and content and initial progress data is persisted on read
+     * When getUserProgressData is called
+     * Then the initial progress data is created in the database
+     */
     @Test
-    void userDataIsInitializedWhenAbsent() {
+    void userDataIsPersistedWhenAbsentAndPersistOnReadIsEnabled() {
+        ReflectionTestUtils.setField(userProgressDataService, "persistInitialProgressOnRead", true);
+
         final var contentId = UUID.randomUUID();
         final var userId = UUID.randomUUID();
         final AssessmentEntity assessmentEntity = TestData.dummyAssessmentEntityBuilder(UUID.randomUUID())
@@ -135,7 +204,6 @@ class UserProgressDataServiceTest {
         assertThat(actual.getLearningInterval(), is(2));
         assertThat(actual.getLastLearnDate(), is(nullValue()));
         assertThat(actual.getNextLearnDate(), is(nullValue()));
-        assertThat(actual.getLog(), is(empty()));
 
         verify(userProgressDataRepository).findByUserIdAndContentId(any(), any());
         verify(userProgressDataRepository, times(1)).save(any(UserProgressDataEntity.class));
@@ -167,33 +235,31 @@ class UserProgressDataServiceTest {
                 .build();
 
         final UserProgressDataEntity initialProgress = UserProgressDataEntity.builder()
-                .progressLog(new ArrayList<>())
                 .learningInterval(null)
+                .learned(false)
                 .userId(userId)
                 .contentId(contentId)
                 .build();
 
-        doReturn(List.of(content)).when(contentService).getContentsById(List.of(contentId));
-        doReturn(Optional.of(initialProgress)).when(userProgressDataRepository).findByUserIdAndContentId(any(), any());
-        doAnswer(returnsFirstArg()).when(userProgressDataRepository).save(any(UserProgressDataEntity.class));
+        doReturn(List.of(content)).when(contentService).findContentsById(List.of(contentId));
+        doReturn(List.of(initialProgress)).when(userProgressDataRepository)
+                .findByUserIdAndContentIdIn(userId, Set.of(contentId));
+
+        userProgressDataService.logUserProgress(List.of(event));
+
+        verify(userProgressDataRepository).saveAll(argThat(saved -> List.copyOf(saved).equals(List.of(initialProgress))));
 
-        userProgressDataService.logUserProgress(event);
-
-        verify(userProgressDataRepository).save(
-                UserProgressDataEntity.builder()
-                        .contentId(contentId)
-                        .userId(userId)
-                        .learningInterval(null)
-                        .progressLog(List.of(
-                                ProgressLogItemEmbeddable.builder()
-                                        .timestamp(notNull())
-                                        .timeToComplete(100)
-                                        .correctness(1.0)
-                                        .hintsUsed(0)
-                                        .success(true)
-                                        .build()))
-                        .build()
-        );
+        final ProgressLogItemEntity logItem = captureSavedLogItem();
+        assertThat(logItem, is(ProgressLogItemEntity.builder()
+                .userId(userId)
+                .contentId(contentId)
+                .timestamp(logItem.getTimestamp())
+                .timeToComplete(100)
+                .correctness(1.0)
+                .hintsUsed(0)
+                .success(true)
+                .build()));
+        assertThat(logItem.getTimestamp(), is(notNullValue()));
 
         final UserProgressUpdatedEvent expectedUserProgressEvent = UserProgressUpdatedEvent.builder()
                 .contentId(contentId)
@@ -208,6 +274,138 @@ class UserProgressDataServiceTest {
         verify(topicPublisher).notifyUserProgressUpdated(expectedUserProgressEvent);
     }
 
+    /**
+     * Given progress data with a progress summary and a successful user progress event
+     * When logUserProgress is called
+     * Then the progress summary is updated incrementally
+     */
+    @Test
+    void logProgressUpdatesProgressSummary() {
+        final var contentId = UUID.randomUUID();
+        final var userId = UUID.randomUUID();
+        final var chapterId = UUID.randomUUID();
+        final Content content = MediaContent.builder()
+                .setId(contentId)
+                .setMetadata(ContentMetadata.builder().setChapterId(chapterId).build())
+                .build();
+        final ContentProgressedEvent event = ContentProgressedEvent.builder()
+                .contentId(contentId)
+                .userId(userId)
+                .correctness(1.0)
+                .hintsUsed(0)
+                .success(true)
+                .build();
+
+        final UserProgressDataEntity existingProgress = UserProgressDataEntity.builder()
+                .learningInterval(2)
+                .learned(false)
+                .userId(userId)
+                .contentId(contentId)
+                .build();
+
+        doReturn(List.of(content)).when(contentService).findContentsById(List.of(contentId));
+        doReturn(List.of(existingProgress)).when(userProgressDataRepository)
+                .findByUserIdAndContentIdIn(userId, Set.of(contentId));
+
+        userProgressDataService.logUserProgress(List.of(event));
+
+        final UserProgressDataEntity actual = existingProgress;
+        final ProgressLogItemEntity logItem = captureSavedLogItem();
+
+        assertThat(actual.getLearned(), is(true));
+        assertThat(actual.getLearningInterval(), is(4));
+        assertThat(actual.getLastSuccessTimestamp(), is(logItem.getTimestamp()));
+        assertThat(actual.getNextLearnDate(), is(actual.getLastSuccessTimestamp().plusDays(4)));
+
+        // the content became learned, so it is counted in the chapter progress
+        verify(userChapterProgressRepository).addLearnedContents(userId, chapterId, 1);
+    }
+
+    /**
+     * Given progress data of a content that is already learned and a successful user progress event
+     * When logUserProgress is called
+     * Then the content is not counted in the chapter progress again
+     */
+    @Test
+    void logProgressOfLearnedContentDoesNotChangeChapterProgress() {
+        final var contentId = UUID.randomUUID();
+        final var userId = UUID.randomUUID();
+        final Content content = MediaContent.builder()
+                .setId(contentId)
+                .setMetadata(ContentMetadata.builder().setChapterId(UUID.randomUUID()).build())
+                .build();
+        final ContentProgressedEvent event = ContentProgressedEvent.builder()
+                .contentId(contentId)
+                .userId(userId)
+                .correctness(1.0)
+                .hintsUsed(0)
+                .success(true)
+                .build();
+
+        final UserProgressDataEntity existingProgress = UserProgressDataEntity.builder()
+                .learningInterval(2)
+                .learned(true)
+                .lastSuccessTimestamp(OffsetDateTime.now().minusDays(1))
+                .userId(userId)
+                .contentId(contentId)
+                .build();
+
+        doReturn(List.of(content)).when(contentService).findContentsById(List.of(contentId));
+        doReturn(List.of(existingProgress)).when(userProgressDataRepository)
+                .findByUserIdAndContentIdIn(userId, Set.of(contentId));
+
+        userProgressDataService.logUserProgress(List.of(event));
+
+        verifyNoInteractions(userChapterProgressRepository);
+    }
+
+    /**
+     * Given multiple user progress events, two of them for the same user and content and one for a missing content
+     * When logUserProgress is called with all events at once
+     * Then the progress data is fetched once per user, saved once and an event is published per logged progress
+     */
+    @Test
+    void logProgressBatch() {
+        final var userId = UUID.randomUUID();
+        final var contentId = UUID.randomUUID();
+        final var missingContentId = UUID.randomUUID();
+        final var chapterId = UUID.randomUUID();
+        final Content content = MediaContent.builder()
+                .setId(contentId)
+                .setMetadata(ContentMetadata.builder().setChapterId(chapterId).build())
+                .build();
+        final ContentProgressedEvent failedEvent = ContentProgressedEvent.builder()
+                .userId(userId).contentId(contentId).success(false).correctness(0.0).hintsUsed(0).build();
+        final ContentProgressedEvent successfulEvent = ContentProgressedEvent.builder()
+                .userId(userId).contentId(contentId).success(true).correctness(1.0).hintsUsed(0).build();
+        final ContentProgressedEvent eventOfMissingContent = ContentProgressedEvent.builder()
+                .userId(userId).contentId(missingContentId).success(true).correctness(1.0).hintsUsed(0).build();
+
+        doReturn(Arrays.asList(content, null)).when(contentService).findContentsById(List.of(contentId, missingContentId));
+        doReturn(List.of()).when(userProgressDataRepository).findByUserIdAndContentIdIn(userId, Set.of(contentId));
+
+        userProgressDataService.logUserProgress(List.of(failedEvent, successfulEvent, eventOfMissingContent));
+
+        @SuppressWarnings("unchecked") final ArgumentCaptor<Collection<UserProgressDataEntity>> captor =
+                ArgumentCaptor.forClass(Collection.class);
+        verify(userProgressDataRepository).saveAll(captor.capture());
+        assertThat(captor.getValue(), hasSize(1));
+
+        final UserProgressDataEntity actual = captor.getValue().iterator().next();
+        assertThat(actual.getContentId(), is(contentId));
+        assertThat(actual.getLearned(), is(true));
+
+        @SuppressWarnings("unchecked") final ArgumentCaptor<Collection<ProgressLogItemEntity>> logItemCaptor =
+                ArgumentCaptor.forClass(Collection.class);
+        verify(progressLogItemRepository).saveAll(logItemCaptor.capture());
+        assertThat(logItemCaptor.getValue(), hasSize(2));
+
+        verify(userProgressDataRepository, times(1)).findByUserIdAndContentIdIn(any(), any());
+        verify(topicPublisher, times(2)).notifyUserProgressUpdated(any());
+        // the content became learned once, although two events were logged for it
+        verify(userChapterProgressRepository).addLearnedContents(userId, chapterId, 1);
+    }
+
     /**
      * Given a user progress event with 1.0 correctness and success
      * When calculateNewLearningInterval is called
@@ -360,16 +558,15 @@ class UserProgressDataServiceTest {
                 .setOptionalContents(List.of(mediaContent, mediaContent2))
                 .build();
 
-        when(userProgressDataRepository.findByUserIdAndContentId(userId, mediaContent.getId()))
-                .thenReturn(Optional.of(userProgressData));
-        when(userProgressDataRepository.findByUserIdAndContentId(userId, mediaContent2.getId()))
-                .thenReturn(Optional.of(userProgressData2));
+        when(userProgressDataRepository.findByUserIdAndContentIdIn(eq(userId), any()))
+                .thenReturn(List.of(userProgressData, userProgressData2));
 
         // run method under test
         final double result = userProgressDataService.getStageProgressForUser(stage, userId, false);
 
         // verify methods called
-        verify(userProgressDataRepository, times(2)).findByUserIdAndContentId(any(), any());
+        verify(userProgressDataRepository, times(1)).findByUserIdAndContentIdIn(eq(userId), any());
+        verify(userProgressDataRepository, never()).findByUserIdAndContentId(any(), any());
 
         // assertions
         assertEquals(50.0, result);
@@ -399,23 +596,66 @@ class UserProgressDataServiceTest {
         final UserProgressDataEntity progressDataEntity2 = buildDummyUserProgressData(false, userId, mediaContent2.getId());
 
         // mock repository
-        doReturn(Optional.of(progressDataEntity)).when(userProgressDataRepository).findByUserIdAndContentId(userId, mediaContent.getId());
-        doReturn(Optional.of(progressDataEntity2)).when(userProgressDataRepository).findByUserIdAndContentId(userId, mediaContent2.getId());
+        doReturn(List.of(progressDataEntity, progressDataEntity2)).when(userProgressDataRepository)
+                .findByUserIdAndContentIdIn(eq(userId), any());
 
         // run method under test
         final double result = userProgressDataService.getStageProgressForUser(stage, userId, true);
 
         // verify methods called
         verify(userProgressDataRepository, never()).save(any());
-        verify(userProgressDataRepository, times(2)).findByUserIdAndContentId(any(), any());
+        verify(userProgressDataRepository, times(1)).findByUserIdAndContentIdIn(eq(userId), any());
 
         // assertions
         assertEquals(50.0, result);
     }
 
+    /**
+     * Given multiple stages, one of them without required contents
+     * When getStagesProgressForUser is called
+     * Then the progress of each stage is calculated from a single query of the progress data
+     */
+    @Test
+    void getStagesProgressFetchesProgressDataOnce() {
+        final UUID userId = UUID.randomUUID();
+        final MediaContent mediaContent = buildDummyMediaContent();
+        final MediaContent mediaContent2 = buildDummyMediaContent();
+        final MediaContent mediaContent3 = buildDummyMediaContent();
+
+        final Stage stage1 = Stage.builder()
+                .setId(UUID.randomUUID())
+                .setRequiredContents(List.of(mediaContent, mediaContent2))
+                .setOptionalContents(List.of())
+                .build();
+        final Stage stage2 = Stage.builder()
+                .setId(UUID.randomUUID())
+                .setRequiredContents(List.of(mediaContent3))
+                .setOptionalContents(List.of())
+                .build();
+        final Stage stage3 = Stage.builder()
+                .setId(UUID.randomUUID())
+                .setRequiredContents(List.of())
+                .setOptionalContents(List.of(mediaContent))
+                .build();
+
+        doReturn(List.of(
+                buildDummyUserProgressData(true, userId, mediaContent.getId()),
+                buildDummyUserProgressData(false, userId, mediaContent2.getId()),
+                buildDummyUserProgressData(true, userId, mediaContent3.getId())))
+                .when(userProgressDataRepository).findByUserIdAndContentIdIn(userId,
+                        Set.of(mediaContent.getId(), mediaContent2.getId(), mediaContent3.getId()));
+
+        final List<Double> result = userProgressDataService.getStagesProgressForUser(
+                List.of(stage1, stage2, stage3), userId, true);
+
+        assertThat(result, contains(50.0, 100.0, 100.0));
+        verify(userProgressDataRepository, times(1)).findByUserIdAndContentIdIn(any(), any());
+    }
+
     /**
      * Testcase for function to calculate progress for a user over an entire chapter.
-     * This Testcase assumes Progress has already been made for all content
+     * This Testcase assumes Progress has already been made for one of two contents of the first chapter
+     * and the second chapter has no contents
      */
     @Test
     void getProgressByChapterIdsForUserTest() {
@@ -425,25 +665,14 @@ class UserProgressDataServiceTest {
 
         final List<UUID> chapterIds = List.of(chapterId1, chapterId2);
 
-        // init content and user progress
-        final List<MediaContentEntity> mediaContentEntities = List.of(TestData.buildContentEntity(chapterId1),
-                TestData.buildContentEntity(chapterId1));
-
-        for (int i = 0; i < mediaContentEntities.size(); i++) {
-            final MediaContentEntity mediaContentEntity = mediaContentEntities.get(i);
-            final boolean success = i % 2 == 0;
-            final UserProgressDataEntity progressDataEntity = buildDummyUserProgressData(success, userId, mediaContentEntity.getId());
-            // mock repository calls
-            doReturn(Optional.of(progressDataEntity)).when(userProgressDataRepository)
-                    .findByUserIdAndContentId(userId, mediaContentEntity.getId());
-
-        }
-
-        final List<Content> contentsForChapter1 = mediaContentEntities.stream().map(contentMapper::entityToDto).toList();
-        final List<Content> contentsForChapter2 = List.of();
-
-        // mock service with repository calls
-        when(contentService.getContentsByChapterIds(chapterIds)).thenReturn(List.of(contentsForChapter1, contentsForChapter2));
+        // mock the total contents of each chapter and the maintained chapter progress
+        doReturn(Map.of(chapterId1, 2, chapterId2, 0)).when(contentService).countContentsByChapterIds(chapterIds);
+        doReturn(List.of(UserChapterProgressEntity.builder()
+                .userId(userId)
+                .chapterId(chapterId1)
+                .learnedContents(1)
+                .build()))
+                .when(userChapterProgressRepository).findByUserIdAndChapterIdIn(userId, chapterIds);
 
         // run method under test
         final List<CompositeProgressInformation> resultList = userProgressDataService.getProgressByChapterIdsForUser(chapterIds, userId);
@@ -458,9 +687,96 @@ class UserProgressDataServiceTest {
         assertEquals(0, resultList.get(1).getCompletedContents());
         assertEquals(0, resultList.get(1).getTotalContents());
 
-        // verify called methods
-        verify(userProgressDataRepository, times(2)).findByUserIdAndContentId(any(), any());
-        verify(contentService, times(1)).getContentsByChapterIds(chapterIds);
+        // neither the contents nor their progress data are loaded
+        verify(userProgressDataRepository, never()).findByUserIdAndContentIdIn(any(), any());
+        verify(contentService, never()).getContentsByChapterIds(any());
+    }
+
+    /**
+     * Given a rebuild of the chapter progress of a course
+     * When rebuildChapterProgress is called
+     * Then the chapter progress of the course is calculated again and overwrites the existing one,
+     * after which the chapter progress without learned contents is deleted
+     */
+    @Test
+    void rebuildChapterProgressTest() {
+        final UUID courseId = UUID.randomUUID();
+        doReturn(3).when(userChapterProgressRepository).upsertCalculatedByCourseId(courseId);
+
+        assertThat(userProgressDataService.rebuildChapterProgress(courseId), is(3));
+
+        final InOrder inOrder = inOrder(userChapterProgressRepository);
+        inOrder.verify(userChapterProgressRepository).upsertCalculatedByCourseId(courseId);
+        inOrder.verify(userChapterProgressRepository).deleteWithoutLearnedContentsByCourseId(courseId);
+    }
+
+    /**
+     * Given a full batch of (user, content) pairs whose progress log entries can be compacted
+     * When compactProgressLog is called
+     * Then only the entries of the range of these pairs are deleted and the last pair is returned
+     */
+    @Test
+    void compactProgressLogTest() {
+        final OffsetDateTime olderThan = OffsetDateTime.now().minusDays(30);
+        final UserProgressDataRepository.ProgressDataKey firstKey = progressDataKey(UUID.randomUUID(), UUID.randomUUID());
+        final UserProgressDataRepository.ProgressDataKey lastKey = progressDataKey(UUID.randomUUID(), UUID.randomUUID());
+        doReturn(List.of(firstKey, lastKey)).when(userProgressDataRepository)
+                .findKeysWithProgressSummary(PageRequest.of(0, 2));
+        final List<UUID> ids = List.of(UUID.randomUUID(), UUID.randomUUID());
+        doReturn(ids).when(progressLogItemRepository).findCompactableIds(olderThan, 5,
+                firstKey.getUserId(), firstKey.getContentId(), lastKey.getUserId(), lastKey.getContentId());
+
+        final UserProgressDataService.CompactedBatch batch =
+                userProgressDataService.compactProgressLog(olderThan, 5, null, 2);
+
+        assertThat(batch.compactedItems(), is(2));
+        assertThat(batch.lastKey(), is(new UserProgressDataKey(lastKey.getUserId(), lastKey.getContentId())));
+        verify(progressLogItemRepository).deleteAllByIdInBatch(ids);
+        verify(userProgressDataRepository, never()).saveAll(any());
+    }
+
+    /**
+     * Given the last (user, content) pairs, fewer than the batch size
+     * When compactProgressLog is called after the previous batch
+     * Then the range continues after the previous batch and no further pair is returned
+     */
+    @Test
+    void compactProgressLogLastBatchTest() {
+        final OffsetDateTime olderThan = OffsetDateTime.now().minusDays(30);
+        final UserProgressDataKey after = new UserProgressDataKey(UUID.randomUUID(), UUID.randomUUID());
+        final UserProgressDataRepository.ProgressDataKey key = progressDataKey(UUID.randomUUID(), UUID.randomUUID());
+        doReturn(List.of(key)).when(userProgressDataRepository)
+                .findKeysWithProgressSummaryAfter(after.userId(), after.contentId(), PageRequest.of(0, 2));
+        doReturn(List.of()).when(progressLogItemRepository).findCompactableIds(olderThan, 5,
+                key.getUserId(), key.getContentId(), key.getUserId(), key.getContentId());
+
+        final UserProgressDataService.CompactedBatch batch =
+                userProgressDataService.compactProgressLog(olderThan, 5, after, 2);
+
+        assertThat(batch.compactedItems(), is(0));
+        assertThat(batch.lastKey(), is(nullValue()));
+    }
+
+    @SuppressWarnings("unchecked")
+    private ProgressLogItemEntity captureSavedLogItem() {
+        final ArgumentCaptor<Collection<ProgressLogItemEntity>> captor = ArgumentCaptor.forClass(Collection.class);
+        verify(progressLogItemRepository).saveAll(captor.capture());
+        assertThat(captor.getValue(), hasSize(1));
+        return captor.getValue().iterator().next();
+    }
+
+    private static UserProgressDataRepository.ProgressDataKey progressDataKey(final UUID userId, final UUID contentId) {
+        return new UserProgressDataRepository.ProgressDataKey() {
+            @Override
+            public UUID getUserId() {
+                return userId;
+            }
+
+            @Override
+            public UUID getContentId() {
+                return contentId;
+            }
+        };
     }
 
     /**
@@ -469,7 +785,16 @@ class UserProgressDataServiceTest {
      * @return media content Object
      */
     private MediaContent buildDummyMediaContent() {
-        final UUID contentId = UUID.randomUUID();
+        return buildDummyMediaContent(UUID.randomUUID());
+    }
+
+    /**
+     * helper method to generate some generic media content DTO with the given id
+     *
+     * @param contentId the id of the content
+     * @return media content Object
+     */
+    private MediaContent buildDummyMediaContent(final UUID contentId) {
         final ContentMetadata metadata = ContentMetadata.builder()
                 .setChapterId(UUID.randomUUID())
                 .setName("TestContent")